@@ -0,0 +1,69 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.ApplyOnHistoryJob;
+import nl.utwente.ing.reference.CategoryRule;
+import nl.utwente.ing.reference.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying one category rule on a history of 1M transactions, as the reference server does for a rule
+ * posted with applyOnHistory, on fork-join pools of increasing parallelism against a plain loop. The
+ * speedup is bounded by the cores of the machine, compare {@code parallelism} up to
+ * {@code Runtime.availableProcessors()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ApplyOnHistoryBenchmark {
+
+    @Param({"1000000"})
+    private int transactions;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private TransactionStore store;
+    private ApplyOnHistoryJob job;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        store = TransactionStoreBenchmark.fill(transactions, 42);
+        // Matches "payment reference 1" and "payment reference 1000" to "1999", about 1 in 5 rows
+        CategoryRule rule = new CategoryRule(1, "reference 1", "", "", 9, true);
+        job = new ApplyOnHistoryJob(rule, store.id(store.size() - 1), store.size());
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int forkJoin() {
+        return job.apply(store, 0, store.size(), pool);
+    }
+
+    @Benchmark
+    public int sequential() {
+        return job.apply(store, 0, store.size());
+    }
+}
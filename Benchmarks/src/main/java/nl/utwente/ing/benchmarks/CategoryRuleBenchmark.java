@@ -0,0 +1,102 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.CategoryRule;
+import nl.utwente.ing.reference.CategoryRuleIndex;
+import nl.utwente.ing.reference.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categorizing one new transaction against a session with many category rules: the compiled
+ * {@link CategoryRuleIndex} the reference server uses against trying every rule in order. Rules
+ * match on part of the description, the IBAN and the type in random combinations. With 10k rules
+ * most transactions match a rule far down the list or none at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryRuleBenchmark {
+
+    private static final int TRANSACTIONS = 1024;
+    private static final String[] TYPES = {"", Transaction.DEPOSIT, Transaction.WITHDRAWAL};
+
+    @Param({"100", "10000"})
+    private int rules;
+
+    private List<CategoryRule> ruleList;
+    private CategoryRuleIndex index;
+    private String[] descriptions;
+    private String[] ibans;
+    private String[] types;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        ruleList = new ArrayList<>(rules);
+        for (int id = 1; id <= rules; id++) {
+            // Descriptions of rules look like "reference 1234", transactions like "payment reference 123456".
+            // Every rule has a description or an IBAN, a rule matching everything would end every scan early.
+            boolean byDescription = random.nextInt(5) != 0;
+            ruleList.add(new CategoryRule(id,
+                    byDescription ? "reference " + random.nextInt(100_000) : "",
+                    byDescription && random.nextBoolean()
+                            ? "" : TransactionFixtures.iban(random.nextInt(TransactionFixtures.IBANS)),
+                    TYPES[random.nextInt(TYPES.length)],
+                    1 + random.nextInt(50), false));
+        }
+        index = new CategoryRuleIndex(ruleList);
+        descriptions = new String[TRANSACTIONS];
+        ibans = new String[TRANSACTIONS];
+        types = new String[TRANSACTIONS];
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            descriptions[i] = "payment reference " + random.nextInt(1_000_000);
+            ibans[i] = TransactionFixtures.iban(random.nextInt(TransactionFixtures.IBANS));
+            types[i] = random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL;
+        }
+    }
+
+    @Benchmark
+    public int indexed() {
+        int i = next++ & (TRANSACTIONS - 1);
+        CategoryRule rule = index.match(descriptions[i], ibans[i], types[i]);
+        return rule == null ? 0 : rule.getCategoryId();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = next++ & (TRANSACTIONS - 1);
+        for (CategoryRule rule : ruleList) {
+            if (rule.matches(descriptions[i], ibans[i], types[i])) {
+                return rule.getCategoryId();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compiling the index, which the reference server does once after the rules of a session change.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int compile() {
+        return new CategoryRuleIndex(ruleList).size();
+    }
+}
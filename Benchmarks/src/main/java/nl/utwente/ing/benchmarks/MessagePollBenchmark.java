@@ -0,0 +1,106 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.Session;
+import nl.utwente.ing.reference.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-polls for user messages with 50k idle subscribers on one server: every session has a poll
+ * waiting, as GET /messages/poll leaves it. Measures delivering a message to the poll of one session
+ * and setting up and cancelling a poll that times out. The setup prints the heap an idle poll takes
+ * in the reference server; the connection itself is the servlet container's and not included.
+ * {@code nl.utwente.ing.testsuite.load.MessagePollRun} holds the same polls open over real
+ * connections, and measures the whole heap and the delivery latency end to end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MessagePollBenchmark {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2018, 1, 1, 12, 0);
+
+    @Param({"50000"})
+    private int subscribers;
+
+    private Session[] sessions;
+    // The waiting poll of every session, and the last message id it has seen
+    private DeferredResult<?>[] waiting;
+    private int[] seen;
+    private Session quiet;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        sessions = new Session[subscribers];
+        waiting = new DeferredResult<?>[subscribers];
+        seen = new int[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            sessions[i] = new Session(i + 1);
+        }
+        long before = usedHeap();
+        for (int i = 0; i < subscribers; i++) {
+            waiting[i] = poll(sessions[i], 0);
+        }
+        long idle = usedHeap() - before;
+        System.out.printf("%n%,d idle polls take %,d bytes, %.0f bytes each%n", subscribers, idle,
+                (double) idle / subscribers);
+        quiet = new Session(subscribers + 1);
+    }
+
+    /**
+     * A withdrawal below zero adds a negative balance message, which answers the waiting poll; the
+     * client then polls again from that message.
+     */
+    @Benchmark
+    public boolean deliver() {
+        int i = next++ % subscribers;
+        DeferredResult<?> answered = waiting[i];
+        sessions[i].addTransaction(DATE, 1, "NL01", Transaction.WITHDRAWAL, "");
+        waiting[i] = poll(sessions[i], ++seen[i]);
+        return answered.hasResult();
+    }
+
+    @Benchmark
+    public boolean pollAndTimeOut() {
+        DeferredResult<List<Map<String, Object>>> result = new DeferredResult<>(30_000L, Collections.emptyList());
+        quiet.awaitMessages(0, result::setResult).run();
+        return result.hasResult();
+    }
+
+    /**
+     * A poll as the controller sets it up.
+     */
+    private static DeferredResult<?> poll(Session session, int since) {
+        DeferredResult<List<Map<String, Object>>> result = new DeferredResult<>(30_000L, Collections.emptyList());
+        result.onCompletion(session.awaitMessages(since, result::setResult));
+        return result;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
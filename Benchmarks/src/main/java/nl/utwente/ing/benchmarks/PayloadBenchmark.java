@@ -0,0 +1,71 @@
+package nl.utwente.ing.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of building the request bodies the suite sends, org.json against Jackson streaming.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadBenchmark {
+
+    private final LocalDateTime date = LocalDateTime.of(2018, 3, 31, 22, 27, 9, 140_000_000);
+    private final StreamingPayloads streaming = new StreamingPayloads(new JsonFactory());
+
+    @Benchmark
+    public String transactionOrgJson() {
+        return Payloads.transaction(date, 213.04, "NL39RABO0300065264", "deposit", "asfhwef iwfdc,").toString();
+    }
+
+    @Benchmark
+    public String transactionStreaming() {
+        return streaming.transaction(date, 213.04, "NL39RABO0300065264", "deposit", "asfhwef iwfdc,");
+    }
+
+    @Benchmark
+    public String categoryRuleOrgJson() {
+        return Payloads.categoryRule("fight club", "NL67INGB5879587958", "withdrawal", 3).toString();
+    }
+
+    @Benchmark
+    public String categoryRuleStreaming() {
+        return streaming.categoryRule("fight club", "NL67INGB5879587958", "withdrawal", 3);
+    }
+
+    @Benchmark
+    public String savingGoalOrgJson() {
+        return Payloads.savingGoal("Japan trip", 10000, 100, 260).toString();
+    }
+
+    @Benchmark
+    public String savingGoalStreaming() {
+        return streaming.savingGoal("Japan trip", 10000, 100, 260);
+    }
+
+    @Benchmark
+    public String paymentRequestOrgJson() {
+        return Payloads.paymentRequest("something", date, 125, 2).toString();
+    }
+
+    @Benchmark
+    public String paymentRequestStreaming() {
+        return streaming.paymentRequest("something", date, 125, 2);
+    }
+}
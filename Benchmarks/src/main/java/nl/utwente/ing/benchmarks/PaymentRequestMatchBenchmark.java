@@ -0,0 +1,92 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.PaymentRequest;
+import nl.utwente.ing.reference.PaymentRequestIndex;
+import nl.utwente.ing.reference.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching a new deposit against the open payment requests of a session: the
+ * {@link PaymentRequestIndex} the reference server uses against trying every open request in order.
+ * The requests share {@code amounts} distinct amounts and half of them are past their due date at the
+ * deposits; one in five deposits matches no amount at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentRequestMatchBenchmark {
+
+    private static final int DEPOSITS = 1024;
+
+    @Param({"100000"})
+    private int requests;
+
+    @Param({"1000", "100000"})
+    private int amounts;
+
+    private List<PaymentRequest> open;
+    private PaymentRequestIndex index;
+    private Transaction[] deposits;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.of(2018, 6, 1, 12, 0);
+        open = new ArrayList<>(requests);
+        index = new PaymentRequestIndex();
+        for (int id = 1; id <= requests; id++) {
+            LocalDateTime dueDate = random.nextBoolean() ? now.minusDays(1 + random.nextInt(30))
+                    : now.plusDays(1 + random.nextInt(30));
+            PaymentRequest request = new PaymentRequest(id, "request " + id, dueDate, amount(random.nextInt(amounts)),
+                    1 + random.nextInt(3));
+            open.add(request);
+            index.add(request);
+        }
+        deposits = new Transaction[DEPOSITS];
+        for (int i = 0; i < DEPOSITS; i++) {
+            double amount = random.nextInt(5) == 0
+                    ? amount(amounts + random.nextInt(1000)) : amount(random.nextInt(amounts));
+            deposits[i] = new Transaction(now, amount, "NL39RABO0300065264", Transaction.DEPOSIT, "payment");
+        }
+    }
+
+    private static double amount(int i) {
+        return (100 + i) / 100.0;
+    }
+
+    @Benchmark
+    public PaymentRequest indexed() {
+        return index.match(deposits[next++ & (DEPOSITS - 1)]);
+    }
+
+    @Benchmark
+    public PaymentRequest linearScan() {
+        Transaction deposit = deposits[next++ & (DEPOSITS - 1)];
+        for (PaymentRequest request : open) {
+            if (request.accepts(deposit)) {
+                return request;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package nl.utwente.ing.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of the JsonPath extractions the suite does on GET /transactions responses,
+ * against a Jackson streaming parser doing the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParseBenchmark {
+
+    @Param({"20", "1000", "100000"})
+    private int transactions;
+
+    private final JsonFactory factory = new JsonFactory();
+    private String body;
+
+    @Setup
+    public void setUp() {
+        body = TransactionsResponse.of(transactions);
+    }
+
+    @Benchmark
+    public List<Object> idsJsonPath() {
+        return JsonPath.from(body).getList("id");
+    }
+
+    @Benchmark
+    public List<Integer> idsStreaming() {
+        return TransactionsResponse.ids(factory, body);
+    }
+
+    @Benchmark
+    public String firstIdJsonPath() {
+        return JsonPath.from(body).getString("id[0]");
+    }
+
+    @Benchmark
+    public String firstIdStreaming() {
+        return TransactionsResponse.firstId(factory, body);
+    }
+}
@@ -0,0 +1,92 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.SavingGoalSweep;
+import nl.utwente.ing.reference.Session;
+import nl.utwente.ing.reference.SessionRegistry;
+import nl.utwente.ing.reference.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The month sweep of the reference server over 100k sessions with 10 saving goals each, on fork-join
+ * pools of increasing parallelism against one loop over all sessions. Every call sweeps the next
+ * {@code months} months, 12 being a year of catch-up for sessions that were idle. The goals never fill
+ * up, so every call does the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SavingGoalSweepBenchmark {
+
+    @Param({"100000"})
+    private int sessions;
+
+    @Param({"10"})
+    private int goals;
+
+    @Param({"1", "12"})
+    private int months;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private SessionRegistry registry;
+    private SavingGoalSweep sweep;
+    private ForkJoinPool pool;
+    private YearMonth month;
+
+    @Setup
+    public void setUp() {
+        registry = new SessionRegistry(0);
+        LocalDateTime start = LocalDateTime.of(2018, 1, 1, 12, 0);
+        for (int i = 0; i < sessions; i++) {
+            Session session = registry.create();
+            session.addTransaction(start, 1_000_000_000, "NL39RABO0300065264", Transaction.DEPOSIT, "salary");
+            for (int goal = 0; goal < goals; goal++) {
+                session.addSavingGoal("Goal " + goal, 1_000_000_000, 10 + goal, 0);
+            }
+        }
+        pool = new ForkJoinPool(parallelism);
+        sweep = new SavingGoalSweep(registry, pool, 1024);
+        month = YearMonth.from(start);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long partitioned() {
+        month = month.plusMonths(months);
+        return sweep.sweep(month);
+    }
+
+    @Benchmark
+    public long sequential() {
+        month = month.plusMonths(months);
+        long saved = 0;
+        for (Session session : registry.all()) {
+            saved += session.sweepSavingGoals(month);
+        }
+        return saved;
+    }
+}
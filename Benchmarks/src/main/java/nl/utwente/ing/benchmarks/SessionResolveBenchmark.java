@@ -0,0 +1,68 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.Session;
+import nl.utwente.ing.reference.SessionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The authentication every request pays: resolving its session from the X-session-ID header, with the
+ * reference server's session cache and with parsing and looking up every id. Every request brings its
+ * own header string, so its hash is computed anew as it would be for a real request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionResolveBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    @Param({"1000", "100000"})
+    private int sessions;
+
+    private SessionRegistry cached;
+    private SessionRegistry uncached;
+    private char[][] headers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = new SessionRegistry(4096);
+        uncached = new SessionRegistry(0);
+        for (int i = 0; i < sessions; i++) {
+            cached.create();
+            uncached.create();
+        }
+        // Requests of a few hundred active sessions, which fit the cache
+        SplittableRandom random = new SplittableRandom(42);
+        headers = new char[REQUESTS][];
+        for (int i = 0; i < REQUESTS; i++) {
+            headers[i] = Integer.toString(1 + random.nextInt(Math.min(sessions, 500))).toCharArray();
+        }
+    }
+
+    @Benchmark
+    public Session cache() {
+        return cached.resolve(new String(headers[next++ & (REQUESTS - 1)]), null);
+    }
+
+    @Benchmark
+    public Session lookup() {
+        return uncached.resolve(new String(headers[next++ & (REQUESTS - 1)]), null);
+    }
+}
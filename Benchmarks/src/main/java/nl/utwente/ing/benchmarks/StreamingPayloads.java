@@ -0,0 +1,83 @@
+package nl.utwente.ing.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * The payloads of {@link nl.utwente.ing.testsuite.load.Payloads}, written with the Jackson streaming
+ * generator instead of org.json.
+ */
+final class StreamingPayloads {
+
+    private final JsonFactory factory;
+
+    StreamingPayloads(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    String transaction(LocalDateTime date, double amount, String externalIBAN, String type, String description) {
+        StringWriter out = new StringWriter(128);
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("date", date.toString());
+            json.writeNumberField("amount", amount);
+            json.writeStringField("externalIBAN", externalIBAN);
+            json.writeStringField("type", type);
+            json.writeStringField("description", description);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    String categoryRule(String description, String iban, String type, int categoryId) {
+        StringWriter out = new StringWriter(128);
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("description", description);
+            json.writeStringField("IBAN", iban);
+            json.writeStringField("type", type);
+            json.writeNumberField("categoryId", categoryId);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    String savingGoal(String name, double goal, double savePerMonth, double minBalanceRequired) {
+        StringWriter out = new StringWriter(128);
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("name", name);
+            json.writeNumberField("goal", goal);
+            json.writeNumberField("savePerMonth", savePerMonth);
+            json.writeNumberField("minBalanceRequired", minBalanceRequired);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    String paymentRequest(String description, LocalDateTime dueDate, double amount, int numberOfRequests) {
+        StringWriter out = new StringWriter(128);
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("description", description);
+            json.writeStringField("due_date", dueDate.toString());
+            json.writeNumberField("amount", amount);
+            json.writeNumberField("number_of_requests", numberOfRequests);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package nl.utwente.ing.benchmarks;
+
+/**
+ * Counterparties and descriptions for generated transactions. A real history repeats a limited set
+ * of both, which is what the dictionaries of the transaction store rely on.
+ */
+final class TransactionFixtures {
+
+    static final int IBANS = 1_000;
+    static final int DESCRIPTIONS = 5_000;
+
+    private TransactionFixtures() {
+    }
+
+    static String iban(int index) {
+        return String.format("NL%02dINGB%010d", index % 100, index);
+    }
+
+    static String description(int index) {
+        return "payment reference " + index;
+    }
+}
@@ -0,0 +1,103 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.Transaction;
+import nl.utwente.ing.reference.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read paths of the reference server's transaction store on one large session: GET by id, a deep
+ * offset page and a category filter. Run with {@code -prof gc} to see that none of them allocates
+ * per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TransactionStoreBenchmark {
+
+    // Rows of the page the benchmarks read
+    private static final int LIMIT = 20;
+
+    @Param({"1000000"})
+    private int transactions;
+
+    private TransactionStore store;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        store = fill(transactions, 42);
+        random = new SplittableRandom(7);
+    }
+
+    /**
+     * A store with {@code size} transactions spread over the last few years, with a category on
+     * roughly half of them.
+     */
+    static TransactionStore fill(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TransactionStore store = new TransactionStore();
+        LocalDateTime start = LocalDateTime.now().minusYears(3);
+        for (int i = 0; i < size; i++) {
+            int row = store.add(new Transaction(start.plusMinutes(i),
+                    random.nextInt(1, 100_000) / 100.0,
+                    TransactionFixtures.iban(random.nextInt(TransactionFixtures.IBANS)),
+                    random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL,
+                    TransactionFixtures.description(random.nextInt(TransactionFixtures.DESCRIPTIONS))));
+            store.setCategory(row, random.nextInt(8));
+        }
+        return store;
+    }
+
+    @Benchmark
+    public long getById() {
+        int row = store.indexOf(1 + random.nextInt(transactions));
+        return store.date(row) + store.amount(row);
+    }
+
+    /**
+     * Sums the ids of a page at a random offset; without a category filter the offset is a jump.
+     */
+    @Benchmark
+    public long offsetPage() {
+        int row = random.nextInt(transactions - LIMIT);
+        long sum = 0;
+        for (int end = row + LIMIT; row < end; row++) {
+            sum += store.id(row);
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the first page of one category after a random id, skipping the rows of other categories.
+     */
+    @Benchmark
+    public long categoryPage() {
+        int category = 1 + random.nextInt(7);
+        int found = 0;
+        long sum = 0;
+        for (int row = store.firstAfter(random.nextInt(transactions)); row < store.size() && found < LIMIT; row++) {
+            if (store.category(row) == category) {
+                sum += store.id(row);
+                found++;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,92 @@
+package nl.utwente.ing.benchmarks;
+
+import nl.utwente.ing.reference.Transaction;
+import nl.utwente.ing.reference.TransactionStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Retained heap of one session with {@code -Dfootprint.transactions} transactions (1M by default),
+ * in the columnar transaction store against a list of transaction objects as the server kept them
+ * before. Every row of the list has its own strings, as every POST parses its own.
+ *
+ * <pre>
+ * java -Xmx4g -cp Benchmarks/target/benchmarks.jar nl.utwente.ing.benchmarks.TransactionStoreFootprint
+ * </pre>
+ */
+public class TransactionStoreFootprint {
+
+    /**
+     * A transaction as one object per row, with boxed fields.
+     */
+    static final class Row {
+        final Integer id;
+        final LocalDateTime date;
+        final Double amount;
+        final String externalIBAN;
+        final String type;
+        final String description;
+        Integer categoryId;
+        Double balance;
+
+        Row(Integer id, LocalDateTime date, Double amount, String externalIBAN, String type, String description) {
+            this.id = id;
+            this.date = date;
+            this.amount = amount;
+            this.externalIBAN = externalIBAN;
+            this.type = type;
+            this.description = description;
+        }
+    }
+
+    public static void main(String[] args) {
+        int size = Integer.getInteger("footprint.transactions", 1_000_000);
+
+        long before = usedHeap();
+        TransactionStore store = TransactionStoreBenchmark.fill(size, 42);
+        long columnar = usedHeap() - before;
+
+        before = usedHeap();
+        List<Row> rows = objects(size, 42);
+        long objects = usedHeap() - before;
+
+        System.out.printf("%,d transactions in one session%n", size);
+        System.out.printf("%-20s %,15d bytes %8.1f bytes/transaction%n", "columnar store", columnar,
+                (double) columnar / size);
+        System.out.printf("%-20s %,15d bytes %8.1f bytes/transaction%n", "object list", objects,
+                (double) objects / size);
+        // Keep both reachable until they are measured
+        Reference.reachabilityFence(store);
+        Reference.reachabilityFence(rows);
+    }
+
+    private static List<Row> objects(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Row> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusYears(3);
+        for (int i = 0; i < size; i++) {
+            Row row = new Row(i + 1, start.plusMinutes(i), random.nextInt(1, 100_000) / 100.0,
+                    TransactionFixtures.iban(random.nextInt(TransactionFixtures.IBANS)),
+                    random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL,
+                    TransactionFixtures.description(random.nextInt(TransactionFixtures.DESCRIPTIONS)));
+            row.categoryId = random.nextInt(8);
+            row.balance = 0.0;
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,99 @@
+package nl.utwente.ing.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bodies shaped like a GET /transactions response, and a streaming reader for them.
+ */
+final class TransactionsResponse {
+
+    private TransactionsResponse() {
+    }
+
+    static String of(int size) {
+        JSONArray transactions = new JSONArray();
+        LocalDateTime date = LocalDateTime.of(2018, 1, 1, 12, 0);
+        for (int i = 1; i <= size; i++) {
+            JSONObject transaction = new JSONObject()
+                    .put("id", i)
+                    .put("date", date.plusMinutes(i).toString())
+                    .put("amount", 10 + (i % 997) / 100.0)
+                    .put("externalIBAN", "NL39RABO0300065264")
+                    .put("type", i % 3 == 0 ? "withdrawal" : "deposit")
+                    .put("description", "adfwein wiahof qoihf cfdnas f");
+            if (i % 2 == 0) {
+                transaction.put("category", new JSONObject().put("id", 2).put("name", "groceries"));
+            } else {
+                transaction.put("category", JSONObject.NULL);
+            }
+            transactions.put(transaction);
+        }
+        return transactions.toString();
+    }
+
+    /**
+     * Reads the top-level "id" of every element, the streaming equivalent of getList("id").
+     */
+    static List<Integer> ids(JsonFactory factory, String body) {
+        List<Integer> ids = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_ARRAY);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Integer id = readId(parser);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids;
+    }
+
+    /**
+     * The streaming equivalent of getString("id[0]"), which stops after the first element.
+     */
+    static String firstId(JsonFactory factory, String body) {
+        try (JsonParser parser = factory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_ARRAY);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Integer id = readId(parser);
+            return id == null ? null : id.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reads one object the parser is positioned on and leaves it on the matching END_OBJECT
+    private static Integer readId(JsonParser parser) throws IOException {
+        Integer id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                id = parser.getIntValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Expected " + expected + " but got " + actual);
+        }
+    }
+}
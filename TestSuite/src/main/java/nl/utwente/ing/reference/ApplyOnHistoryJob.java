@@ -0,0 +1,190 @@
+package nl.utwente.ing.reference;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Applies a category rule posted with applyOnHistory to the transactions that existed when it was
+ * posted. The owning {@link Session} runs the job chunk by chunk in the background, holding its lock
+ * for one chunk at a time, and every chunk is split over a fork-join pool. Requests between chunks
+ * see a consistent session: transactions posted after the rule are categorized with it already, and
+ * a transaction the job has not reached yet is settled with {@link #settle} before it is changed, so
+ * the outcome equals applying the rule to the whole history the moment it was posted.
+ *
+ * <p>Not thread-safe apart from {@link #apply}, which only reads and writes the rows it is given.
+ */
+public final class ApplyOnHistoryJob {
+
+    /**
+     * The largest history a rule is applied on right away while it is posted.
+     */
+    static final int INLINE_ROWS = 10_000;
+    /**
+     * Rows per chunk, the session is locked for one chunk at a time.
+     */
+    static final int CHUNK_ROWS = 65_536;
+    // Rows per fork-join leaf
+    private static final int LEAF_ROWS = 4096;
+
+    static final ForkJoinPool POOL = new ForkJoinPool(
+            Integer.getInteger("reference.historyParallelism", Runtime.getRuntime().availableProcessors()));
+    // Drives the jobs of the sessions, one thread per session with pending jobs
+    static final ExecutorService RUNNER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "apply-on-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    enum State {
+        QUEUED, RUNNING, DONE
+    }
+
+    private final int ruleId;
+    // A copy, later changes of the rule do not change what was applied when it was posted
+    private final CategoryRule rule;
+    private final int lastId;
+    private final int total;
+    // Ids settled ahead of the job, which it must leave alone
+    private final BitSet settled = new BitSet();
+    private int categoryId;
+    private int doneUpTo;
+    private int processed;
+    private State state = State.QUEUED;
+
+    /**
+     * A job for the transactions with ids up to {@code lastId}, of which there are {@code total}.
+     */
+    public ApplyOnHistoryJob(CategoryRule rule, int lastId, int total) {
+        this.ruleId = rule.getId();
+        this.rule = new CategoryRule(rule.getId(), rule.getDescription(), rule.getIban(), rule.getType(),
+                rule.getCategoryId(), true);
+        this.categoryId = rule.getCategoryId();
+        this.lastId = lastId;
+        this.total = total;
+    }
+
+    /**
+     * Categorizes the matching rows in {@code [from, to)}, split over the pool. Returns the number of
+     * matching rows.
+     */
+    public int apply(TransactionStore transactions, int from, int to, ForkJoinPool pool) {
+        return pool.invoke(new Chunk(transactions, from, to));
+    }
+
+    /**
+     * Categorizes the matching rows in {@code [from, to)} on the calling thread.
+     */
+    public int apply(TransactionStore transactions, int from, int to) {
+        return new Chunk(transactions, from, to).compute();
+    }
+
+    private int applySequentially(TransactionStore transactions, int from, int to) {
+        int matched = 0;
+        for (int row = from; row < to; row++) {
+            if (!settled.get(transactions.id(row)) && rule.matches(transactions.description(row),
+                    transactions.externalIBAN(row), transactions.type(row))) {
+                transactions.setCategory(row, categoryId);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private final class Chunk extends RecursiveTask<Integer> {
+        private final TransactionStore transactions;
+        private final int from;
+        private final int to;
+
+        Chunk(TransactionStore transactions, int from, int to) {
+            this.transactions = transactions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= LEAF_ROWS || getPool() == null) {
+                return applySequentially(transactions, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Chunk right = new Chunk(transactions, middle, to);
+            right.fork();
+            int left = new Chunk(transactions, from, middle).compute();
+            return left + right.join();
+        }
+    }
+
+    /**
+     * The rows of the next chunk of at most {@code rows} rows: from the first row the job has not done
+     * up to the row after it. Empty when the job is complete.
+     */
+    int[] nextChunk(TransactionStore transactions, int rows) {
+        int from = transactions.firstAfter(doneUpTo);
+        int end = transactions.firstAfter(lastId);
+        return new int[]{from, Math.min(end, from + rows)};
+    }
+
+    /**
+     * Records that the rows of a chunk are done.
+     */
+    void done(TransactionStore transactions, int from, int to) {
+        state = State.RUNNING;
+        if (to > from) {
+            doneUpTo = transactions.id(to - 1);
+            processed += to - from;
+        }
+        if (transactions.firstAfter(doneUpTo) >= transactions.firstAfter(lastId)) {
+            state = State.DONE;
+            processed = total;
+        }
+    }
+
+    /**
+     * Applies the job to a row it has not reached yet, because the row is about to change.
+     */
+    void settle(TransactionStore transactions, int row) {
+        int id = transactions.id(row);
+        if (state != State.DONE && id > doneUpTo && id <= lastId && !settled.get(id)) {
+            applySequentially(transactions, row, row + 1);
+            settled.set(id);
+        }
+    }
+
+    /**
+     * Keeps the job off a transaction posted after its rule. Only needed when the transaction reuses
+     * the id of a deleted one the job has not reached.
+     */
+    void skip(int id) {
+        if (id <= lastId) {
+            settled.set(id);
+        }
+    }
+
+    /**
+     * A category deleted while the job runs would have been cleared from the rows the job sets it on,
+     * so from now on the job clears their category instead.
+     */
+    void categoryDeleted(int deletedId) {
+        if (categoryId == deletedId) {
+            categoryId = 0;
+        }
+    }
+
+    boolean isDone() {
+        return state == State.DONE;
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("ruleId", ruleId);
+        json.put("state", state.name().toLowerCase());
+        json.put("processed", processed);
+        json.put("total", total);
+        return json;
+    }
+}
@@ -0,0 +1,276 @@
+package nl.utwente.ing.reference;
+
+import nl.utwente.ing.reference.BalanceHistory.Interval;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The balance history of one session, kept up to date on every change to a transaction instead of
+ * being computed from all transactions on every request.
+ *
+ * <p>Every hour with transactions holds them in date order. Days are combined from their hours, weeks
+ * and months from their days and years from their months, so a change costs the transactions of one
+ * hour plus a few dozen combinations. A history request reads only the intervals it returns, plus any
+ * intervals after them, which only exist for transactions dated in the future.
+ */
+final class BalanceAggregates {
+
+    /**
+     * The change of the balance over an interval, relative to its opening balance. The high and the
+     * low include the opening balance, so they are never below respectively above zero.
+     */
+    static class Aggregate {
+        long delta;
+        long high;
+        long low;
+        long volume;
+        int count;
+
+        void clear() {
+            delta = 0;
+            high = 0;
+            low = 0;
+            volume = 0;
+            count = 0;
+        }
+
+        void append(long signedAmount) {
+            delta += signedAmount;
+            high = Math.max(high, delta);
+            low = Math.min(low, delta);
+            volume += Math.abs(signedAmount);
+            count++;
+        }
+
+        /**
+         * Appends the interval that directly follows this one.
+         */
+        void append(Aggregate next) {
+            high = Math.max(high, delta + next.high);
+            low = Math.min(low, delta + next.low);
+            delta += next.delta;
+            volume += next.volume;
+            count += next.count;
+        }
+    }
+
+    /**
+     * An hour and its transactions, ordered by date and then by id.
+     */
+    static final class Hour extends Aggregate {
+        private long[] dates = new long[4];
+        private int[] ids = new int[4];
+        private long[] amounts = new long[4];
+
+        void insert(long date, int id, long signedAmount) {
+            int position = count;
+            while (position > 0 && (dates[position - 1] > date
+                    || dates[position - 1] == date && ids[position - 1] > id)) {
+                position--;
+            }
+            if (count == dates.length) {
+                dates = Arrays.copyOf(dates, count * 2);
+                ids = Arrays.copyOf(ids, count * 2);
+                amounts = Arrays.copyOf(amounts, count * 2);
+            }
+            int tail = count - position;
+            System.arraycopy(dates, position, dates, position + 1, tail);
+            System.arraycopy(ids, position, ids, position + 1, tail);
+            System.arraycopy(amounts, position, amounts, position + 1, tail);
+            dates[position] = date;
+            ids[position] = id;
+            amounts[position] = signedAmount;
+            if (tail == 0) {
+                // The usual case, a transaction after all others of the hour
+                append(signedAmount);
+            } else {
+                recompute(count + 1);
+            }
+        }
+
+        void remove(int id) {
+            int position = 0;
+            while (ids[position] != id) {
+                position++;
+            }
+            int tail = count - position - 1;
+            System.arraycopy(dates, position + 1, dates, position, tail);
+            System.arraycopy(ids, position + 1, ids, position, tail);
+            System.arraycopy(amounts, position + 1, amounts, position, tail);
+            recompute(count - 1);
+        }
+
+        private void recompute(int size) {
+            clear();
+            for (int i = 0; i < size; i++) {
+                append(amounts[i]);
+            }
+        }
+
+        /**
+         * Appends the transactions of the hour dated in {@code [from, to)} to the aggregate.
+         */
+        void appendTo(Aggregate aggregate, long from, long to) {
+            for (int i = 0; i < count; i++) {
+                if (dates[i] >= from && dates[i] < to) {
+                    aggregate.append(amounts[i]);
+                }
+            }
+        }
+    }
+
+    private final Map<Interval, NavigableMap<Long, Aggregate>> levels = new EnumMap<>(Interval.class);
+    private long total;
+
+    BalanceAggregates() {
+        for (Interval interval : Interval.values()) {
+            levels.put(interval, new TreeMap<>());
+        }
+    }
+
+    void add(int id, long date, long signedAmount) {
+        long hour = start(Interval.HOUR, date);
+        ((Hour) levels.get(Interval.HOUR).computeIfAbsent(hour, start -> new Hour()))
+                .insert(date, id, signedAmount);
+        total += signedAmount;
+        combine(date);
+    }
+
+    void remove(int id, long date, long signedAmount) {
+        long hour = start(Interval.HOUR, date);
+        Hour aggregate = (Hour) levels.get(Interval.HOUR).get(hour);
+        aggregate.remove(id);
+        if (aggregate.count == 0) {
+            levels.get(Interval.HOUR).remove(hour);
+        }
+        total -= signedAmount;
+        combine(date);
+    }
+
+    /**
+     * Recombines the day, week, month and year that contain the given date.
+     */
+    private void combine(long date) {
+        combine(Interval.DAY, Interval.HOUR, date);
+        combine(Interval.WEEK, Interval.DAY, date);
+        combine(Interval.MONTH, Interval.DAY, date);
+        combine(Interval.YEAR, Interval.MONTH, date);
+    }
+
+    private void combine(Interval interval, Interval parts, long date) {
+        LocalDateTime start = interval.start(TransactionStore.toDate(date));
+        long from = TransactionStore.toMillis(start);
+        long to = TransactionStore.toMillis(interval.plus(start, 1));
+        Aggregate combined = new Aggregate();
+        for (Aggregate part : levels.get(parts).subMap(from, to).values()) {
+            combined.append(part);
+        }
+        if (combined.count == 0) {
+            levels.get(interval).remove(from);
+        } else {
+            levels.get(interval).put(from, combined);
+        }
+    }
+
+    List<Map<String, Object>> history(Interval interval, int intervals, LocalDateTime now) {
+        NavigableMap<Long, Aggregate> level = levels.get(interval);
+        LocalDateTime start = interval.plus(interval.start(now), 1 - intervals);
+        long balance = total;
+        for (Aggregate aggregate : level.tailMap(TransactionStore.toMillis(start), true).values()) {
+            balance -= aggregate.delta;
+        }
+        Aggregate empty = new Aggregate();
+        List<Map<String, Object>> candles = new ArrayList<>(intervals);
+        for (int i = 0; i < intervals; i++) {
+            Aggregate aggregate = level.getOrDefault(TransactionStore.toMillis(start), empty);
+            candles.add(BalanceHistory.candle(start, balance, balance + aggregate.delta, balance + aggregate.high,
+                    balance + aggregate.low, aggregate.volume));
+            balance += aggregate.delta;
+            start = interval.plus(start, 1);
+        }
+        return candles;
+    }
+
+    /**
+     * The highest balance from just before {@code from} up to and including {@code to}: the balance
+     * of everything dated before {@code from} and the balance after every transaction in between,
+     * taken in date order.
+     */
+    long high(long from, long to) {
+        return sumBefore(from) + range(from, to + 1).high;
+    }
+
+    /**
+     * The sum of the transactions dated before {@code date}: the years before its year and the
+     * months, days and hours of its year up to it.
+     */
+    private long sumBefore(long date) {
+        long year = start(Interval.YEAR, date);
+        long sum = 0;
+        for (Aggregate aggregate : levels.get(Interval.YEAR).headMap(year, false).values()) {
+            sum += aggregate.delta;
+        }
+        return sum + range(year, date).delta;
+    }
+
+    /**
+     * The transactions dated in {@code [from, to)} combined into one aggregate. Whole hours, days,
+     * months and years in between are taken from their aggregates, so a range of a few months costs
+     * about a hundred lookups however many transactions it holds.
+     */
+    private Aggregate range(long from, long to) {
+        Aggregate range = new Aggregate();
+        NavigableMap<Long, Aggregate> hours = levels.get(Interval.HOUR);
+        long firstHour = start(Interval.HOUR, from);
+        long lastHour = start(Interval.HOUR, to);
+        Hour first = (Hour) hours.get(firstHour);
+        if (firstHour == lastHour) {
+            if (first != null) {
+                first.appendTo(range, from, to);
+            }
+            return range;
+        }
+        if (first != null) {
+            first.appendTo(range, from, Long.MAX_VALUE);
+        }
+        LocalDateTime cursor = TransactionStore.toDate(firstHour).plusHours(1);
+        LocalDateTime end = TransactionStore.toDate(lastHour);
+        while (cursor.isBefore(end)) {
+            Interval interval = largestAligned(cursor, end);
+            Aggregate aggregate = levels.get(interval).get(TransactionStore.toMillis(cursor));
+            if (aggregate != null) {
+                range.append(aggregate);
+            }
+            cursor = interval.plus(cursor, 1);
+        }
+        Hour last = (Hour) hours.get(lastHour);
+        if (last != null) {
+            last.appendTo(range, Long.MIN_VALUE, to);
+        }
+        return range;
+    }
+
+    /**
+     * The longest of year, month, day and hour that starts at {@code start} and ends by {@code end}.
+     * Weeks are left out, they do not nest in months.
+     */
+    private static Interval largestAligned(LocalDateTime start, LocalDateTime end) {
+        for (Interval interval : new Interval[]{Interval.YEAR, Interval.MONTH, Interval.DAY}) {
+            if (interval.start(start).equals(start) && !interval.plus(start, 1).isAfter(end)) {
+                return interval;
+            }
+        }
+        return Interval.HOUR;
+    }
+
+    private static long start(Interval interval, long date) {
+        return TransactionStore.toMillis(interval.start(TransactionStore.toDate(date)));
+    }
+}
@@ -0,0 +1,42 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/balance")
+public class BalanceController {
+
+    private static final int MAX_INTERVALS = 200;
+
+    private final SessionRegistry sessions;
+
+    public BalanceController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping("/history")
+    public List<Map<String, Object>> history(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                             @RequestParam(value = "session_id", required = false) String parameter,
+                                             @RequestParam(value = "interval", defaultValue = "month") String interval,
+                                             @RequestParam(value = "intervals", defaultValue = "24") String intervals) {
+        Session session = sessions.resolve(header, parameter);
+        int count;
+        try {
+            count = Integer.parseInt(intervals);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("Invalid intervals " + intervals);
+        }
+        if (count < 1 || count > MAX_INTERVALS) {
+            throw new InvalidInputException("intervals must be between 1 and " + MAX_INTERVALS);
+        }
+        return session.balanceHistory(BalanceHistory.Interval.parse(interval), count, LocalDateTime.now());
+    }
+}
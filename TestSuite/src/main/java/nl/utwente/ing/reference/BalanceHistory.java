@@ -0,0 +1,118 @@
+package nl.utwente.ing.reference;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open, close, high, low and volume of the balance per calendar interval, oldest interval first. The
+ * last interval is the one containing the current time. Sessions keep these up to date in their
+ * {@link BalanceAggregates}; {@link #recompute} derives them from the transactions instead.
+ */
+final class BalanceHistory {
+
+    enum Interval {
+        HOUR, DAY, WEEK, MONTH, YEAR;
+
+        static Interval parse(String name) {
+            for (Interval interval : values()) {
+                if (interval.name().equalsIgnoreCase(name)) {
+                    return interval;
+                }
+            }
+            throw new InvalidInputException("Invalid interval " + name);
+        }
+
+        LocalDateTime start(LocalDateTime date) {
+            switch (this) {
+                case HOUR:
+                    return date.truncatedTo(ChronoUnit.HOURS);
+                case DAY:
+                    return date.truncatedTo(ChronoUnit.DAYS);
+                case WEEK:
+                    return date.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return date.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+                default:
+                    return date.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            }
+        }
+
+        LocalDateTime plus(LocalDateTime date, long amount) {
+            switch (this) {
+                case HOUR:
+                    return date.plusHours(amount);
+                case DAY:
+                    return date.plusDays(amount);
+                case WEEK:
+                    return date.plusWeeks(amount);
+                case MONTH:
+                    return date.plusMonths(amount);
+                default:
+                    return date.plusYears(amount);
+            }
+        }
+    }
+
+    private BalanceHistory() {
+    }
+
+    /**
+     * Computes the history with a full pass over the transactions.
+     */
+    static List<Map<String, Object>> recompute(TransactionStore transactions, Interval interval, int intervals,
+                                        LocalDateTime now) {
+        List<Integer> rows = new ArrayList<>(transactions.size());
+        for (int row = 0; row < transactions.size(); row++) {
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparingLong(transactions::date));
+
+        LocalDateTime start = interval.plus(interval.start(now), 1 - intervals);
+        int next = 0;
+        long balance = 0;
+        while (next < rows.size() && transactions.date(rows.get(next)) < TransactionStore.toMillis(start)) {
+            balance += transactions.signedAmount(rows.get(next++));
+        }
+        List<Map<String, Object>> candles = new ArrayList<>(intervals);
+        for (int i = 0; i < intervals; i++) {
+            LocalDateTime end = interval.plus(start, 1);
+            long endMillis = TransactionStore.toMillis(end);
+            long open = balance;
+            long high = balance;
+            long low = balance;
+            long volume = 0;
+            while (next < rows.size() && transactions.date(rows.get(next)) < endMillis) {
+                int row = rows.get(next++);
+                balance += transactions.signedAmount(row);
+                high = Math.max(high, balance);
+                low = Math.min(low, balance);
+                volume += transactions.amount(row);
+            }
+            candles.add(candle(start, open, balance, high, low, volume));
+            start = end;
+        }
+        return candles;
+    }
+
+    /**
+     * One interval of the history, with all amounts in cents.
+     */
+    static Map<String, Object> candle(LocalDateTime start, long open, long close, long high, long low, long volume) {
+        Map<String, Object> candle = new LinkedHashMap<>();
+        candle.put("open", TransactionStore.toAmount(open));
+        candle.put("close", TransactionStore.toAmount(close));
+        candle.put("high", TransactionStore.toAmount(high));
+        candle.put("low", TransactionStore.toAmount(low));
+        candle.put("volume", TransactionStore.toAmount(volume));
+        candle.put("timestamp", start.toEpochSecond(ZoneOffset.UTC));
+        return candle;
+    }
+}
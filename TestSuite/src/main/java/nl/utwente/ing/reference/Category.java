@@ -0,0 +1,34 @@
+package nl.utwente.ing.reference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Category {
+
+    private final int id;
+    private String name;
+
+    public Category(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("name", name);
+        return json;
+    }
+}
@@ -0,0 +1,68 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/categories")
+public class CategoryController {
+
+    private final SessionRegistry sessions;
+
+    public CategoryController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter) {
+        return sessions.resolve(header, parameter).categories();
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> get(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id) {
+        return sessions.resolve(header, parameter).category(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        return session.addCategory(Requests.string(Requests.body(body), "name"));
+    }
+
+    @PutMapping("/{id}")
+    public Map<String, Object> put(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id,
+                                   @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        session.category(id);
+        return session.updateCategory(id, Requests.string(Requests.body(body), "name"));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestHeader(value = "X-session-ID", required = false) String header,
+                       @RequestParam(value = "session_id", required = false) String parameter,
+                       @PathVariable int id) {
+        sessions.resolve(header, parameter).deleteCategory(id);
+    }
+}
@@ -0,0 +1,77 @@
+package nl.utwente.ing.reference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Assigns a category to new transactions. Empty description, IBAN or type fields match anything,
+ * the description matches as a substring.
+ */
+public class CategoryRule {
+
+    private final int id;
+    private String description;
+    private String iban;
+    private String type;
+    private int categoryId;
+    private boolean applyOnHistory;
+
+    public CategoryRule(int id, String description, String iban, String type, int categoryId,
+                        boolean applyOnHistory) {
+        this.id = id;
+        update(description, iban, type, categoryId, applyOnHistory);
+    }
+
+    public void update(String description, String iban, String type, int categoryId, boolean applyOnHistory) {
+        this.description = description;
+        this.iban = iban;
+        this.type = type;
+        this.categoryId = categoryId;
+        this.applyOnHistory = applyOnHistory;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getIban() {
+        return iban;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public boolean isApplyOnHistory() {
+        return applyOnHistory;
+    }
+
+    public boolean matches(String transactionDescription, String transactionIBAN, String transactionType) {
+        return (description.isEmpty() || contains(transactionDescription, description))
+                && (iban.isEmpty() || iban.equals(transactionIBAN))
+                && (type.isEmpty() || type.equals(transactionType));
+    }
+
+    private static boolean contains(String text, String part) {
+        return text != null && text.contains(part);
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("description", description);
+        json.put("IBAN", iban);
+        json.put("type", type);
+        json.put("categoryId", categoryId);
+        json.put("applyOnHistory", applyOnHistory);
+        return json;
+    }
+}
@@ -0,0 +1,91 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/categoryRules")
+public class CategoryRuleController {
+
+    private final SessionRegistry sessions;
+
+    public CategoryRuleController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter) {
+        return sessions.resolve(header, parameter).categoryRules();
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> get(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id) {
+        return sessions.resolve(header, parameter).categoryRule(id);
+    }
+
+    /**
+     * Progress of applying a rule posted with applyOnHistory on the existing transactions. Small
+     * histories are done when the rule is created, large ones are worked through in the background.
+     */
+    @GetMapping("/{id}/applyOnHistory")
+    public Map<String, Object> historyJob(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter,
+                                          @PathVariable int id) {
+        return sessions.resolve(header, parameter).historyJob(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        return session.addCategoryRule(Requests.string(json, "description"), Requests.string(json, "IBAN"),
+                ruleType(json), Requests.integer(json, "categoryId"), json.optBoolean("applyOnHistory", true));
+    }
+
+    @PutMapping("/{id}")
+    public Map<String, Object> put(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id,
+                                   @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        return session.updateCategoryRule(id, Requests.string(json, "description"), Requests.string(json, "IBAN"),
+                ruleType(json), Requests.integer(json, "categoryId"), json.optBoolean("applyOnHistory", true));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestHeader(value = "X-session-ID", required = false) String header,
+                       @RequestParam(value = "session_id", required = false) String parameter,
+                       @PathVariable int id) {
+        sessions.resolve(header, parameter).deleteCategoryRule(id);
+    }
+
+    /**
+     * A rule may leave the type empty to match both deposits and withdrawals.
+     */
+    private static String ruleType(JSONObject json) {
+        String type = Requests.optionalString(json, "type");
+        return type == null || type.isEmpty() ? "" : Requests.type(json);
+    }
+}
@@ -0,0 +1,271 @@
+package nl.utwente.ing.reference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The category rules of a session compiled for matching new transactions. The result is always the
+ * first rule, in the given order, for which {@link CategoryRule#matches} holds, but the rules are not
+ * tried one by one.
+ *
+ * <p>Rules are grouped by description. An Aho-Corasick automaton over all descriptions finds the
+ * groups whose description occurs in the transaction in one pass over its text; rules without a
+ * description form a group that always matches. Within a group the first rule per type is looked up
+ * by exact IBAN in a hash map, next to the first rule per type without an IBAN. A match therefore
+ * costs the length of the description plus the number of descriptions it contains, independent of
+ * the number of rules.
+ *
+ * <p>Immutable; the owning {@link Session} compiles a new index after its rules change.
+ */
+public final class CategoryRuleIndex {
+
+    // Types a rule applies to, as a bit per transaction type
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAWAL = 1;
+    private static final int NONE = Integer.MAX_VALUE;
+
+    /**
+     * The rules with the same description, as the position of the first rule per transaction type.
+     */
+    private static final class Group {
+        final int[] anyIban = {NONE, NONE};
+        final Map<String, int[]> byIban = new HashMap<>();
+
+        int first(String iban, int type) {
+            int first = anyIban[type];
+            if (iban != null && !byIban.isEmpty()) {
+                int[] exact = byIban.get(iban);
+                if (exact != null) {
+                    first = Math.min(first, exact[type]);
+                }
+            }
+            return first;
+        }
+    }
+
+    private final CategoryRule[] rules;
+    private final Group anyDescription = new Group();
+    private final Group[] groups;
+    private final Automaton descriptions;
+
+    /**
+     * Compiles the rules, which are tried in the order given.
+     */
+    public CategoryRuleIndex(Iterable<CategoryRule> rules) {
+        List<CategoryRule> ordered = new ArrayList<>();
+        Map<String, Integer> groupIds = new HashMap<>();
+        List<Group> groupList = new ArrayList<>();
+        Automaton.Builder automaton = new Automaton.Builder();
+        for (CategoryRule rule : rules) {
+            int position = ordered.size();
+            ordered.add(rule);
+            int types = types(rule.getType());
+            if (types == 0) {
+                // A type no transaction has, the rule can never match
+                continue;
+            }
+            Group group = anyDescription;
+            if (!rule.getDescription().isEmpty()) {
+                Integer groupId = groupIds.get(rule.getDescription());
+                if (groupId == null) {
+                    groupId = groupList.size();
+                    groupIds.put(rule.getDescription(), groupId);
+                    groupList.add(new Group());
+                    automaton.add(rule.getDescription(), groupId);
+                }
+                group = groupList.get(groupId);
+            }
+            int[] firsts = rule.getIban().isEmpty()
+                    ? group.anyIban
+                    : group.byIban.computeIfAbsent(rule.getIban(), iban -> new int[]{NONE, NONE});
+            for (int type = DEPOSIT; type <= WITHDRAWAL; type++) {
+                if ((types & 1 << type) != 0 && firsts[type] == NONE) {
+                    firsts[type] = position;
+                }
+            }
+        }
+        this.rules = ordered.toArray(new CategoryRule[0]);
+        this.groups = groupList.toArray(new Group[0]);
+        this.descriptions = automaton.build();
+    }
+
+    /**
+     * The first rule that matches the transaction, or null if none does.
+     */
+    public CategoryRule match(String description, String iban, String type) {
+        int typeIndex = Transaction.DEPOSIT.equals(type) ? DEPOSIT
+                : Transaction.WITHDRAWAL.equals(type) ? WITHDRAWAL : -1;
+        if (typeIndex < 0) {
+            // Never the case for a posted transaction, but answer as the rules would
+            for (CategoryRule rule : rules) {
+                if (rule.matches(description, iban, type)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+        int first = anyDescription.first(iban, typeIndex);
+        if (description != null && groups.length > 0) {
+            first = descriptions.firstMatch(description, groups, iban, typeIndex, first);
+        }
+        return first == NONE ? null : rules[first];
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private static int types(String type) {
+        if (type.isEmpty()) {
+            return 1 << DEPOSIT | 1 << WITHDRAWAL;
+        }
+        if (type.equals(Transaction.DEPOSIT)) {
+            return 1 << DEPOSIT;
+        }
+        return type.equals(Transaction.WITHDRAWAL) ? 1 << WITHDRAWAL : 0;
+    }
+
+    /**
+     * Aho-Corasick automaton over the group descriptions. States are numbered from the root at 0;
+     * transitions live in one open addressing table keyed by state and character.
+     */
+    private static final class Automaton {
+        private final long[] keys;
+        private final int[] targets;
+        private final int mask;
+        private final int[] failure;
+        // The group whose description ends in the state, or -1
+        private final int[] output;
+        // The nearest state on the failure chain with an output, or -1
+        private final int[] nextOutput;
+
+        private Automaton(long[] keys, int[] targets, int[] failure, int[] output, int[] nextOutput) {
+            this.keys = keys;
+            this.targets = targets;
+            this.mask = keys.length - 1;
+            this.failure = failure;
+            this.output = output;
+            this.nextOutput = nextOutput;
+        }
+
+        private int next(int state, char character) {
+            long key = (long) state << 16 | character;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return targets[slot];
+                }
+                if (keys[slot] == -1) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Lowers {@code first} to the first rule of any group whose description occurs in the text.
+         */
+        int firstMatch(String text, Group[] groups, String iban, int type, int first) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char character = text.charAt(i);
+                int next = next(state, character);
+                while (next < 0 && state != 0) {
+                    state = failure[state];
+                    next = next(state, character);
+                }
+                state = next < 0 ? 0 : next;
+                for (int match = output[state] >= 0 ? state : nextOutput[state]; match > 0;
+                     match = nextOutput[match]) {
+                    first = Math.min(first, groups[output[match]].first(iban, type));
+                }
+            }
+            return first;
+        }
+
+        private static int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ mixed >>> 32);
+        }
+
+        static final class Builder {
+            private final Map<Long, Integer> transitions = new HashMap<>();
+            // Children per state, for the breadth first pass that sets the failure links
+            private final List<List<Integer>> children = new ArrayList<>();
+            private final List<Integer> outputs = new ArrayList<>();
+
+            Builder() {
+                newState();
+            }
+
+            private int newState() {
+                children.add(new ArrayList<>());
+                outputs.add(-1);
+                return outputs.size() - 1;
+            }
+
+            void add(String pattern, int group) {
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    long key = (long) state << 16 | pattern.charAt(i);
+                    Integer next = transitions.get(key);
+                    if (next == null) {
+                        next = newState();
+                        transitions.put(key, next);
+                        children.get(state).add(next);
+                    }
+                    state = next;
+                }
+                outputs.set(state, group);
+            }
+
+            Automaton build() {
+                int capacity = Integer.highestOneBit(Math.max(transitions.size(), 1) * 2 - 1) * 2;
+                long[] keys = new long[capacity];
+                int[] targets = new int[capacity];
+                Arrays.fill(keys, -1);
+                Automaton automaton = new Automaton(keys, targets, new int[outputs.size()],
+                        outputs.stream().mapToInt(Integer::intValue).toArray(), new int[outputs.size()]);
+                char[] labels = new char[outputs.size()];
+                for (Map.Entry<Long, Integer> transition : transitions.entrySet()) {
+                    long key = transition.getKey();
+                    int slot = hash(key) & (capacity - 1);
+                    while (keys[slot] != -1) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    keys[slot] = key;
+                    targets[slot] = transition.getValue();
+                    labels[transition.getValue()] = (char) key;
+                }
+
+                automaton.nextOutput[0] = -1;
+                int[] queue = new int[outputs.size()];
+                int head = 0;
+                int tail = 0;
+                for (int child : children.get(0)) {
+                    automaton.failure[child] = 0;
+                    automaton.nextOutput[child] = -1;
+                    queue[tail++] = child;
+                }
+                while (head < tail) {
+                    int state = queue[head++];
+                    for (int child : children.get(state)) {
+                        int fallback = automaton.failure[state];
+                        int next = automaton.next(fallback, labels[child]);
+                        while (next < 0 && fallback != 0) {
+                            fallback = automaton.failure[fallback];
+                            next = automaton.next(fallback, labels[child]);
+                        }
+                        int failure = next < 0 ? 0 : next;
+                        automaton.failure[child] = failure;
+                        automaton.nextOutput[child] = automaton.output[failure] >= 0
+                                ? failure : automaton.nextOutput[failure];
+                        queue[tail++] = child;
+                    }
+                }
+                return automaton;
+            }
+        }
+    }
+}
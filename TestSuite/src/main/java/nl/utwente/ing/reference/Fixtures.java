@@ -0,0 +1,61 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Sample data in sessions 1 to 5, for load runs against an existing session. The suite seeds sessions
+ * of its own through the API, see {@code TestSessions}. Sessions created through POST /sessions start
+ * empty.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static void load(SessionRegistry registry) {
+        // Dated at the start of this month, so transactions the suite posts now do not start a new month
+        LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+
+        Session first = registry.create();
+        for (String name : new String[]{"Groceries", "Rent", "Salary", "Leisure"}) {
+            first.addCategory(name);
+        }
+        first.addCategoryRule("supermarket", "", Transaction.WITHDRAWAL, 1, true);
+        first.addCategoryRule("", "NL39RABO0300065264", Transaction.WITHDRAWAL, 2, true);
+        first.addCategoryRule("salary", "", Transaction.DEPOSIT, 3, true);
+        first.addCategoryRule("cinema", "", "", 4, true);
+        first.addTransaction(date, 2500, "NL02ABNA0123456789", Transaction.DEPOSIT, "salary");
+        first.addTransaction(date.plusMinutes(1), 120.5, "NL89INGB0258025802", Transaction.DEPOSIT, "refund");
+        first.addTransaction(date.plusMinutes(2), 850, "NL39RABO0300065264", Transaction.WITHDRAWAL, "rent");
+        first.addTransaction(date.plusMinutes(3), 42.37, "NL91ABNA0417164300", Transaction.WITHDRAWAL,
+                "supermarket");
+        first.addTransaction(date.plusMinutes(4), 12.5, "NL20INGB0001234567", Transaction.WITHDRAWAL, "cinema");
+        first.addTransaction(date.plusMinutes(5), 300, "NL44RABO0123456789", Transaction.DEPOSIT, "gift");
+        first.addTransaction(date.plusMinutes(6), 64.99, "NL91ABNA0417164300", Transaction.WITHDRAWAL,
+                "supermarket");
+        first.addTransaction(date.plusMinutes(7), 25, "NL69INGB0123456789", Transaction.WITHDRAWAL, "phone");
+        first.addTransaction(date.plusMinutes(8), 75, "NL02ABNA0123456789", Transaction.DEPOSIT, "bonus");
+        first.addTransaction(date.plusMinutes(9), 18.2, "NL20INGB0001234567", Transaction.WITHDRAWAL, "cinema");
+        first.addSavingGoal("Holiday", 1000, 100, 0);
+        first.addSavingGoal("Bike", 600, 50, 500);
+        first.addMessage("Welcome", date, "info");
+
+        Session second = registry.create();
+        second.addCategory("Groceries");
+        second.addCategory("Rent");
+        second.addCategoryRule("supermarket", "", Transaction.WITHDRAWAL, 1, true);
+        second.addTransaction(date, 1800, "NL02ABNA0123456789", Transaction.DEPOSIT, "salary");
+        second.addTransaction(date.plusMinutes(1), 35.1, "NL91ABNA0417164300", Transaction.WITHDRAWAL,
+                "supermarket");
+        second.addTransaction(date.plusMinutes(2), 700, "NL39RABO0300065264", Transaction.WITHDRAWAL, "rent");
+
+        Session third = registry.create();
+        third.addCategory("Groceries");
+        third.addCategory("Rent");
+
+        // Sessions 4 and 5 are empty
+        registry.create();
+        registry.create();
+    }
+}
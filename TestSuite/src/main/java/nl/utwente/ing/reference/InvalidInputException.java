@@ -0,0 +1,15 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Invalid input is answered with 405, as the suite expects throughout.
+ */
+@ResponseStatus(HttpStatus.METHOD_NOT_ALLOWED)
+public class InvalidInputException extends RuntimeException {
+
+    public InvalidInputException(String message) {
+        super(message);
+    }
+}
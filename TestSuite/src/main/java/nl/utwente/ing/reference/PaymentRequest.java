@@ -0,0 +1,94 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asks for {@code numberOfRequests} deposits of exactly {@code amount} before the due date.
+ */
+public class PaymentRequest {
+
+    private final int id;
+    private final String description;
+    private final LocalDateTime dueDate;
+    private final double amount;
+    private final int numberOfRequests;
+    private final List<Integer> transactionIds = new ArrayList<>();
+    private boolean expiryReported;
+
+    public PaymentRequest(int id, String description, LocalDateTime dueDate, double amount, int numberOfRequests) {
+        this.id = id;
+        this.description = description;
+        this.dueDate = dueDate;
+        this.amount = amount;
+        this.numberOfRequests = numberOfRequests;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public boolean isFilled() {
+        return transactionIds.size() >= numberOfRequests;
+    }
+
+    /**
+     * Whether the deposit pays this request: the exact amount, on or before the due date.
+     */
+    public boolean accepts(Transaction deposit) {
+        return !isFilled()
+                && deposit.isDeposit()
+                && deposit.getAmount() == amount
+                && !deposit.getDate().isAfter(dueDate);
+    }
+
+    public void pay(int transactionId) {
+        transactionIds.add(transactionId);
+    }
+
+    public void removeTransaction(int transactionId) {
+        transactionIds.remove(Integer.valueOf(transactionId));
+    }
+
+    /**
+     * Whether the request expired unfilled at {@code date} and that has not been reported yet.
+     */
+    public boolean expiredUnreported(LocalDateTime date) {
+        return !expiryReported && !isFilled() && dueDate.isBefore(date);
+    }
+
+    public boolean isExpiryReported() {
+        return expiryReported;
+    }
+
+    public void reportExpiry() {
+        expiryReported = true;
+    }
+
+    public Map<String, Object> toJson(Session session) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("description", description);
+        json.put("due_date", dueDate.toString());
+        json.put("amount", amount);
+        json.put("number_of_requests", numberOfRequests);
+        json.put("filled", isFilled());
+        List<Map<String, Object>> paid = new ArrayList<>();
+        for (int transactionId : transactionIds) {
+            paid.add(session.transaction(transactionId));
+        }
+        json.put("transactions", paid);
+        return json;
+    }
+}
@@ -0,0 +1,47 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/paymentRequests")
+public class PaymentRequestController {
+
+    private final SessionRegistry sessions;
+
+    public PaymentRequestController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter) {
+        return sessions.resolve(header, parameter).paymentRequests();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        int numberOfRequests = Requests.integer(json, "number_of_requests");
+        if (numberOfRequests < 1) {
+            throw new InvalidInputException("number_of_requests must be positive");
+        }
+        return session.addPaymentRequest(Requests.string(json, "description"), Requests.date(json, "due_date"),
+                Requests.positiveNumber(json, "amount"), numberOfRequests);
+    }
+}
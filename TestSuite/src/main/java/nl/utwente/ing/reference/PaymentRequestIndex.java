@@ -0,0 +1,111 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The open payment requests of a session, by amount in cents, for matching new deposits. The result
+ * is always the oldest open request for which {@link PaymentRequest#accepts} holds, so the requests
+ * of one amount are filled first come, first served, but only the requests of the amount of the
+ * deposit are looked at. Of those, each amount keeps apart the requests no older request is due as
+ * late as, by due date: the oldest one a deposit is in time for is the first of them due at or after
+ * it. A match therefore costs a hash lookup and a tree lookup, however many requests of the amount
+ * expired unfilled.
+ *
+ * <p>Not thread-safe, the owning {@link Session} locks around it.
+ */
+public final class PaymentRequestIndex {
+
+    private static final class Amount {
+        // Every open request by due date, and per due date in the order they were made, ids go up
+        final NavigableMap<LocalDateTime, NavigableMap<Integer, PaymentRequest>> byDueDate = new TreeMap<>();
+        // The requests no older one is due as late as, by due date; their ids go up with the due date
+        final NavigableMap<LocalDateTime, PaymentRequest> oldest = new TreeMap<>();
+    }
+
+    private final Map<Long, Amount> byAmount = new HashMap<>();
+    private int size;
+
+    /**
+     * Makes the request payable, if it was not already.
+     */
+    public void add(PaymentRequest request) {
+        Amount amount = byAmount.computeIfAbsent(TransactionStore.toCents(request.getAmount()), cents -> new Amount());
+        LocalDateTime dueDate = request.getDueDate();
+        if (amount.byDueDate.computeIfAbsent(dueDate, date -> new TreeMap<>()).put(request.getId(), request) != null) {
+            return;
+        }
+        size++;
+        Map.Entry<LocalDateTime, PaymentRequest> later = amount.oldest.ceilingEntry(dueDate);
+        if (later != null && later.getValue().getId() < request.getId()) {
+            // An older request is due as late, a deposit goes there first
+            return;
+        }
+        // This one goes before the younger requests that are due sooner
+        Map.Entry<LocalDateTime, PaymentRequest> sooner = amount.oldest.floorEntry(dueDate);
+        while (sooner != null && sooner.getValue().getId() > request.getId()) {
+            amount.oldest.remove(sooner.getKey());
+            sooner = amount.oldest.lowerEntry(sooner.getKey());
+        }
+        amount.oldest.put(dueDate, request);
+    }
+
+    public void remove(PaymentRequest request) {
+        long cents = TransactionStore.toCents(request.getAmount());
+        Amount amount = byAmount.get(cents);
+        LocalDateTime dueDate = request.getDueDate();
+        NavigableMap<Integer, PaymentRequest> due = amount == null ? null : amount.byDueDate.get(dueDate);
+        if (due == null || due.remove(request.getId()) == null) {
+            return;
+        }
+        size--;
+        if (due.isEmpty()) {
+            amount.byDueDate.remove(dueDate);
+        }
+        PaymentRequest oldest = amount.oldest.get(dueDate);
+        if (oldest != null && oldest.getId() == request.getId()) {
+            amount.oldest.remove(dueDate);
+            // The requests only this one went before: due after the next oldest one sooner, and older
+            // than the next one due later
+            LocalDateTime sooner = amount.oldest.lowerKey(dueDate);
+            Map.Entry<LocalDateTime, PaymentRequest> later = amount.oldest.higherEntry(dueDate);
+            int bound = later == null ? Integer.MAX_VALUE : later.getValue().getId();
+            NavigableMap<LocalDateTime, NavigableMap<Integer, PaymentRequest>> exposed = sooner == null
+                    ? amount.byDueDate.headMap(dueDate, true)
+                    : amount.byDueDate.subMap(sooner, false, dueDate, true);
+            for (Map.Entry<LocalDateTime, NavigableMap<Integer, PaymentRequest>> entry
+                    : exposed.descendingMap().entrySet()) {
+                PaymentRequest first = entry.getValue().firstEntry().getValue();
+                if (first.getId() < bound) {
+                    amount.oldest.put(entry.getKey(), first);
+                    bound = first.getId();
+                }
+            }
+        }
+        if (amount.byDueDate.isEmpty()) {
+            byAmount.remove(cents);
+        }
+    }
+
+    /**
+     * The oldest open request the deposit pays, or null if it pays none.
+     */
+    public PaymentRequest match(Transaction deposit) {
+        if (!deposit.isDeposit()) {
+            return null;
+        }
+        Amount amount = byAmount.get(TransactionStore.toCents(deposit.getAmount()));
+        if (amount == null) {
+            return null;
+        }
+        Map.Entry<LocalDateTime, PaymentRequest> oldest = amount.oldest.ceilingEntry(deposit.getDate());
+        return oldest != null && oldest.getValue().accepts(deposit) ? oldest.getValue() : null;
+    }
+
+    public int size() {
+        return size;
+    }
+}
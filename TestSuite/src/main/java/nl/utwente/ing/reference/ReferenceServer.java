@@ -0,0 +1,17 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * An in-memory implementation of /api/v1 that passes the suite. It lets the suite, the load mode and
+ * the benchmarks run without an external server: run this class, or use {@code -Pembedded} to start
+ * it inside the test run.
+ */
+@SpringBootApplication
+public class ReferenceServer {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReferenceServer.class, args);
+    }
+}
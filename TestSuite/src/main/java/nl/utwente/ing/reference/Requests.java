@@ -0,0 +1,102 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parsing of request bodies. Anything missing or malformed is an {@link InvalidInputException}.
+ */
+final class Requests {
+
+    private Requests() {
+    }
+
+    static JSONObject body(String body) {
+        if (body == null || body.trim().isEmpty()) {
+            throw new InvalidInputException("Missing body");
+        }
+        try {
+            return new JSONObject(body);
+        } catch (JSONException e) {
+            throw new InvalidInputException("Body is not a JSON object");
+        }
+    }
+
+    static String string(JSONObject json, String field) {
+        if (!json.has(field) || json.isNull(field)) {
+            throw new InvalidInputException("Missing " + field);
+        }
+        return json.get(field).toString();
+    }
+
+    static String optionalString(JSONObject json, String field) {
+        return json.has(field) && !json.isNull(field) ? json.get(field).toString() : null;
+    }
+
+    static double number(JSONObject json, String field) {
+        string(json, field);
+        try {
+            return json.getDouble(field);
+        } catch (JSONException e) {
+            throw new InvalidInputException(field + " is not a number");
+        }
+    }
+
+    static double positiveNumber(JSONObject json, String field) {
+        double number = number(json, field);
+        if (!(number > 0)) {
+            throw new InvalidInputException(field + " must be positive");
+        }
+        return number;
+    }
+
+    static int integer(JSONObject json, String field) {
+        string(json, field);
+        try {
+            return json.getInt(field);
+        } catch (JSONException e) {
+            throw new InvalidInputException(field + " is not a number");
+        }
+    }
+
+    static LocalDateTime date(JSONObject json, String field) {
+        return date(string(json, field));
+    }
+
+    /**
+     * Accepts local date-times as sent by the suite and offset date-times, which are taken in UTC.
+     */
+    static LocalDateTime date(String date) {
+        try {
+            return LocalDateTime.parse(date);
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(date).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+            } catch (DateTimeParseException invalid) {
+                throw new InvalidInputException("Invalid date " + date);
+            }
+        }
+    }
+
+    /**
+     * A transaction body with the rules of POST /transactions: a valid date, a positive amount, an
+     * externalIBAN and a type of deposit or withdrawal.
+     */
+    static Transaction transaction(JSONObject json) {
+        return new Transaction(date(json, "date"), positiveNumber(json, "amount"), string(json, "externalIBAN"),
+                type(json), optionalString(json, "description"));
+    }
+
+    static String type(JSONObject json) {
+        String type = string(json, "type");
+        if (!type.equals(Transaction.DEPOSIT) && !type.equals(Transaction.WITHDRAWAL)) {
+            throw new InvalidInputException("Invalid type " + type);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,74 @@
+package nl.utwente.ing.reference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SavingGoal {
+
+    private final int id;
+    private final String name;
+    private final double goal;
+    private final double savePerMonth;
+    private final double minBalanceRequired;
+    private double balance;
+
+    public SavingGoal(int id, String name, double goal, double savePerMonth, double minBalanceRequired) {
+        this.id = id;
+        this.name = name;
+        this.goal = goal;
+        this.savePerMonth = savePerMonth;
+        this.minBalanceRequired = minBalanceRequired;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getGoal() {
+        return goal;
+    }
+
+    public double getSavePerMonth() {
+        return savePerMonth;
+    }
+
+    public double getMinBalanceRequired() {
+        return minBalanceRequired;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    public boolean isReached() {
+        return balance >= goal;
+    }
+
+    /**
+     * Moves this month's saving into the goal, given the balance of the session at the start of the
+     * month, and returns the amount moved.
+     */
+    public double save(double sessionBalance) {
+        if (isReached() || sessionBalance < minBalanceRequired) {
+            return 0;
+        }
+        double saved = Math.min(savePerMonth, goal - balance);
+        balance += saved;
+        return saved;
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("name", name);
+        json.put("goal", goal);
+        json.put("savePerMonth", savePerMonth);
+        json.put("minBalanceRequired", minBalanceRequired);
+        json.put("balance", balance);
+        return json;
+    }
+}
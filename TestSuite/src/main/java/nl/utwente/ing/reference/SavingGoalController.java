@@ -0,0 +1,57 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/savingGoals")
+public class SavingGoalController {
+
+    private final SessionRegistry sessions;
+
+    public SavingGoalController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter) {
+        return sessions.resolve(header, parameter).savingGoals();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        double minBalanceRequired = json.has("minBalanceRequired") ? Requests.number(json, "minBalanceRequired") : 0;
+        if (minBalanceRequired < 0) {
+            throw new InvalidInputException("minBalanceRequired must not be negative");
+        }
+        return session.addSavingGoal(Requests.string(json, "name"), Requests.positiveNumber(json, "goal"),
+                Requests.positiveNumber(json, "savePerMonth"), minBalanceRequired);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestHeader(value = "X-session-ID", required = false) String header,
+                       @RequestParam(value = "session_id", required = false) String parameter,
+                       @PathVariable int id) {
+        sessions.resolve(header, parameter).deleteSavingGoal(id);
+    }
+}
@@ -0,0 +1,139 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts money aside for the saving goals of every session at the start of every month, as one job,
+ * instead of leaving it to the first transaction of every session in the new month. The sessions are
+ * split into batches of {@code -Dreference.sweepBatch} sessions (1024 by default) that a fork-join pool
+ * of {@code -Dreference.sweepParallelism} threads (all cores by default) works through. A session is
+ * locked once and all its goals are saved for all months it missed, so the sweep never holds up more
+ * than one session per thread. {@code -Dreference.monthlySweep=false} leaves the months to the
+ * transactions, as before.
+ *
+ * <p>Transactions dated in a month the sweep has not reached yet, such as the ones of
+ * ControllerSavingGoalTest a month ahead, still save for that month themselves. Either way a month is
+ * saved for once.
+ *
+ * <p>The sweep of the server starts its schedule when the context has created it and shuts its
+ * scheduler and pool down with the context, so a closed server leaves no threads behind.
+ */
+@Component
+public class SavingGoalSweep {
+
+    static final int BATCH_SESSIONS = Integer.getInteger("reference.sweepBatch", 1024);
+
+    private final SessionRegistry sessions;
+    private final ForkJoinPool pool;
+    private final int batchSessions;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The sweep of the server, scheduled for the start of every month once it is {@link #start started}.
+     */
+    @Autowired
+    public SavingGoalSweep(SessionRegistry sessions) {
+        this(sessions, new ForkJoinPool(Integer.getInteger("reference.sweepParallelism",
+                Runtime.getRuntime().availableProcessors())), BATCH_SESSIONS);
+    }
+
+    /**
+     * A sweep that only runs when asked to, on {@code pool} in batches of {@code batchSessions}.
+     */
+    public SavingGoalSweep(SessionRegistry sessions, ForkJoinPool pool, int batchSessions) {
+        this.sessions = sessions;
+        this.pool = pool;
+        this.batchSessions = batchSessions;
+    }
+
+    /**
+     * Saves for every month up to {@code through} in every session and returns the number of goals that
+     * saved, summed over the months.
+     */
+    public long sweep(YearMonth through) {
+        Session[] all = sessions.all().toArray(new Session[0]);
+        return pool.invoke(new Batch(all, 0, all.length, through));
+    }
+
+    /**
+     * Schedules the sweep for the start of every month, unless {@code -Dreference.monthlySweep=false}.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (scheduler == null && Boolean.parseBoolean(System.getProperty("reference.monthlySweep", "true"))) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "saving-goal-sweep");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduleNextMonth(scheduler);
+        }
+    }
+
+    /**
+     * Cancels the schedule and shuts the pool down; a sweep that is running is interrupted.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pool.shutdownNow();
+    }
+
+    private void scheduleNextMonth(ScheduledExecutorService scheduler) {
+        LocalDateTime next = YearMonth.now().plusMonths(1).atDay(1).atStartOfDay();
+        long delay = Duration.between(LocalDateTime.now(), next).toMillis();
+        scheduler.schedule(() -> {
+            try {
+                sweep(YearMonth.from(next));
+            } finally {
+                if (!scheduler.isShutdown()) {
+                    scheduleNextMonth(scheduler);
+                }
+            }
+        }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private final class Batch extends RecursiveTask<Long> {
+        private final Session[] sessions;
+        private final int from;
+        private final int to;
+        private final YearMonth through;
+
+        Batch(Session[] sessions, int from, int to, YearMonth through) {
+            this.sessions = sessions;
+            this.from = from;
+            this.to = to;
+            this.through = through;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= batchSessions) {
+                long saved = 0;
+                for (int i = from; i < to; i++) {
+                    saved += sessions[i].sweepSavingGoals(through);
+                }
+                return saved;
+            }
+            int middle = (from + to) >>> 1;
+            Batch right = new Batch(sessions, middle, to, through);
+            right.fork();
+            long left = new Batch(sessions, from, middle, through).compute();
+            return left + right.join();
+        }
+    }
+}
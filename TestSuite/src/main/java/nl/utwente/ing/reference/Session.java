@@ -0,0 +1,662 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * All data of one session. Every method is synchronized, so a session is consistent under concurrent
+ * requests; different sessions never block each other. Rules applied on a large history are applied
+ * in the background, see {@link ApplyOnHistoryJob}.
+ *
+ * <p>The user messages a new transaction may cause are decided from state kept up to date as the
+ * session changes: the money put aside for saving goals, the open payment requests, the requests due
+ * to expire and whether a new high is still unread. The three months before a transaction are read
+ * from the balance aggregates, so a transaction costs the same on any size of history.
+ */
+public class Session {
+
+    private final int id;
+    private final TransactionStore transactions = new TransactionStore();
+    private final BalanceAggregates balanceAggregates = new BalanceAggregates();
+    private final NavigableMap<Integer, Category> categories = new TreeMap<>();
+    private final NavigableMap<Integer, CategoryRule> categoryRules = new TreeMap<>();
+    // Compiled on the first transaction after the rules changed
+    private CategoryRuleIndex categoryRuleIndex;
+    private final NavigableMap<Integer, SavingGoal> savingGoals = new TreeMap<>();
+    // The sum of the balances of the saving goals, in cents
+    private long savedCents;
+    // The month the month sweep last saved up to, if it is later than the latest transaction
+    private YearMonth sweptThrough;
+    private final NavigableMap<Integer, PaymentRequest> paymentRequests = new TreeMap<>();
+    // The requests that are not filled by amount, and the requests that may still expire unreported by due date
+    private final PaymentRequestIndex openRequests = new PaymentRequestIndex();
+    private final PriorityQueue<PaymentRequest> expiringRequests = new PriorityQueue<>(
+            Comparator.comparing(PaymentRequest::getDueDate).thenComparingInt(PaymentRequest::getId));
+    private final NavigableMap<Integer, UserMessage> messages = new TreeMap<>();
+    private int unreadNewHighs;
+    // Waiting for messages above their id, in the order they started waiting
+    private final List<MessageListener> messageListeners = new ArrayList<>();
+    // The last job per rule, and the jobs still to finish in the order their rules were posted
+    private final Map<Integer, ApplyOnHistoryJob> historyJobs = new HashMap<>();
+    private final Deque<ApplyOnHistoryJob> pendingHistoryJobs = new ArrayDeque<>();
+    private final int inlineHistoryRows;
+    private boolean runningHistoryJobs;
+
+    public Session(int id) {
+        this(id, ApplyOnHistoryJob.INLINE_ROWS);
+    }
+
+    /**
+     * @param inlineHistoryRows the largest history a rule is applied on while it is posted, larger
+     *                          histories are left to a background job
+     */
+    Session(int id, int inlineHistoryRows) {
+        this.id = id;
+        this.inlineHistoryRows = inlineHistoryRows;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // ---- Transactions ----
+
+    /**
+     * Returns at most {@code limit} transactions with an id above {@code afterId}, skipping the first
+     * {@code offset}, optionally only those of one category.
+     */
+    public synchronized List<Map<String, Object>> transactions(int afterId, int offset, int limit,
+                                                               Integer categoryId) {
+        List<Map<String, Object>> page = new ArrayList<>();
+        int row = transactions.firstAfter(afterId);
+        if (categoryId == null) {
+            // Rows are contiguous, so the offset is a jump
+            for (row += offset; row < transactions.size() && page.size() < limit; row++) {
+                page.add(toJson(row));
+            }
+            return page;
+        }
+        int skipped = 0;
+        for (; row < transactions.size() && page.size() < limit; row++) {
+            if (transactions.category(row) != categoryId) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(toJson(row));
+        }
+        return page;
+    }
+
+    /**
+     * Whether there are transactions after the given id, in the given category if it is not null.
+     */
+    public synchronized boolean hasTransactionsAfter(int afterId, Integer categoryId) {
+        for (int row = transactions.firstAfter(afterId); row < transactions.size(); row++) {
+            if (categoryId == null || transactions.category(row) == categoryId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized Map<String, Object> transaction(int transactionId) {
+        return toJson(findTransaction(transactionId));
+    }
+
+    public synchronized Map<String, Object> addTransaction(LocalDateTime date, double amount, String externalIBAN,
+                                                           String type, String description) {
+        return toJson(add(new Transaction(date, amount, externalIBAN, type, description)));
+    }
+
+    /**
+     * Adds the transactions in order, exactly as if each had been posted on its own, and returns their
+     * ids. The session is locked once for all of them.
+     */
+    public synchronized int[] addTransactions(List<Transaction> batch) {
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = transactions.id(add(batch.get(i)));
+        }
+        return ids;
+    }
+
+    private int add(Transaction transaction) {
+        sweepSavingGoals(transaction.getDate());
+        int row = transactions.add(transaction);
+        for (ApplyOnHistoryJob job : pendingHistoryJobs) {
+            job.skip(transactions.id(row));
+        }
+        // The high before the transaction, only when a deposit may report a new one
+        long highBefore = transactions.isDeposit(row) && unreadNewHighs == 0
+                ? highBefore(transactions.date(row)) : Long.MAX_VALUE;
+        balanceAggregates.add(transactions.id(row), transactions.date(row), transactions.signedAmount(row));
+        if (categoryRuleIndex == null) {
+            categoryRuleIndex = new CategoryRuleIndex(categoryRules.values());
+        }
+        CategoryRule rule = categoryRuleIndex.match(transaction.getDescription(), transaction.getExternalIBAN(),
+                transaction.getType());
+        if (rule != null) {
+            transactions.setCategory(row, rule.getCategoryId());
+        }
+        transactions.setBalance(row, balance());
+        addBalanceMessages(row, highBefore);
+        payRequests(transactions.id(row), transaction);
+        return row;
+    }
+
+    public synchronized Map<String, Object> updateTransaction(int transactionId, LocalDateTime date, double amount,
+                                                              String externalIBAN, String type,
+                                                              String description) {
+        int row = findTransaction(transactionId);
+        settleHistoryJobs(row);
+        balanceAggregates.remove(transactionId, transactions.date(row), transactions.signedAmount(row));
+        transactions.update(row, new Transaction(date, amount, externalIBAN, type, description));
+        balanceAggregates.add(transactionId, transactions.date(row), transactions.signedAmount(row));
+        transactions.setBalance(row, balance());
+        return toJson(row);
+    }
+
+    public synchronized void deleteTransaction(int transactionId) {
+        int row = findTransaction(transactionId);
+        balanceAggregates.remove(transactionId, transactions.date(row), transactions.signedAmount(row));
+        transactions.remove(row);
+        for (PaymentRequest request : paymentRequests.values()) {
+            boolean wasFilled = request.isFilled();
+            request.removeTransaction(transactionId);
+            if (wasFilled && !request.isFilled()) {
+                reopen(request);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> assignCategory(int transactionId, int categoryId) {
+        int row = findTransaction(transactionId);
+        findCategory(categoryId);
+        settleHistoryJobs(row);
+        transactions.setCategory(row, categoryId);
+        return toJson(row);
+    }
+
+    private Map<String, Object> toJson(int row) {
+        return transactions.toJson(row, categories.get(transactions.category(row)));
+    }
+
+    private int findTransaction(int transactionId) {
+        int row = transactions.indexOf(transactionId);
+        if (row < 0) {
+            throw new NotFoundException("Transaction " + transactionId + " does not exist");
+        }
+        return row;
+    }
+
+    /**
+     * The balance of all transactions minus what has been put aside for saving goals, in cents.
+     */
+    private long balance() {
+        return transactions.total() - savedCents;
+    }
+
+    // ---- Categories ----
+
+    public synchronized List<Map<String, Object>> categories() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Category category : categories.values()) {
+            list.add(category.toJson());
+        }
+        return list;
+    }
+
+    public synchronized Map<String, Object> category(int categoryId) {
+        return findCategory(categoryId).toJson();
+    }
+
+    public synchronized Map<String, Object> addCategory(String name) {
+        Category category = new Category(nextId(categories), name);
+        categories.put(category.getId(), category);
+        return category.toJson();
+    }
+
+    public synchronized Map<String, Object> updateCategory(int categoryId, String name) {
+        Category category = findCategory(categoryId);
+        category.setName(name);
+        return category.toJson();
+    }
+
+    public synchronized void deleteCategory(int categoryId) {
+        findCategory(categoryId);
+        categories.remove(categoryId);
+        transactions.clearCategory(categoryId);
+        for (ApplyOnHistoryJob job : pendingHistoryJobs) {
+            job.categoryDeleted(categoryId);
+        }
+    }
+
+    private Category findCategory(int categoryId) {
+        Category category = categories.get(categoryId);
+        if (category == null) {
+            throw new NotFoundException("Category " + categoryId + " does not exist");
+        }
+        return category;
+    }
+
+    // ---- Category rules ----
+
+    public synchronized List<Map<String, Object>> categoryRules() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (CategoryRule rule : categoryRules.values()) {
+            list.add(rule.toJson());
+        }
+        return list;
+    }
+
+    public synchronized Map<String, Object> categoryRule(int ruleId) {
+        return findCategoryRule(ruleId).toJson();
+    }
+
+    public synchronized Map<String, Object> addCategoryRule(String description, String iban, String type,
+                                                            int categoryId, boolean applyOnHistory) {
+        CategoryRule rule = new CategoryRule(nextId(categoryRules), description, iban, type, categoryId,
+                applyOnHistory);
+        categoryRules.put(rule.getId(), rule);
+        categoryRuleIndex = null;
+        historyJobs.remove(rule.getId());
+        if (applyOnHistory) {
+            applyOnHistory(rule);
+        }
+        return rule.toJson();
+    }
+
+    /**
+     * Changes an existing rule. A rule that does not exist is not created, the request is echoed.
+     */
+    public synchronized Map<String, Object> updateCategoryRule(int ruleId, String description, String iban,
+                                                               String type, int categoryId,
+                                                               boolean applyOnHistory) {
+        CategoryRule rule = categoryRules.get(ruleId);
+        if (rule == null) {
+            return new CategoryRule(ruleId, description, iban, type, categoryId, applyOnHistory).toJson();
+        }
+        rule.update(description, iban, type, categoryId, applyOnHistory);
+        categoryRuleIndex = null;
+        return rule.toJson();
+    }
+
+    public synchronized void deleteCategoryRule(int ruleId) {
+        findCategoryRule(ruleId);
+        categoryRules.remove(ruleId);
+        categoryRuleIndex = null;
+        historyJobs.remove(ruleId);
+    }
+
+    private CategoryRule findCategoryRule(int ruleId) {
+        CategoryRule rule = categoryRules.get(ruleId);
+        if (rule == null) {
+            throw new NotFoundException("Category rule " + ruleId + " does not exist");
+        }
+        return rule;
+    }
+
+    // ---- Applying rules on the history ----
+
+    /**
+     * The progress of applying the rule on the history it was posted to.
+     */
+    public synchronized Map<String, Object> historyJob(int ruleId) {
+        findCategoryRule(ruleId);
+        ApplyOnHistoryJob job = historyJobs.get(ruleId);
+        if (job == null) {
+            throw new NotFoundException("Category rule " + ruleId + " was not applied on the history");
+        }
+        return job.toJson();
+    }
+
+    synchronized boolean hasPendingHistoryJobs() {
+        return !pendingHistoryJobs.isEmpty();
+    }
+
+    private void applyOnHistory(CategoryRule rule) {
+        ApplyOnHistoryJob job = new ApplyOnHistoryJob(rule, transactions.nextId() - 1, transactions.size());
+        historyJobs.put(rule.getId(), job);
+        if (pendingHistoryJobs.isEmpty() && transactions.size() <= inlineHistoryRows) {
+            job.apply(transactions, 0, transactions.size());
+            job.done(transactions, 0, transactions.size());
+            return;
+        }
+        pendingHistoryJobs.add(job);
+        if (!runningHistoryJobs) {
+            runningHistoryJobs = true;
+            ApplyOnHistoryJob.RUNNER.execute(this::runHistoryJobs);
+        }
+    }
+
+    /**
+     * Runs the pending jobs one chunk at a time, taking the lock per chunk so requests are served in
+     * between.
+     */
+    private void runHistoryJobs() {
+        boolean more = true;
+        try {
+            while (more) {
+                more = runHistoryChunk();
+            }
+        } finally {
+            if (more) {
+                // A chunk failed; give up on the jobs rather than leave them waiting forever
+                synchronized (this) {
+                    pendingHistoryJobs.clear();
+                    runningHistoryJobs = false;
+                }
+            }
+        }
+    }
+
+    private synchronized boolean runHistoryChunk() {
+        ApplyOnHistoryJob job = pendingHistoryJobs.peek();
+        if (job == null) {
+            runningHistoryJobs = false;
+            return false;
+        }
+        int[] chunk = job.nextChunk(transactions, ApplyOnHistoryJob.CHUNK_ROWS);
+        job.apply(transactions, chunk[0], chunk[1], ApplyOnHistoryJob.POOL);
+        job.done(transactions, chunk[0], chunk[1]);
+        if (job.isDone()) {
+            pendingHistoryJobs.poll();
+        }
+        return true;
+    }
+
+    /**
+     * Applies the pending jobs to a row before it changes, in the order their rules were posted.
+     */
+    private void settleHistoryJobs(int row) {
+        for (ApplyOnHistoryJob job : pendingHistoryJobs) {
+            job.settle(transactions, row);
+        }
+    }
+
+    // ---- Saving goals ----
+
+    public synchronized List<Map<String, Object>> savingGoals() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (SavingGoal goal : savingGoals.values()) {
+            list.add(goal.toJson());
+        }
+        return list;
+    }
+
+    public synchronized Map<String, Object> addSavingGoal(String name, double goal, double savePerMonth,
+                                                          double minBalanceRequired) {
+        SavingGoal savingGoal = new SavingGoal(nextId(savingGoals), name, goal, savePerMonth, minBalanceRequired);
+        savingGoals.put(savingGoal.getId(), savingGoal);
+        return savingGoal.toJson();
+    }
+
+    public synchronized void deleteSavingGoal(int goalId) {
+        SavingGoal goal = savingGoals.remove(goalId);
+        if (goal == null) {
+            throw new NotFoundException("Saving goal " + goalId + " does not exist");
+        }
+        savedCents -= TransactionStore.toCents(goal.getBalance());
+    }
+
+    /**
+     * Puts money aside for every month between the latest transaction so far and a transaction on
+     * {@code date}.
+     */
+    private void sweepSavingGoals(LocalDateTime date) {
+        if (transactions.size() == 0 || savingGoals.isEmpty()) {
+            return;
+        }
+        YearMonth from = sweptFrom();
+        YearMonth to = YearMonth.from(date);
+        if (from.isBefore(to)) {
+            save(from.until(to, ChronoUnit.MONTHS), date);
+        }
+    }
+
+    /**
+     * Puts money aside for every month up to {@code through} that has not been saved for yet, as the
+     * first transaction in that month would, and returns the number of goals that saved. The month
+     * sweep of {@link SavingGoalSweep} calls this for every session at the start of a month; the
+     * transactions of that month then find their months saved for already.
+     */
+    public synchronized int sweepSavingGoals(YearMonth through) {
+        if (transactions.size() == 0 || savingGoals.isEmpty()) {
+            return 0;
+        }
+        YearMonth from = sweptFrom();
+        if (!from.isBefore(through)) {
+            return 0;
+        }
+        sweptThrough = through;
+        return save(from.until(through, ChronoUnit.MONTHS), through.atDay(1).atStartOfDay());
+    }
+
+    // The month up to which the goals have saved: that of the latest transaction, or a later month swept
+    private YearMonth sweptFrom() {
+        YearMonth last = YearMonth.from(TransactionStore.toDate(transactions.latestDate()));
+        return sweptThrough != null && sweptThrough.isAfter(last) ? sweptThrough : last;
+    }
+
+    /**
+     * Saves for {@code months} months in a row, all goals in turn every month. A month that saves nothing
+     * leaves the goals and the balance as they were, and so would every month after it, so a long
+     * catch-up stops there. Returns the number of goals that saved, summed over the months.
+     */
+    private int save(long months, LocalDateTime messageDate) {
+        SavingGoal[] goals = savingGoals.values().toArray(new SavingGoal[0]);
+        int saved = 0;
+        for (long month = 0; month < months; month++) {
+            int savedThisMonth = 0;
+            for (SavingGoal goal : goals) {
+                boolean wasReached = goal.isReached();
+                long before = TransactionStore.toCents(goal.getBalance());
+                if (goal.save(TransactionStore.toAmount(balance())) > 0) {
+                    savedCents += TransactionStore.toCents(goal.getBalance()) - before;
+                    savedThisMonth++;
+                }
+                if (!wasReached && goal.isReached()) {
+                    addMessage(UserMessage.goalReached(goal), messageDate, "info");
+                }
+            }
+            if (savedThisMonth == 0) {
+                break;
+            }
+            saved += savedThisMonth;
+        }
+        return saved;
+    }
+
+    // ---- Payment requests ----
+
+    public synchronized List<Map<String, Object>> paymentRequests() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (PaymentRequest request : paymentRequests.values()) {
+            list.add(request.toJson(this));
+        }
+        return list;
+    }
+
+    public synchronized Map<String, Object> addPaymentRequest(String description, LocalDateTime dueDate,
+                                                              double amount, int numberOfRequests) {
+        PaymentRequest request = new PaymentRequest(nextId(paymentRequests), description, dueDate, amount,
+                numberOfRequests);
+        paymentRequests.put(request.getId(), request);
+        reopen(request);
+        return request.toJson(this);
+    }
+
+    /**
+     * Makes an unfilled request payable again, and lets it expire if its expiry was not reported yet.
+     */
+    private void reopen(PaymentRequest request) {
+        openRequests.add(request);
+        if (!request.isExpiryReported() && !expiringRequests.contains(request)) {
+            expiringRequests.add(request);
+        }
+    }
+
+    /**
+     * Pays the oldest open request the transaction matches and reports requests that expired unfilled.
+     */
+    private void payRequests(int transactionId, Transaction transaction) {
+        PaymentRequest paid = openRequests.match(transaction);
+        if (paid != null) {
+            paid.pay(transactionId);
+            if (paid.isFilled()) {
+                openRequests.remove(paid);
+                addMessage(UserMessage.REQUEST_FILLED, transaction.getDate(), "info");
+            }
+        }
+        // Filled requests are dropped here, they are queued again if a deletion opens them
+        NavigableMap<Integer, PaymentRequest> expired = new TreeMap<>();
+        while (!expiringRequests.isEmpty()
+                && expiringRequests.peek().getDueDate().isBefore(transaction.getDate())) {
+            PaymentRequest request = expiringRequests.poll();
+            if (request.expiredUnreported(transaction.getDate())) {
+                expired.put(request.getId(), request);
+            }
+        }
+        for (PaymentRequest request : expired.values()) {
+            request.reportExpiry();
+            addMessage(UserMessage.REQUEST_NOT_FILLED, transaction.getDate(), "warning");
+        }
+    }
+
+    // ---- Messages ----
+
+    public synchronized List<Map<String, Object>> messages() {
+        return messagesAfter(0);
+    }
+
+    /**
+     * Passes the messages with an id above {@code afterId} to the listener, once: right away if there
+     * are any, otherwise when the first such message is added. Returns what cancels the wait, which
+     * does nothing once the listener was called.
+     */
+    public synchronized Runnable awaitMessages(int afterId, Consumer<List<Map<String, Object>>> listener) {
+        List<Map<String, Object>> list = messagesAfter(afterId);
+        if (!list.isEmpty()) {
+            listener.accept(list);
+            return () -> {
+            };
+        }
+        MessageListener waiting = new MessageListener(afterId, listener);
+        messageListeners.add(waiting);
+        return () -> {
+            synchronized (this) {
+                messageListeners.remove(waiting);
+            }
+        };
+    }
+
+    private List<Map<String, Object>> messagesAfter(int afterId) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (UserMessage message : messages.tailMap(afterId, false).values()) {
+            list.add(message.toJson());
+        }
+        return list;
+    }
+
+    private static final class MessageListener {
+        final int afterId;
+        final Consumer<List<Map<String, Object>>> listener;
+
+        MessageListener(int afterId, Consumer<List<Map<String, Object>>> listener) {
+            this.afterId = afterId;
+            this.listener = listener;
+        }
+    }
+
+    public synchronized Map<String, Object> readMessage(int messageId) {
+        UserMessage message = messages.get(messageId);
+        if (message == null) {
+            throw new NotFoundException("Message " + messageId + " does not exist");
+        }
+        if (!message.isRead() && message.getMessage().equals(UserMessage.NEW_HIGH)) {
+            unreadNewHighs--;
+        }
+        message.markRead();
+        return message.toJson();
+    }
+
+    synchronized void addMessage(String text, LocalDateTime date, String type) {
+        UserMessage message = new UserMessage(nextId(messages), text, date, type);
+        messages.put(message.getId(), message);
+        if (text.equals(UserMessage.NEW_HIGH)) {
+            unreadNewHighs++;
+        }
+        Iterator<MessageListener> waiting = messageListeners.iterator();
+        while (waiting.hasNext()) {
+            MessageListener listener = waiting.next();
+            if (listener.afterId < message.getId()) {
+                waiting.remove();
+                // Nothing above its id was there before, so this message is all it waited for
+                listener.listener.accept(Collections.singletonList(message.toJson()));
+            }
+        }
+    }
+
+    /**
+     * Warns about a negative balance, and reports a new high when the balance after the transaction
+     * exceeds {@code highBefore}, every balance of the three months before it. The caller passes
+     * {@link Long#MAX_VALUE} when no new high can be reported: for withdrawals, and while such a report
+     * is still unread.
+     */
+    private void addBalanceMessages(int row, long highBefore) {
+        LocalDateTime date = TransactionStore.toDate(transactions.date(row));
+        if (transactions.balance(row) < 0) {
+            addMessage(UserMessage.NEGATIVE_BALANCE, date, "warning");
+        }
+        if (transactions.total() > highBefore) {
+            addMessage(UserMessage.NEW_HIGH, date, "info");
+        }
+    }
+
+    /**
+     * The highest transaction balance in the three months up to a transaction on {@code date}, in
+     * cents, from the balance aggregates before the transaction is added to them.
+     */
+    private long highBefore(long date) {
+        long from = TransactionStore.toMillis(TransactionStore.toDate(date).minusMonths(3));
+        return balanceAggregates.high(from, date);
+    }
+
+    // ---- Balance history ----
+
+    public synchronized List<Map<String, Object>> balanceHistory(BalanceHistory.Interval interval, int intervals,
+                                                                 LocalDateTime now) {
+        return balanceAggregates.history(interval, intervals, now);
+    }
+
+    /**
+     * The transactions themselves, for tests that check derived state against them.
+     */
+    TransactionStore transactionStore() {
+        return transactions;
+    }
+
+    /**
+     * Ids are one above the highest id in use, so deleting the last entity frees its id again.
+     */
+    private static int nextId(NavigableMap<Integer, ?> map) {
+        return map.isEmpty() ? 1 : map.lastKey() + 1;
+    }
+}
@@ -0,0 +1,68 @@
+package nl.utwente.ing.reference;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The sessions recently resolved, by the session id exactly as a request gave it. A fixed number of
+ * slots, picked by the hash of the id, each holding one immutable entry: a lookup is one array read
+ * and a string comparison, without locks or parsing, and a new entry simply replaces the one in its
+ * slot. A removed session must be invalidated, or the cache keeps resolving it.
+ */
+final class SessionCache {
+
+    private static final class Entry {
+        final String key;
+        final Session session;
+
+        Entry(String key, Session session) {
+            this.key = key;
+            this.session = session;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two; 0 caches nothing
+     */
+    SessionCache(int capacity) {
+        int size = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(capacity - 1, 1) << 1);
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * The session cached under the id, or null.
+     */
+    Session get(String key) {
+        if (mask < 0) {
+            return null;
+        }
+        Entry entry = slots.get(slot(key));
+        return entry != null && entry.key.equals(key) ? entry.session : null;
+    }
+
+    void put(String key, Session session) {
+        if (mask >= 0) {
+            slots.set(slot(key), new Entry(key, session));
+        }
+    }
+
+    /**
+     * Forgets every id the session is cached under.
+     */
+    void invalidate(Session session) {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Entry entry = slots.get(slot);
+            if (entry != null && entry.session == session) {
+                slots.compareAndSet(slot, entry, null);
+            }
+        }
+    }
+
+    private int slot(String key) {
+        int hash = key.hashCode();
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
@@ -0,0 +1,27 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/sessions")
+public class SessionController {
+
+    private final SessionRegistry sessions;
+
+    public SessionController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post() {
+        return Collections.singletonMap("id", sessions.create().getId());
+    }
+}
@@ -0,0 +1,89 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The sessions of the reference server, starting with the fixtures the suite expects. Every request
+ * resolves its session, so ids that were resolved before are found in a {@link SessionCache} first.
+ */
+@Component
+public class SessionRegistry {
+
+    static final int CACHE_SIZE = Integer.getInteger("reference.sessionCacheSize", 4096);
+
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final SessionCache cache;
+
+    public SessionRegistry() {
+        this(CACHE_SIZE);
+        Fixtures.load(this);
+    }
+
+    /**
+     * An empty registry that caches up to {@code cacheSize} resolved ids, none if it is 0.
+     */
+    public SessionRegistry(int cacheSize) {
+        cache = new SessionCache(cacheSize);
+    }
+
+    public Session create() {
+        Session session = new Session(lastId.incrementAndGet());
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * The sessions there are. Sessions created or removed while it is read may or may not be in it.
+     */
+    public Collection<Session> all() {
+        return sessions.values();
+    }
+
+    /**
+     * Removes the session, requests for it are unauthorized from now on.
+     */
+    public void remove(int sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            cache.invalidate(session);
+        }
+    }
+
+    /**
+     * Finds the session of a request, given as either the X-session-ID header or the session_id
+     * parameter. Giving neither, both or an unknown id is unauthorized.
+     */
+    public Session resolve(String header, String parameter) {
+        if ((header == null) == (parameter == null)) {
+            throw new UnauthorizedException("Give the session as either a header or a parameter");
+        }
+        String id = header != null ? header : parameter;
+        Session session = cache.get(id);
+        if (session != null) {
+            return session;
+        }
+        int sessionId;
+        try {
+            sessionId = Integer.parseInt(id.trim());
+        } catch (NumberFormatException e) {
+            throw new UnauthorizedException("Unknown session " + id);
+        }
+        session = sessions.get(sessionId);
+        if (session == null) {
+            throw new UnauthorizedException("Unknown session " + id);
+        }
+        cache.put(id, session);
+        if (sessions.get(sessionId) != session) {
+            // Removed meanwhile, maybe before the invalidation could see the new entry
+            cache.invalidate(session);
+            throw new UnauthorizedException("Unknown session " + id);
+        }
+        return session;
+    }
+}
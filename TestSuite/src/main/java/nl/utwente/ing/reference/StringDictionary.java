@@ -0,0 +1,38 @@
+package nl.utwente.ing.reference;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores each distinct string once and hands out int codes for it. Code -1 stands for null.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+
+    int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            if (code == values.length) {
+                values = Arrays.copyOf(values, code * 2);
+            }
+            values[code] = value;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,50 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as posted, before it is stored in the {@link TransactionStore} of its session.
+ */
+public class Transaction {
+
+    public static final String DEPOSIT = "deposit";
+    public static final String WITHDRAWAL = "withdrawal";
+
+    private final LocalDateTime date;
+    private final double amount;
+    private final String externalIBAN;
+    private final String type;
+    private final String description;
+
+    public Transaction(LocalDateTime date, double amount, String externalIBAN, String type, String description) {
+        this.date = date;
+        this.amount = amount;
+        this.externalIBAN = externalIBAN;
+        this.type = type;
+        this.description = description;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getExternalIBAN() {
+        return externalIBAN;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isDeposit() {
+        return DEPOSIT.equals(type);
+    }
+}
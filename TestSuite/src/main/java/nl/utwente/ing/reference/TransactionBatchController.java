@@ -0,0 +1,196 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import of transactions. The body is a JSON array of transactions or newline delimited JSON
+ * with one transaction per line, and is read while it arrives: items are validated one by one with
+ * the rules of POST /transactions and the valid ones are added in chunks, so neither the request nor
+ * the response is ever held in memory as a whole.
+ *
+ * <p>The response is 200 with the outcome of every item in input order:
+ * <pre>
+ * {"results":[{"index":0,"status":201,"id":12},{"index":1,"status":405,"message":"amount must be positive"}],
+ *  "created":1,"failed":1}
+ * </pre>
+ * A JSON array that stops being valid JSON ends the import; the item at that point fails and the
+ * items before it stay added.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class TransactionBatchController {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final SessionRegistry sessions;
+
+    public TransactionBatchController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @PostMapping("/transactions:batch")
+    public void post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                     @RequestParam(value = "session_id", required = false) String parameter,
+                     HttpServletRequest request,
+                     HttpServletResponse response) throws IOException {
+        Session session = sessions.resolve(header, parameter);
+        BufferedReader body = request.getReader();
+        int first = firstCharacter(body);
+        if (first < 0) {
+            throw new InvalidInputException("Missing body");
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        Results results = new Results(session, response.getWriter());
+        if (first == '[') {
+            readArray(new JSONTokener(body), results);
+        } else {
+            readLines(body, results);
+        }
+        results.finish();
+    }
+
+    /**
+     * Skips leading whitespace and returns the first character without consuming it, or -1 for an
+     * empty body.
+     */
+    private static int firstCharacter(BufferedReader body) throws IOException {
+        while (true) {
+            body.mark(1);
+            int character = body.read();
+            if (character < 0 || !Character.isWhitespace(character)) {
+                body.reset();
+                return character;
+            }
+        }
+    }
+
+    private static void readArray(JSONTokener tokener, Results results) throws IOException {
+        try {
+            tokener.nextClean();
+            if (tokener.nextClean() == ']') {
+                return;
+            }
+            tokener.back();
+            while (true) {
+                Object item = tokener.nextValue();
+                if (item instanceof JSONObject) {
+                    results.item((JSONObject) item);
+                } else {
+                    results.failed("Item is not a JSON object");
+                }
+                char separator = tokener.nextClean();
+                if (separator == ']') {
+                    return;
+                }
+                if (separator != ',') {
+                    throw tokener.syntaxError("Expected , or ]");
+                }
+            }
+        } catch (JSONException e) {
+            results.failed("Malformed JSON, import stopped: " + e.getMessage());
+        }
+    }
+
+    private static void readLines(BufferedReader body, Results results) throws IOException {
+        String line;
+        while ((line = body.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JSONObject item;
+            try {
+                item = new JSONObject(line);
+            } catch (JSONException e) {
+                results.failed("Item is not a JSON object");
+                continue;
+            }
+            results.item(item);
+        }
+    }
+
+    /**
+     * Collects the items of one chunk, adds the valid ones to the session and writes the outcome of
+     * every item of the chunk.
+     */
+    private static final class Results {
+        private final Session session;
+        private final Writer out;
+        private final List<Transaction> valid = new ArrayList<>(CHUNK_SIZE);
+        // Per item of the chunk: null if it is valid, otherwise why it is not
+        private final List<String> failures = new ArrayList<>(CHUNK_SIZE);
+        private int index;
+        private int created;
+        private int failed;
+
+        Results(Session session, Writer out) throws IOException {
+            this.session = session;
+            this.out = out;
+            out.write("{\"results\":[");
+        }
+
+        void item(JSONObject json) throws IOException {
+            try {
+                valid.add(Requests.transaction(json));
+                failures.add(null);
+            } catch (InvalidInputException e) {
+                failures.add(e.getMessage());
+            }
+            if (failures.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void failed(String message) throws IOException {
+            failures.add(message);
+            if (failures.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            int[] ids = session.addTransactions(valid);
+            int next = 0;
+            for (String failure : failures) {
+                out.write(index == 0 ? "{\"index\":" : ",{\"index\":");
+                out.write(Integer.toString(index++));
+                if (failure == null) {
+                    out.write(",\"status\":201,\"id\":");
+                    out.write(Integer.toString(ids[next++]));
+                    created++;
+                } else {
+                    out.write(",\"status\":405,\"message\":");
+                    out.write(JSONObject.quote(failure));
+                    failed++;
+                }
+                out.write('}');
+            }
+            valid.clear();
+            failures.clear();
+            out.flush();
+        }
+
+        void finish() throws IOException {
+            flush();
+            out.write("],\"created\":" + created + ",\"failed\":" + failed + "}");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nl.utwente.ing.reference;
+
+import org.json.JSONObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/transactions")
+public class TransactionController {
+
+    static final String CURSOR_HEADER = "X-Next-Cursor";
+    private static final String CURSOR_PREFIX = "after:";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final SessionRegistry sessions;
+
+    public TransactionController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Lists transactions by id. Pages are selected with offset and limit, or with the opaque cursor
+     * of the previous page in {@code after}; the two cannot be combined.
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> list(
+            @RequestHeader(value = "X-session-ID", required = false) String header,
+            @RequestParam(value = "session_id", required = false) String parameter,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "category", required = false) Integer category,
+            @RequestParam(value = "after", required = false) String after) {
+        Session session = sessions.resolve(header, parameter);
+        if (after != null && offset != null) {
+            throw new InvalidInputException("Use either offset or after");
+        }
+        int afterId = after == null ? 0 : decodeCursor(after);
+        limit = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        List<Map<String, Object>> page = session.transactions(afterId, offset == null ? 0 : Math.max(offset, 0),
+                limit, category);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty()) {
+            int lastId = (int) page.get(page.size() - 1).get("id");
+            if (session.hasTransactionsAfter(lastId, category)) {
+                response.header(CURSOR_HEADER, encodeCursor(lastId));
+            }
+        }
+        return response.body(page);
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> get(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id) {
+        return sessions.resolve(header, parameter).transaction(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> post(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        return session.addTransaction(Requests.date(json, "date"), Requests.positiveNumber(json, "amount"),
+                Requests.string(json, "externalIBAN"), Requests.type(json),
+                Requests.optionalString(json, "description"));
+    }
+
+    @PutMapping("/{id}")
+    public Map<String, Object> put(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                   @RequestParam(value = "session_id", required = false) String parameter,
+                                   @PathVariable int id,
+                                   @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        JSONObject json = Requests.body(body);
+        return session.updateTransaction(id, Requests.date(json, "date"), Requests.positiveNumber(json, "amount"),
+                Requests.string(json, "externalIBAN"), Requests.type(json),
+                Requests.optionalString(json, "description"));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestHeader(value = "X-session-ID", required = false) String header,
+                       @RequestParam(value = "session_id", required = false) String parameter,
+                       @PathVariable int id) {
+        sessions.resolve(header, parameter).deleteTransaction(id);
+    }
+
+    @PatchMapping("/{id}/category")
+    public Map<String, Object> assignCategory(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                              @RequestParam(value = "session_id", required = false) String parameter,
+                                              @PathVariable int id,
+                                              @RequestBody(required = false) String body) {
+        Session session = sessions.resolve(header, parameter);
+        return session.assignCategory(id, Requests.integer(Requests.body(body), "category_id"));
+    }
+
+    static String encodeCursor(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64 or not a number, NumberFormatException is an IllegalArgumentException
+        }
+        throw new InvalidInputException("Invalid cursor " + cursor);
+    }
+}
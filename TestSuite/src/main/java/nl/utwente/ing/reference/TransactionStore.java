@@ -0,0 +1,239 @@
+package nl.utwente.ing.reference;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The transactions of one session, stored column by column in primitive arrays and ordered by id.
+ * Rows are addressed by their index; looking up, paging and filtering read the arrays directly and
+ * allocate nothing per row. IBANs and descriptions repeat a lot, so they are dictionary encoded.
+ *
+ * <p>Dates are kept in epoch milliseconds (UTC) and amounts and balances in cents. Not thread-safe,
+ * the owning {@link Session} synchronizes access.
+ */
+public final class TransactionStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final StringDictionary ibanDictionary = new StringDictionary();
+    private final StringDictionary descriptionDictionary = new StringDictionary();
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] dates = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private boolean[] deposits = new boolean[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY];
+    private int[] ibans = new int[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private long[] balances = new long[INITIAL_CAPACITY];
+    private long total;
+    // Kept on add, found again only after the row with the latest date changed or went
+    private long latestDate = Long.MIN_VALUE;
+    private boolean latestDateStale;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The id the next transaction gets: one above the highest id, so deleting the last transaction
+     * frees its id again.
+     */
+    public int nextId() {
+        return size == 0 ? 1 : ids[size - 1] + 1;
+    }
+
+    /**
+     * Appends a transaction with id {@link #nextId()} and returns its row.
+     */
+    public int add(Transaction transaction) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = row == 0 ? 1 : ids[row - 1] + 1;
+        categories[row] = 0;
+        balances[row] = 0;
+        set(row, transaction);
+        return row;
+    }
+
+    public void update(int row, Transaction transaction) {
+        total -= signedAmount(row);
+        latestDateStale |= dates[row] == latestDate;
+        set(row, transaction);
+    }
+
+    private void set(int row, Transaction transaction) {
+        dates[row] = toMillis(transaction.getDate());
+        amounts[row] = toCents(transaction.getAmount());
+        deposits[row] = transaction.isDeposit();
+        ibans[row] = ibanDictionary.encode(transaction.getExternalIBAN());
+        descriptions[row] = descriptionDictionary.encode(transaction.getDescription());
+        total += signedAmount(row);
+        latestDate = Math.max(latestDate, dates[row]);
+    }
+
+    public void remove(int row) {
+        total -= signedAmount(row);
+        latestDateStale |= dates[row] == latestDate;
+        int tail = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(dates, row + 1, dates, row, tail);
+        System.arraycopy(amounts, row + 1, amounts, row, tail);
+        System.arraycopy(deposits, row + 1, deposits, row, tail);
+        System.arraycopy(categories, row + 1, categories, row, tail);
+        System.arraycopy(ibans, row + 1, ibans, row, tail);
+        System.arraycopy(descriptions, row + 1, descriptions, row, tail);
+        System.arraycopy(balances, row + 1, balances, row, tail);
+        size--;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        deposits = Arrays.copyOf(deposits, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        ibans = Arrays.copyOf(ibans, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+    }
+
+    /**
+     * The row of the transaction with the given id, or -1 if there is none.
+     */
+    public int indexOf(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    /**
+     * The first row with an id above the given id, or {@link #size()} if there is none.
+     */
+    public int firstAfter(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -row - 1 : row + 1;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public long date(int row) {
+        return dates[row];
+    }
+
+    public long amount(int row) {
+        return amounts[row];
+    }
+
+    public long signedAmount(int row) {
+        return deposits[row] ? amounts[row] : -amounts[row];
+    }
+
+    public boolean isDeposit(int row) {
+        return deposits[row];
+    }
+
+    public String type(int row) {
+        return deposits[row] ? Transaction.DEPOSIT : Transaction.WITHDRAWAL;
+    }
+
+    public String externalIBAN(int row) {
+        return ibanDictionary.decode(ibans[row]);
+    }
+
+    public String description(int row) {
+        return descriptionDictionary.decode(descriptions[row]);
+    }
+
+    /**
+     * The category of the row, or 0 if it has none.
+     */
+    public int category(int row) {
+        return categories[row];
+    }
+
+    public void setCategory(int row, int categoryId) {
+        categories[row] = categoryId;
+    }
+
+    /**
+     * Removes the category from every row that has it.
+     */
+    public void clearCategory(int categoryId) {
+        for (int row = 0; row < size; row++) {
+            if (categories[row] == categoryId) {
+                categories[row] = 0;
+            }
+        }
+    }
+
+    /**
+     * The balance of the session right after the row was posted or last changed, in cents.
+     */
+    public long balance(int row) {
+        return balances[row];
+    }
+
+    public void setBalance(int row, long cents) {
+        balances[row] = cents;
+    }
+
+    /**
+     * The sum of all deposits minus all withdrawals, in cents.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * The latest date of all rows in epoch milliseconds, or {@link Long#MIN_VALUE} if there are none.
+     */
+    public long latestDate() {
+        if (latestDateStale) {
+            latestDate = Long.MIN_VALUE;
+            for (int row = 0; row < size; row++) {
+                latestDate = Math.max(latestDate, dates[row]);
+            }
+            latestDateStale = false;
+        }
+        return latestDate;
+    }
+
+    public Map<String, Object> toJson(int row, Category category) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", ids[row]);
+        json.put("date", toDate(dates[row]).toString());
+        json.put("amount", toAmount(amounts[row]));
+        json.put("externalIBAN", externalIBAN(row));
+        json.put("type", type(row));
+        json.put("description", description(row));
+        json.put("category", category == null ? null : category.toJson());
+        json.put("balance", toAmount(balances[row]));
+        return json;
+    }
+
+    static long toMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDate(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
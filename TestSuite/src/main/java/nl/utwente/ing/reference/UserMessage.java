@@ -0,0 +1,56 @@
+package nl.utwente.ing.reference;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class UserMessage {
+
+    public static final String NEGATIVE_BALANCE = "Balance is negative";
+    public static final String NEW_HIGH = "Balance reached new high";
+    public static final String REQUEST_FILLED = "One payment request has been filled";
+    public static final String REQUEST_NOT_FILLED = "One payment request has not been filled";
+
+    private final int id;
+    private final String message;
+    private final LocalDateTime date;
+    private final String type;
+    private boolean read;
+
+    public UserMessage(int id, String message, LocalDateTime date, String type) {
+        this.id = id;
+        this.message = message;
+        this.date = date;
+        this.type = type;
+    }
+
+    public static String goalReached(SavingGoal goal) {
+        return "Saving goal " + goal.getName() + " reached";
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public void markRead() {
+        read = true;
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("message", message);
+        json.put("date", date.toString());
+        json.put("read", read);
+        json.put("type", type);
+        return json;
+    }
+}
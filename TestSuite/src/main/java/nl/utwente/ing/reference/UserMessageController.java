@@ -0,0 +1,74 @@
+package nl.utwente.ing.reference;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/messages")
+public class UserMessageController {
+
+    static final long DEFAULT_TIMEOUT = 30_000;
+    static final long MAX_TIMEOUT = 60_000;
+
+    private final SessionRegistry sessions;
+
+    public UserMessageController(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                          @RequestParam(value = "session_id", required = false) String parameter) {
+        return sessions.resolve(header, parameter).messages();
+    }
+
+    /**
+     * Long-polls for the messages with an id above {@code since}. Answers right away when there are
+     * any, otherwise as soon as the next one is added, or with an empty list after {@code timeout}
+     * milliseconds. A waiting request holds no thread.
+     */
+    @GetMapping("/poll")
+    public DeferredResult<List<Map<String, Object>>> poll(
+            @RequestHeader(value = "X-session-ID", required = false) String header,
+            @RequestParam(value = "session_id", required = false) String parameter,
+            @RequestParam(value = "since", defaultValue = "0") int since,
+            @RequestParam(value = "timeout", defaultValue = "" + DEFAULT_TIMEOUT) long timeout) {
+        Session session = sessions.resolve(header, parameter);
+        if (since < 0) {
+            throw new InvalidInputException("Invalid since " + since);
+        }
+        if (timeout < 0 || timeout > MAX_TIMEOUT) {
+            throw new InvalidInputException("Timeout must be between 0 and " + MAX_TIMEOUT + " ms");
+        }
+        // A timeout of 0 would wait forever, so it only returns what is there
+        DeferredResult<List<Map<String, Object>>> result = new DeferredResult<>(Math.max(timeout, 1),
+                Collections.emptyList());
+        Runnable cancel = session.awaitMessages(since, result::setResult);
+        result.onCompletion(cancel);
+        if (timeout == 0 && !result.hasResult()) {
+            cancel.run();
+            result.setResult(Collections.emptyList());
+        }
+        return result;
+    }
+
+    /**
+     * Marks a message as read.
+     */
+    @PutMapping("/{id}")
+    public Map<String, Object> read(@RequestHeader(value = "X-session-ID", required = false) String header,
+                                    @RequestParam(value = "session_id", required = false) String parameter,
+                                    @PathVariable int id) {
+        return sessions.resolve(header, parameter).readMessage(id);
+    }
+}
@@ -10,27 +10,33 @@ import static org.junit.Assert.assertNotNull;
 
 public class ControllerBalanceHistoryTest {
 
+    private static int session;
+    private static int otherSession;
+
     @BeforeClass
     public static void before() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        session = TestSessions.withFixtures().session;
+        otherSession = TestSessions.create();
     }
 
     @Test
     public void testBalanceHistory() {
         //Only param
         Response response = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(200);
-        assertNotNull(response.jsonPath().getFloat("open"));
+        assertNotNull(response.jsonPath().getFloat("open[0]"));
         //Only header
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(200);
-        assertNotNull(response.jsonPath().getFloat("open"));
+        assertNotNull(response.jsonPath().getFloat("open[0]"));
         //No param or header
         response = given()
                 .when()
@@ -38,33 +44,33 @@ public class ControllerBalanceHistoryTest {
         response.then().assertThat().statusCode(401);
         //Invalid input
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .param("interval", "invalid")
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(405);
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .param("intervals", 201)
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(405);
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .param("intervals", -1)
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(405);
         //Header and param are different
         response = given()
-                .header("X-session-ID", 1)
-                .param("session_id", 2)
+                .header("X-session-ID", session)
+                .param("session_id", otherSession)
                 .when()
                 .get("/balance/history");
         response.then().assertThat().statusCode(401);
         //Intervals are given correctly
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .param("interval", "day")
                 .param("intervals", 10)
                 .when()
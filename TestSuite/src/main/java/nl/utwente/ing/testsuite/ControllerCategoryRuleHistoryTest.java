@@ -0,0 +1,134 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.Assert.*;
+
+/**
+ * A category rule posted with applyOnHistory on a large history. The rule is created right away and
+ * GET /categoryRules/{id}/applyOnHistory reports how far it has been applied to the existing
+ * transactions; once it is done, every matching transaction has the category of the rule.
+ */
+public class ControllerCategoryRuleHistoryTest {
+
+    private static final int TRANSACTIONS = 20_000;
+
+    @BeforeClass
+    public static void before() {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+    }
+
+    @Test
+    public void testApplyOnLargeHistory() throws InterruptedException {
+        int session = TestSessions.create();
+        int category = given().
+                header("X-session-ID", session).
+                header("Content-Type", "application/json").
+                body(new JSONObject().put("name", "rent").toString()).
+                when().
+                post("/categories").
+                jsonPath().getInt("id");
+
+        // Every 40th transaction is rent
+        StringBuilder body = new StringBuilder();
+        LocalDateTime date = LocalDateTime.now().minusYears(2);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            body.append(Payloads.transaction(date.plusMinutes(i), 10, "NL39RABO0300065264", "withdrawal",
+                    i % 40 == 0 ? "monthly rent" : "groceries " + i)).append('\n');
+        }
+        Response batch = given().
+                header("X-session-ID", session).
+                header("Content-Type", "application/x-ndjson").
+                body(body.toString().getBytes(StandardCharsets.UTF_8)).
+                when().
+                post("/transactions:batch");
+        batch.then().assertThat().statusCode(200);
+        assertEquals(TRANSACTIONS, batch.jsonPath().getInt("created"));
+
+        Response rule = given().
+                header("X-session-ID", session).
+                header("Content-Type", "application/json").
+                body(Payloads.categoryRule("rent", "", "", category).put("applyOnHistory", true).toString()).
+                when().
+                post("/categoryRules");
+        rule.then().assertThat().statusCode(201);
+        int ruleId = rule.jsonPath().getInt("id");
+
+        // Poll the progress until the rule is applied
+        Response status;
+        long deadline = System.currentTimeMillis() + 30_000;
+        do {
+            status = given().
+                    header("X-session-ID", session).
+                    when().
+                    get("/categoryRules/" + ruleId + "/applyOnHistory");
+            status.then().assertThat().statusCode(200);
+            assertEquals(ruleId, status.jsonPath().getInt("ruleId"));
+            assertEquals(TRANSACTIONS, status.jsonPath().getInt("total"));
+            assertTrue(status.jsonPath().getInt("processed") <= TRANSACTIONS);
+            assertTrue(Arrays.asList("queued", "running", "done").contains(status.jsonPath().getString("state")));
+            if (!status.jsonPath().getString("state").equals("done")) {
+                Thread.sleep(20);
+            }
+        } while (!status.jsonPath().getString("state").equals("done") && System.currentTimeMillis() < deadline);
+        assertEquals("done", status.jsonPath().getString("state"));
+        assertEquals(TRANSACTIONS, status.jsonPath().getInt("processed"));
+
+        // Count the transactions of the category page by page
+        int found = 0;
+        String cursor = null;
+        do {
+            Response page = cursor == null
+                    ? given().header("X-session-ID", session).param("category", category).param("limit", 100).
+                    when().get("/transactions")
+                    : given().header("X-session-ID", session).param("category", category).param("limit", 100).
+                    param("after", cursor).when().get("/transactions");
+            for (String description : page.jsonPath().getList("description", String.class)) {
+                assertEquals("monthly rent", description);
+                found++;
+            }
+            cursor = page.getHeader("X-Next-Cursor");
+        } while (cursor != null);
+        assertEquals(TRANSACTIONS / 40, found);
+    }
+
+    @Test
+    public void testInvalidStatus() {
+        int session = TestSessions.create();
+        // A new session has no rules
+        given().
+                header("X-session-ID", session).
+                when().
+                get("/categoryRules/-1/applyOnHistory").
+                then().
+                assertThat().statusCode(404);
+        // No header
+        given().
+                when().
+                get("/categoryRules/-1/applyOnHistory").
+                then().
+                assertThat().statusCode(401);
+        // A rule that was not applied on the history has no progress
+        int category = TestSessions.post(session, "/categories", new JSONObject().put("name", "rent"));
+        int ruleId = TestSessions.post(session, "/categoryRules",
+                Payloads.categoryRule("rent", "", "", category).put("applyOnHistory", false));
+        given().
+                header("X-session-ID", session).
+                when().
+                get("/categoryRules/" + ruleId + "/applyOnHistory").
+                then().
+                assertThat().statusCode(404);
+    }
+
+}
@@ -16,23 +16,33 @@ import static org.junit.Assert.*;
 
 public class ControllerCategoryRuleTest {
 
+    private static TestSessions.Seeded fixtures;
+    private static TestSessions.Seeded otherFixtures;
+    private static int session;
+    private static int otherSession;
+
     @BeforeClass
     public static void setUp() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        fixtures = TestSessions.withFixtures();
+        session = fixtures.session;
+        otherFixtures = TestSessions.withSmallFixtures();
+        otherSession = otherFixtures.session;
     }
 
     @Test
     public void testGetCategoryRules() {
-        assertNotNull(given().param("session_id", 1).when().get("/categoryRules"));
+        assertNotNull(given().param("session_id", session).when().get("/categoryRules"));
         given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/categoryRules")
                 .then()
                 .assertThat()
                 .statusCode(200);
         Response categoryRule = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/categoryRules");
         for (Object id: categoryRule.jsonPath().getList("id")) {
@@ -63,7 +73,7 @@ public class ControllerCategoryRuleTest {
 
         //valid header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/categoryRules")
                 .then()
@@ -72,8 +82,8 @@ public class ControllerCategoryRuleTest {
 
         //mismatching header and param
         given()
-                .header("X-session-ID", 1)
-                .param("session_id", 2)
+                .header("X-session-ID", session)
+                .param("session_id", otherSession)
                 .when()
                 .get("/categoryRules")
                 .then()
@@ -88,10 +98,10 @@ public class ControllerCategoryRuleTest {
                 .put("description", "fight club")
                 .put("IBAN", "NL67INGB5879587958")
                 .put("type", "withdrawal")
-                .put("categoryId", 3);
+                .put("categoryId", fixtures.category(3));
         Response response = given()
                     .body(categoryRule.toString())
-                    .header("X-session-ID", 1)
+                    .header("X-session-ID", session)
                     .header("Content-Type", "application/json")
                     .when()
                     .post("/categoryRules");
@@ -106,7 +116,7 @@ public class ControllerCategoryRuleTest {
 
         //no body
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .post("/categoryRules");
         response.then().assertThat().statusCode(405);
@@ -115,31 +125,31 @@ public class ControllerCategoryRuleTest {
         given()
                 .body(categoryRule.toString())
                 .when()
-                .post("/categoryRules?session_id=1")
+                .post("/categoryRules?session_id=" + session)
                 .then()
                 .assertThat()
                 .statusCode(201);
 
         //check if it was really added
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/categoryRules");
         assertTrue(response.jsonPath().getList("description").contains("fight club"));
 
         //param and header mismatching
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
-                .post("/categoryRules?session_id=2")
+                .post("/categoryRules?session_id=" + otherSession)
                 .then()
                 .assertThat()
                 .statusCode(401);
         //no description
         categoryRule.remove("description");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .post("/categoryRules")
@@ -150,7 +160,7 @@ public class ControllerCategoryRuleTest {
         categoryRule.put("description", "aosdifsnmf");
         categoryRule.remove("IBAN");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .post("/categoryRules")
@@ -161,7 +171,7 @@ public class ControllerCategoryRuleTest {
         categoryRule.put("IBAN", "NL89INGB9889898989");
         categoryRule.remove("categoryId");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .post("/categoryRules")
@@ -169,10 +179,10 @@ public class ControllerCategoryRuleTest {
                 .assertThat()
                 .statusCode(405);
         //invalid type
-        categoryRule.put("categoryId", 3);
+        categoryRule.put("categoryId", fixtures.category(3));
         categoryRule.put("type", "invalid type");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .post("/categoryRules")
@@ -183,64 +193,66 @@ public class ControllerCategoryRuleTest {
         JSONObject jsonObject = new JSONObject().put("description", "")
                 .put("IBAN", "NL89INGB0258025802")
                 .put("type", "deposit")
-                .put("categoryId", 2);
-        given()
-                .header("X-session-ID", 1)
+                .put("categoryId", fixtures.category(2));
+        int ruleId = given()
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/categoryRules")
                 .then()
                 .assertThat()
-                .statusCode(201);
-        //Transaction 2 should have been assigned with a new category with id 1
+                .statusCode(201)
+                .extract()
+                .jsonPath().getInt("id");
+        //Transaction 2 should have been assigned with the second category
         JsonPath jsonPath = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
-                .get("/transactions/2")
+                .get("/transactions/" + fixtures.transaction(2))
                 .then()
                 .contentType(ContentType.JSON)
                 .extract()
                 .jsonPath();
 
         Map<Object, Object> category = jsonPath.getMap("category");
-        assertEquals(2, category.get("id"));
+        assertEquals(fixtures.category(2), category.get("id"));
         //Now we check if the category is applied on history
         jsonPath = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/categoryRules")
                 .jsonPath();
-        assertTrue(jsonPath.getList("applyOnHistory").contains(true) && jsonPath.getList("id").contains(5));
+        assertTrue(jsonPath.getList("applyOnHistory").contains(true) && jsonPath.getList("id").contains(ruleId));
     }
 
     @Test
     public void testGetCategoryRule() {
         //only param given
         given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
-                .get("/categoryRules/1")
+                .get("/categoryRules/" + fixtures.rule(1))
                 .then()
                 .assertThat()
                 .statusCode(200);
         //no param or header
-        get("/categoryRules/1")
+        get("/categoryRules/" + fixtures.rule(1))
                 .then()
                 .assertThat()
                 .statusCode(401);
         //only header given
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
-                .get("/categoryRules/1")
+                .get("/categoryRules/" + fixtures.rule(1))
                 .then()
                 .assertThat()
                 .statusCode(200);
         //param and header mismatching
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
-                .get("/categoryRules/1?session_id=2")
+                .get("/categoryRules/" + fixtures.rule(1) + "?session_id=" + otherSession)
                 .then()
                 .assertThat()
                 .statusCode(401);
@@ -252,52 +264,52 @@ public class ControllerCategoryRuleTest {
                         .put("description", "hakuna matata")
                         .put("IBAN" ,"NL99INGB1598159815")
                         .put("type", "withdrawal")
-                        .put("categoryId", 2);
+                        .put("categoryId", otherFixtures.category(2));
         //correct test
         Response response = given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .header("Content-Type", "application/json")
                 .body(categoryRule.toString())
                 .when()
-                .put("/categoryRules/1");
+                .put("/categoryRules/" + otherFixtures.rule(1));
         response.then().assertThat().statusCode(200);
-        response = given().param("session_id", 2).get("/categoryRules");
+        response = given().param("session_id", otherSession).get("/categoryRules");
         assertTrue(response.jsonPath().getList("description").contains("hakuna matata"));
         //no header
         response = given()
                 .header("Content-Type", "application/json")
                 .body(categoryRule.toString())
                 .when()
-                .put("/categoryRules/1");
+                .put("/categoryRules/" + otherFixtures.rule(1));
         response.then().assertThat().statusCode(401);
 
         //no body
         response = given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .header("Content-Type", "application/json")
                 .when()
-                .put("/categoryRules/1");
+                .put("/categoryRules/" + otherFixtures.rule(1));
         response.then().assertThat().statusCode(405);
 
         //id is not part of the session
         categoryRule = new JSONObject()
                 .put("description", "timon & pumba")
                 .put("IBAN", "NL78INGB0000000000")
-                .put("categoryId", 1)
+                .put("categoryId", fixtures.category(1))
                 .put("type", "deposit");
         response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .header("Content-Type", "application/json")
                 .body(categoryRule.toString())
                 .when()
                 .put("/categoryRules/0");
         response.then().assertThat().statusCode(200);
-        response = given().param("session_id", 1).get("/categoryRules");
+        response = given().param("session_id", session).get("/categoryRules");
         assertFalse(response.jsonPath().getList("description").contains("timon & pumba"));
         //no description
         categoryRule.remove("description");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .put("/categoryRules")
@@ -308,7 +320,7 @@ public class ControllerCategoryRuleTest {
         categoryRule.put("description", "aosdifsnmf");
         categoryRule.remove("IBAN");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .put("/categoryRules")
@@ -319,7 +331,7 @@ public class ControllerCategoryRuleTest {
         categoryRule.put("IBAN", "NL89INGB9889898989");
         categoryRule.remove("categoryId");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .put("/categoryRules")
@@ -327,10 +339,10 @@ public class ControllerCategoryRuleTest {
                 .assertThat()
                 .statusCode(405);
         //invalid type
-        categoryRule.put("categoryId", 3);
+        categoryRule.put("categoryId", fixtures.category(3));
         categoryRule.put("type", "invalid type");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(categoryRule.toString())
                 .when()
                 .put("/categoryRules")
@@ -343,7 +355,7 @@ public class ControllerCategoryRuleTest {
     public void testDeleteCategoryRules() {
         JsonPath categoryJson =
                 given().
-                        header("X-session-ID", 1).
+                        header("X-session-ID", session).
                         header("Content-Type", "application/JSON").
                         when().
                         get("/categoryRules").
@@ -356,14 +368,14 @@ public class ControllerCategoryRuleTest {
         String lastCategoryRuleID = categoryJson.getList("id").get(listSize - 1).toString();
         //only param
         Response response = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .delete("/categoryRules/" + Integer.parseInt(lastCategoryRuleID));
         response.then().assertThat().statusCode(204);
 
         //try to delete again
         response = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .delete("/categoryRules/" + Integer.parseInt(lastCategoryRuleID));
         response.then().assertThat().statusCode(404);
@@ -371,14 +383,14 @@ public class ControllerCategoryRuleTest {
         //no param and header
         given()
                 .when()
-                .delete("/categoryRules/3")
+                .delete("/categoryRules/" + fixtures.rule(3))
                 .then()
                 .assertThat()
                 .statusCode(401);
 
         categoryJson =
                 given().
-                        header("X-session-ID", 1).
+                        header("X-session-ID", session).
                         header("Content-Type", "application/JSON").
                         when().
                         get("/categoryRules").
@@ -392,7 +404,7 @@ public class ControllerCategoryRuleTest {
 
         //no param but with header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .delete("/categoryRules/" + Integer.parseInt(lastCategoryRuleID))
                 .then()
@@ -401,7 +413,7 @@ public class ControllerCategoryRuleTest {
 
         //check if it was really deleted
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/categoryRules/" + Integer.parseInt(lastCategoryRuleID))
                 .then()
@@ -409,8 +421,8 @@ public class ControllerCategoryRuleTest {
                 .statusCode(404);
         //param and header given but are different
         given()
-                .header("X-session-ID", 1)
-                .param("session_id", 2)
+                .header("X-session-ID", session)
+                .param("session_id", otherSession)
                 .when()
                 .delete("/categoryRules/" + Integer.parseInt(lastCategoryRuleID))
                 .then()
@@ -419,7 +431,7 @@ public class ControllerCategoryRuleTest {
 
         //category rule not found
         given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .delete("/categoryRules/-1")
                 .then()
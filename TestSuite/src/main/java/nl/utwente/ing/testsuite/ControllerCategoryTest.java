@@ -13,9 +13,17 @@ import static org.junit.Assert.*;
 
 public class ControllerCategoryTest {
 
+    private static TestSessions.Seeded fixtures;
+    private static int session;
+    private static int otherSession;
+
     @BeforeClass
     public static void before() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        fixtures = TestSessions.withFixtures();
+        session = fixtures.session;
+        otherSession = TestSessions.create();
     }
 
 	@Test
@@ -24,15 +32,15 @@ public class ControllerCategoryTest {
 		// Mismatching session IDs
 		given().
 			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 		when().
-			get("categories?session_id=" + 2).
+			get("categories?session_id=" + otherSession).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
 		Response headerCategory = given().
-				header("X-session-ID", 1).
+				header("X-session-ID", session).
 				header("Content-Type", "application/JSON").
 		when().
 				get("/categories");
@@ -55,7 +63,7 @@ public class ControllerCategoryTest {
 		Response parameterCategory = given().
 				header("Content-Type", "application/JSON").
 		when().
-				get("/categories?session_id=" + 1);
+				get("/categories?session_id=" + session);
 
 		// Check if the ids of the responses are the same
 		assertEquals(parameterCategory.jsonPath().getList("id"), headerCategory.jsonPath().getList("id"));
@@ -90,10 +98,10 @@ public class ControllerCategoryTest {
 		// Mismatching session IDs
 		given().
 			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			body(category.toString()).
 		when().
-			post("categories?session_id=" + 2).
+			post("categories?session_id=" + otherSession).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -117,7 +125,7 @@ public class ControllerCategoryTest {
 
 		// Valid header
 		Response headerCategoryResponse = given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
@@ -141,10 +149,10 @@ public class ControllerCategoryTest {
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			post("/categories?session_id=" + 1);
+			post("/categories?session_id=" + session);
 
-		// Check if the id is properly incremented
-		assertEquals(parameterCategoryResponse.jsonPath().getInt("id"), headerCategoryResponse.jsonPath().getInt("id") + 1);
+		// Check if the id is a new one
+		assertTrue(parameterCategoryResponse.jsonPath().getInt("id") > headerCategoryResponse.jsonPath().getInt("id"));
 
 		// Check if the name is the same as what was posted
 		assertEquals(parameterCategoryResponse.jsonPath().getString("name"),category.getString("name"));
@@ -153,7 +161,7 @@ public class ControllerCategoryTest {
 		// name is null
 		category.remove("name");
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
@@ -163,7 +171,7 @@ public class ControllerCategoryTest {
 
 		// no body
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			post("/categories").
@@ -177,16 +185,16 @@ public class ControllerCategoryTest {
 		// Mismatching session IDs
 		given().
 			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 		when().
-			get("categories/" + 2 + "?session_id=" + 2).
+			get("categories/" + fixtures.category(2) + "?session_id=" + otherSession).
 		then().
 			assertThat().statusCode(401);
 		// No header
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			get("/categories/" + 2).
+			get("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(401);
 
@@ -195,16 +203,16 @@ public class ControllerCategoryTest {
 			header("X-session-ID", -1).
 			header("Content-Type", "application/JSON").
 		when().
-			get("/categories/" + 2).
+			get("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
 		Response headerCategory = given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
-			get("/categories/" + 2);
+			get("/categories/" + fixtures.category(2));
 
 		// check response code
 		headerCategory.then().
@@ -212,14 +220,14 @@ public class ControllerCategoryTest {
 
 		// check response body
 		JsonPath categoryJson = headerCategory.jsonPath();
-		assertEquals(categoryJson.getInt("id"), 2);
+		assertEquals(categoryJson.getInt("id"), fixtures.category(2));
 		assertNotNull(categoryJson.getString("name"));
 
 		// Check if the GET request with the session ID passed as a parameter yields the same category
 		Response parameterCategory = given().
 				header("Content-Type", "application/JSON").
 			when().
-				get("/categories/" + 2 + "?session_id=" + 1);
+				get("/categories/" + fixtures.category(2) + "?session_id=" + session);
 
 		// Check if the id is the same
 		assertEquals(parameterCategory.jsonPath().getInt("id"), headerCategory.jsonPath().getInt("id"));
@@ -229,7 +237,7 @@ public class ControllerCategoryTest {
 		// ---- Invalid path ----
 		// negative id
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			get("/categories/" + -1).
@@ -237,7 +245,7 @@ public class ControllerCategoryTest {
 			assertThat().statusCode(404);
 		// negative or out of session
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			// Negative or possibly out of valid index range
@@ -255,10 +263,10 @@ public class ControllerCategoryTest {
 		// Mismatching session IDs
 		given().
 			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			body(category.toString()).
 		when().
-			put("categories/" + 2 + "?session_id=" + 2).
+			put("categories/" + fixtures.category(2) + "?session_id=" + otherSession).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -266,7 +274,7 @@ public class ControllerCategoryTest {
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			put("/categories/" + 2).
+			put("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(401);
 
@@ -276,24 +284,24 @@ public class ControllerCategoryTest {
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			put("/categories/" + 2).
+			put("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
 		Response headerCategoryResponse = given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			put("/categories/" + 2);
+			put("/categories/" + fixtures.category(2));
 
 		//SessionID given as parameter
 		Response parameterCategoryResponse = given().
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			put("/categories/" + 2 + "?session_id=" + 1);
+			put("/categories/" + fixtures.category(2) + "?session_id=" + session);
 
 		// Check response codes
 		headerCategoryResponse.
@@ -309,12 +317,12 @@ public class ControllerCategoryTest {
 		JsonPath parameterCategoryJson = parameterCategoryResponse.jsonPath();
 
 		// Check if the request works for the sessionID given in the header
-		assertEquals(headerCategoryJson.getInt("id"), 2);
+		assertEquals(headerCategoryJson.getInt("id"), fixtures.category(2));
 		assertEquals(headerCategoryJson.getString("name"), category.get("name"));
 
 
 		// Check if the PUT request with the sessionID passed down as a parameter also works
-		assertEquals(parameterCategoryJson.getInt("id"), 2);
+		assertEquals(parameterCategoryJson.getInt("id"), fixtures.category(2));
 		assertEquals(parameterCategoryJson.getString("name"), category.get("name"));
 
 
@@ -322,7 +330,7 @@ public class ControllerCategoryTest {
 		// ---- Invalid path ----
 		// negative id
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
@@ -331,7 +339,7 @@ public class ControllerCategoryTest {
 			assertThat().statusCode(404);
 		// negative or out of session id
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
@@ -343,27 +351,27 @@ public class ControllerCategoryTest {
 		// null name
 		category.remove("name");
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 			body(category.toString()).
 		when().
-			put("/categories/" + 2).
+			put("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(405);
 		// no body
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
-			put("/categories/" + 2).
+			put("/categories/" + fixtures.category(2)).
 		then().
 			assertThat().statusCode(405);
 		//invalid body
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body("something")
                 .when()
-                .put("/categories/1")
+                .put("/categories/" + fixtures.category(1))
                 .then()
                 .assertThat()
                 .statusCode(405);
@@ -375,7 +383,7 @@ public class ControllerCategoryTest {
 	public void testDeleteCategory() {
 		JsonPath categoryJson =
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 	        get("/categories").
@@ -390,9 +398,9 @@ public class ControllerCategoryTest {
 		// Mismatching session IDs
 		given().
 			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 		when().
-			delete("categories/" + 4 + "?session_id=" + 2).
+			delete("categories/" + lastCategoryID + "?session_id=" + otherSession).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -414,7 +422,7 @@ public class ControllerCategoryTest {
 
 		// Valid header
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			delete("/categories/" + lastCategoryID).
@@ -424,7 +432,7 @@ public class ControllerCategoryTest {
 		// Check that category was indeed deleted
 		// Try another delete
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			delete("/categories/" + lastCategoryID).
@@ -432,7 +440,7 @@ public class ControllerCategoryTest {
 			assertThat().statusCode(404);
 		// Try a get request
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
 			get("/categories/" + lastCategoryID).
@@ -440,20 +448,13 @@ public class ControllerCategoryTest {
 			assertThat().statusCode(404);
 
 		// Add the category again to test the delete with the sessionID inserted as a parameter
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
-			body(new JSONObject().put("name", "parameterTest").toString()).
-		when().
-			post("/categories").
-		then().
-			assertThat().statusCode(201);
+		int newCategoryID = TestSessions.post(session, "/categories", new JSONObject().put("name", "parameterTest"));
 
 		// Perform the delete
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			delete("/categories/" + lastCategoryID + "?session_id=" + 1).
+			delete("/categories/" + newCategoryID + "?session_id=" + session).
 		then().
 			assertThat().statusCode(204);
 
@@ -462,15 +463,15 @@ public class ControllerCategoryTest {
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			delete("/categories/" + lastCategoryID + "?session_id=" + 1).
+			delete("/categories/" + newCategoryID + "?session_id=" + session).
 		then().
 			assertThat().statusCode(404);
 		// Try a get request
 		given().
-			header("X-session-ID", 1).
+			header("X-session-ID", session).
 			header("Content-Type", "application/JSON").
 		when().
-			get("/categories/" + lastCategoryID).
+			get("/categories/" + newCategoryID).
 		then().
 			assertThat().statusCode(404);
 
@@ -16,9 +16,15 @@ import static org.junit.Assert.assertTrue;
 
 public class ControllerPaymentRequestTest {
 
+    private static int session;
+    private static int otherSession;
+
     @BeforeClass
     public static void setUp() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        session = TestSessions.withFixtures().session;
+        otherSession = TestSessions.withSmallFixtures().session;
     }
 
     @Test
@@ -32,7 +38,7 @@ public class ControllerPaymentRequestTest {
                 statusCode(401);
         //only param
         given().
-                param("session_id", 1).
+                param("session_id", session).
                 when().
                 get("/paymentRequests").
                 then().
@@ -40,7 +46,7 @@ public class ControllerPaymentRequestTest {
                 statusCode(200);
         //correct header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/paymentRequests")
                 .then()
@@ -48,8 +54,8 @@ public class ControllerPaymentRequestTest {
                 .statusCode(200);
         //different param and header
         given()
-                .header("X-session-ID", 2)
-                .param("session_id", 1)
+                .header("X-session-ID", otherSession)
+                .param("session_id", session)
                 .when()
                 .get("/paymentRequests")
                 .then()
@@ -71,7 +77,7 @@ public class ControllerPaymentRequestTest {
                 .statusCode(401);
         //no body
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .post("/paymentRequests")
                 .then()
@@ -79,7 +85,7 @@ public class ControllerPaymentRequestTest {
                 .statusCode(405);
         //successful post
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -87,7 +93,7 @@ public class ControllerPaymentRequestTest {
                 .assertThat()
                 .statusCode(201);
         JsonPath jsonPath = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/paymentRequests")
                 .then()
@@ -110,7 +116,7 @@ public class ControllerPaymentRequestTest {
         jsonObject.remove("description");
         jsonObject.put("decription", "somethign");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -120,7 +126,7 @@ public class ControllerPaymentRequestTest {
         //field is missing
         jsonObject.remove("decription");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -137,7 +143,7 @@ public class ControllerPaymentRequestTest {
                 .put("amount", 125)
                 .put("number_of_requests", 2);
         given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -151,7 +157,7 @@ public class ControllerPaymentRequestTest {
                 .put("description", "something")
                 .put("type", "deposit");
         given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -159,7 +165,7 @@ public class ControllerPaymentRequestTest {
                 .assertThat()
                 .statusCode(201);
         JsonPath jsonPath = given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .when()
                 .get("/paymentRequests")
                 .then()
@@ -169,7 +175,7 @@ public class ControllerPaymentRequestTest {
                 .jsonPath();
         String string = jsonPath.getString("transactions.id");
         jsonPath = given()
-                .header("X-session-ID", 2)
+                .header("X-session-ID", otherSession)
                 .when()
                 .get("/transactions")
                 .then()
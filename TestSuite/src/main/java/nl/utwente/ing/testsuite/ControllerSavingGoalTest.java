@@ -16,9 +16,17 @@ import static org.junit.Assert.*;
 
 public class ControllerSavingGoalTest {
 
+    private static int session;
+    private static int otherSession;
+    private static int emptySession;
+
     @BeforeClass
     public static void setUp() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        session = TestSessions.withFixtures().session;
+        otherSession = TestSessions.create();
+        emptySession = TestSessions.create();
     }
 
     @Test
@@ -32,8 +40,8 @@ public class ControllerSavingGoalTest {
                 .statusCode(401);
         //Param and header are different
         given()
-                .param("session_id", 1)
-                .header("X-session-ID", 2)
+                .param("session_id", session)
+                .header("X-session-ID", otherSession)
                 .when()
                 .get("/savingGoals")
                 .then()
@@ -41,7 +49,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(401);
         //Correct param
         given()
-                .param("session_id",1)
+                .param("session_id", session)
                 .when()
                 .get("/savingGoals")
                 .then()
@@ -49,7 +57,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(200);
         //Correct header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/savingGoals")
                 .then()
@@ -74,7 +82,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(401);
         //No body
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .post("/savingGoals")
                 .then()
@@ -82,7 +90,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(405);
         //Correct post
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/savingGoals")
@@ -93,7 +101,7 @@ public class ControllerSavingGoalTest {
         jsonObject.remove("goal");
         jsonObject.put("goal", -1200);
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/savingGoals")
@@ -103,7 +111,7 @@ public class ControllerSavingGoalTest {
         //Missing field
         jsonObject.remove("goal");
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/savingGoals")
@@ -117,13 +125,13 @@ public class ControllerSavingGoalTest {
                 .put("savePerMonth", 100)
                 .put("minBalanceRequired", 260);
         Response response = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .body(jsonObject.toString())
                 .when()
                 .post("/savingGoals");
         response.then().assertThat().statusCode(201);
         response = given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/savingGoals");
         JsonPath jsonPath = response
@@ -140,7 +148,7 @@ public class ControllerSavingGoalTest {
     public void testDelete() {
         JsonPath savingJson =
                 given().
-                        header("X-session-ID", 1).
+                        header("X-session-ID", session).
                         header("Content-Type", "application/JSON").
                         when().
                         get("/savingGoals").
@@ -160,7 +168,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(401);
         //Not valid savingGoal
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .delete("/savingGoals/-1")
                 .then()
@@ -168,7 +176,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(404);
         //Delete correctly with header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .delete("/savingGoals/" + lastSavingGoalID)
                 .then()
@@ -176,7 +184,7 @@ public class ControllerSavingGoalTest {
                 .statusCode(204);
         savingJson =
                 given().
-                        header("X-session-ID", 1).
+                        header("X-session-ID", session).
                         header("Content-Type", "application/JSON").
                         when().
                         get("/savingGoals").
@@ -190,7 +198,7 @@ public class ControllerSavingGoalTest {
         //Delete correctly with param
 //        System.out.println(lastSavingGoalID);
         given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .delete("/savingGoals/" + lastSavingGoalID)
                 .then()
@@ -198,8 +206,8 @@ public class ControllerSavingGoalTest {
                 .statusCode(204);
         //Param and header are different
         given()
-                .param("session_id", 1)
-                .header("X-session-ID", 2)
+                .param("session_id", session)
+                .header("X-session-ID", otherSession)
                 .when()
                 .delete("/savingGoals/" + lastSavingGoalID)
                 .then()
@@ -216,7 +224,7 @@ public class ControllerSavingGoalTest {
                 .put("externalIBAN", "NL67RABO4564561230")
                 .put("description", "test transaction");
         given()
-                .header("X-session-ID", 5)
+                .header("X-session-ID", emptySession)
                 .body(transaction.toString())
                 .when()
                 .post("/transactions")
@@ -228,7 +236,7 @@ public class ControllerSavingGoalTest {
                 .put("goal", 3000)
                 .put("savePerMonth", 1500);
         given()
-                .header("X-session-ID", 5)
+                .header("X-session-ID", emptySession)
                 .body(savingGoal.toString())
                 .when()
                 .post("/savingGoals")
@@ -242,7 +250,7 @@ public class ControllerSavingGoalTest {
                 .put("externalIBAN", "NL67RABO4564561230")
                 .put("description", "test transaction");
         given()
-                .header("X-session-ID", 5)
+                .header("X-session-ID", emptySession)
                 .body(transaction.toString())
                 .when()
                 .post("/transactions")
@@ -250,7 +258,7 @@ public class ControllerSavingGoalTest {
                 .assertThat()
                 .statusCode(201);
         JsonPath jsonPath = given()
-                .param("session_id", 5)
+                .param("session_id", emptySession)
                 .when()
                 .get("/savingGoals")
                 .then()
@@ -262,7 +270,7 @@ public class ControllerSavingGoalTest {
         assertTrue((float) list.get(list.size() - 1) == 1500);
         list = jsonPath.getList("id");
         jsonPath = given()
-                .param("session_id", 5)
+                .param("session_id", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -274,21 +282,21 @@ public class ControllerSavingGoalTest {
         assertTrue((float) list1.get(list1.size() - 1) == 6000);
         list1 = jsonPath.getList("id");
         given()
-                .param("session_id", 5)
+                .param("session_id", emptySession)
                 .when()
                 .delete("/transactions/" + list1.get(list1.size() - 1))
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .param("session_id", 5)
+                .param("session_id", emptySession)
                 .when()
                 .delete("/transactions/" + list1.get(list1.size() - 2))
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .param("session_id", 5)
+                .param("session_id", emptySession)
                 .when()
                 .delete("/savingGoals/" + list.get(list.size() - 1))
                 .then()
@@ -13,6 +13,7 @@ public class ControllerTest {
 	@BeforeClass
 	public static void before() {
 		RestAssured.basePath = "/api/v1";
+		TestEnvironment.setUp();
 	}
 
 	@Test
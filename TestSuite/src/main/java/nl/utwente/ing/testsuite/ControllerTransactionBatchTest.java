@@ -0,0 +1,187 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.Assert.*;
+
+/**
+ * Bulk import with POST /transactions:batch. The body is a JSON array or newline delimited JSON, every
+ * item is held to the rules of POST /transactions on its own and the response reports a status per
+ * item, so one invalid item does not fail the others.
+ */
+public class ControllerTransactionBatchTest {
+
+    @BeforeClass
+    public static void before() {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+    }
+
+    @Test
+    public void testPartialFailureJsonArray() {
+        int session = TestSessions.create();
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        JSONArray items = new JSONArray()
+                .put(Payloads.transaction(date, 100, "NL39RABO0300065264", "deposit", "salary"))
+                // amount not positive
+                .put(Payloads.transaction(date, 0, "NL39RABO0300065264", "deposit", "nothing"))
+                // no externalIBAN
+                .put(Payloads.transaction(date, 10, "NL39RABO0300065264", "deposit", "no iban")
+                        .put("externalIBAN", JSONObject.NULL))
+                // invalid date
+                .put(Payloads.transaction(date, 10, "NL39RABO0300065264", "deposit", "bad date")
+                        .put("date", "yesterday"))
+                // invalid type
+                .put(Payloads.transaction(date, 10, "NL39RABO0300065264", "transfer", "bad type"))
+                // not an object
+                .put(42)
+                .put(Payloads.transaction(date.plusHours(1), 30.5, "NL39RABO0300065865", "withdrawal", "rent"));
+
+        Response response = batch(session, "application/json", items.toString());
+        response.then().assertThat().statusCode(200);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), response.jsonPath().getList("results.index"));
+        assertEquals(Arrays.asList(201, 405, 405, 405, 405, 405, 201), response.jsonPath().getList("results.status"));
+        assertEquals(2, response.jsonPath().getInt("created"));
+        assertEquals(5, response.jsonPath().getInt("failed"));
+        for (int i = 1; i <= 5; i++) {
+            assertNotNull(response.jsonPath().getString("results[" + i + "].message"));
+        }
+
+        // Only the valid items were added, in input order, exactly as single posts would add them
+        List<Integer> ids = response.jsonPath().getList("results.findAll { it.status == 201 }.id");
+        Response listed = given().
+                header("X-session-ID", session).
+                when().
+                get("/transactions");
+        assertEquals(ids, listed.jsonPath().getList("id"));
+        assertEquals(100, listed.jsonPath().getFloat("[0].amount"), 0.01);
+        assertEquals("rent", listed.jsonPath().getString("[1].description"));
+        assertEquals(69.5, listed.jsonPath().getFloat("[1].balance"), 0.01);
+    }
+
+    @Test
+    public void testPartialFailureNdjson() {
+        int session = TestSessions.create();
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        String body = Payloads.transaction(date, 10, "NL39RABO0300065264", "deposit", "first") + "\n"
+                + "\n"
+                + "{\"date\": \"" + date + "\", \"amount\": 10, \n"
+                + Payloads.transaction(date, -5, "NL39RABO0300065264", "deposit", "negative") + "\r\n"
+                + Payloads.transaction(date, 20, "NL39RABO0300065264", "deposit", "last");
+
+        Response response = batch(session, "application/x-ndjson", body);
+        response.then().assertThat().statusCode(200);
+        // Blank lines are not items, a line that is no JSON object fails on its own
+        assertEquals(Arrays.asList(201, 405, 405, 201), response.jsonPath().getList("results.status"));
+        assertEquals(2, response.jsonPath().getInt("created"));
+        assertEquals(2, response.jsonPath().getInt("failed"));
+        assertEquals(Arrays.asList("first", "last"), given().
+                header("X-session-ID", session).
+                when().
+                get("/transactions").
+                jsonPath().getList("description"));
+    }
+
+    @Test
+    public void testLargeBatch() {
+        int session = TestSessions.create();
+        LocalDateTime date = LocalDateTime.now().minusYears(1);
+        StringBuilder body = new StringBuilder();
+        int count = 2500;
+        for (int i = 0; i < count; i++) {
+            // Every seventh item is invalid
+            double amount = i % 7 == 0 ? 0 : 1 + i % 100;
+            body.append(Payloads.transaction(date.plusMinutes(i), amount, "NL39RABO0300065264",
+                    i % 3 == 0 ? "withdrawal" : "deposit", "item " + i)).append('\n');
+        }
+
+        Response response = batch(session, "application/x-ndjson", body.toString());
+        response.then().assertThat().statusCode(200);
+        int failed = (count + 6) / 7;
+        assertEquals(count - failed, response.jsonPath().getInt("created"));
+        assertEquals(failed, response.jsonPath().getInt("failed"));
+        List<Integer> statuses = response.jsonPath().getList("results.status");
+        assertEquals(count, statuses.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("Item " + i, i % 7 == 0 ? 405 : 201, (int) statuses.get(i));
+        }
+        // Ids are handed out in input order
+        List<Integer> ids = response.jsonPath().getList("results.findAll { it.status == 201 }.id");
+        for (int i = 1; i < ids.size(); i++) {
+            assertEquals(ids.get(i - 1) + 1, (int) ids.get(i));
+        }
+    }
+
+    @Test
+    public void testMalformedArrayKeepsEarlierItems() {
+        int session = TestSessions.create();
+        String item = Payloads.transaction(LocalDateTime.now().minusDays(1), 10, "NL39RABO0300065264",
+                "deposit", "kept").toString();
+        Response response = batch(session, "application/json", "[" + item + "," + item + ", {\"amount\": ");
+        response.then().assertThat().statusCode(200);
+        assertEquals(Arrays.asList(201, 201, 405), response.jsonPath().getList("results.status"));
+
+        // An empty array imports nothing
+        response = batch(session, "application/json", " [ ] ");
+        response.then().assertThat().statusCode(200);
+        assertEquals(0, response.jsonPath().getInt("created"));
+        assertEquals(2, given().
+                header("X-session-ID", session).
+                when().
+                get("/transactions").
+                jsonPath().getList("id").size());
+    }
+
+    @Test
+    public void testInvalidBatch() {
+        int session = TestSessions.create();
+        String body = new JSONArray().put(Payloads.deposit(10)).toString();
+        // No session
+        given().
+                header("Content-Type", "application/json").
+                body(body).
+                when().
+                post("/transactions:batch").
+                then().
+                assertThat().statusCode(401);
+        // Unknown session
+        batch(-1, "application/json", body).
+                then().
+                assertThat().statusCode(401);
+        // No body
+        batch(session, "application/json", "  ").
+                then().
+                assertThat().statusCode(405);
+        // The session works as a parameter too
+        Response response = given().
+                header("Content-Type", "application/json").
+                queryParam("session_id", session).
+                body(body).
+                when().
+                post("/transactions:batch");
+        response.then().assertThat().statusCode(200);
+        assertEquals(1, response.jsonPath().getInt("created"));
+    }
+
+    private static Response batch(int session, String contentType, String body) {
+        return given().
+                header("X-session-ID", session).
+                header("Content-Type", contentType).
+                body(body.getBytes(StandardCharsets.UTF_8)).
+                when().
+                post("/transactions:batch");
+    }
+
+}
@@ -0,0 +1,219 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.Assert.*;
+
+/**
+ * Keyset paging of GET /transactions: every page carries the X-Next-Cursor header, whose value is
+ * passed back as the opaque {@code after} parameter to get the next page. The last page has no cursor.
+ */
+public class ControllerTransactionCursorTest {
+
+    private static final String CURSOR = "X-Next-Cursor";
+
+    @BeforeClass
+    public static void before() {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+    }
+
+    @Test
+    public void testCursorPagesMatchOffsetPages() {
+        int session = TestSessions.create();
+        postTransactions(session, 45);
+
+        // Walk the pages with the cursor
+        List<Object> cursorIds = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            Response page = page(session, cursor);
+            page.then().assertThat().statusCode(200);
+            List<Object> ids = page.jsonPath().getList("id");
+            cursorIds.addAll(ids);
+            pageSizes.add(ids.size());
+            cursor = page.getHeader(CURSOR);
+        } while (cursor != null);
+
+        // The same listing with offset and limit
+        List<Object> offsetIds = new ArrayList<>();
+        for (int offset = 0; offset < 45; offset += 20) {
+            offsetIds.addAll(given().
+                    header("X-session-ID", session).
+                    param("offset", offset).
+                    param("limit", 20).
+                    when().
+                    get("/transactions").
+                    jsonPath().getList("id"));
+        }
+
+        assertEquals(offsetIds, cursorIds);
+        assertEquals(45, cursorIds.size());
+        // The last page is short and has no cursor
+        assertEquals(3, pageSizes.size());
+        assertEquals(5, (int) pageSizes.get(2));
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        int session = TestSessions.create();
+        postTransactions(session, 3);
+        String cursor = given().
+                header("X-session-ID", session).
+                param("limit", 1).
+                when().
+                get("/transactions").
+                getHeader(CURSOR);
+        assertNotNull(cursor);
+
+        // The cursor works with the session as a parameter too
+        given().
+                param("session_id", session).
+                param("limit", 1).
+                param("after", cursor).
+                when().
+                get("/transactions").
+                then().
+                assertThat().statusCode(200);
+        // No header
+        given().
+                param("after", cursor).
+                when().
+                get("/transactions").
+                then().
+                assertThat().statusCode(401);
+        // Not a cursor
+        given().
+                header("X-session-ID", session).
+                param("after", "some_random_invalid_cursor").
+                when().
+                get("/transactions").
+                then().
+                assertThat().statusCode(405);
+        // Cursor and offset together
+        given().
+                header("X-session-ID", session).
+                param("after", cursor).
+                param("offset", 1).
+                when().
+                get("/transactions").
+                then().
+                assertThat().statusCode(405);
+    }
+
+    @Test
+    public void testStableIterationWithConcurrentChanges() throws InterruptedException, ExecutionException {
+        int session = TestSessions.create();
+        List<Integer> initial = postTransactions(session, 100);
+        Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+        AtomicBoolean iterating = new AtomicBoolean(true);
+        AtomicInteger writes = new AtomicInteger();
+
+        // POST and DELETE in the same session while the pages are read; a failed write fails the test
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            while (iterating.get()) {
+                postTransactions(session, 1);
+                writes.incrementAndGet();
+                int victim = initial.get(ThreadLocalRandom.current().nextInt(initial.size()));
+                if (deleted.add(victim)) {
+                    given().
+                            header("X-session-ID", session).
+                            when().
+                            delete("/transactions/" + victim).
+                            then().
+                            assertThat().statusCode(204);
+                    writes.incrementAndGet();
+                }
+            }
+        });
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int writesWhileReading;
+        try {
+            int writesBefore = writes.get();
+            do {
+                Response page = page(session, cursor);
+                page.then().assertThat().statusCode(200);
+                seen.addAll(page.jsonPath().getList("id", Integer.class));
+                cursor = page.getHeader(CURSOR);
+                // Read on only once the session changed since the first page
+                while (cursor != null && writes.get() == writesBefore && !writer.isDone()) {
+                    Thread.sleep(1);
+                }
+            } while (cursor != null);
+            writesWhileReading = writes.get() - writesBefore;
+        } finally {
+            iterating.set(false);
+            executor.shutdown();
+        }
+        writer.get();
+        assertTrue("No POST or DELETE ran while the pages were read", writesWhileReading > 0);
+
+        // Every transaction is returned at most once, in ascending order
+        assertEquals(seen.size(), new HashSet<>(seen).size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) < seen.get(i));
+        }
+        // Every transaction that existed before and was not deleted is returned
+        for (int id : initial) {
+            if (!deleted.contains(id)) {
+                assertTrue("Transaction " + id + " was skipped", seen.contains(id));
+            }
+        }
+    }
+
+    private static Response page(int session, String cursor) {
+        if (cursor == null) {
+            return given().
+                    header("X-session-ID", session).
+                    param("limit", 20).
+                    when().
+                    get("/transactions");
+        }
+        return given().
+                header("X-session-ID", session).
+                param("limit", 20).
+                param("after", cursor).
+                when().
+                get("/transactions");
+    }
+
+    private static List<Integer> postTransactions(int session, int count) {
+        List<Integer> ids = new ArrayList<>();
+        LocalDateTime date = LocalDateTime.now().minusDays(count);
+        for (int i = 0; i < count; i++) {
+            Response response = given().
+                    header("X-session-ID", session).
+                    header("Content-Type", "application/JSON").
+                    body(Payloads.transaction(date.plusDays(i), 10 + i, "NL39RABO0300065264", "deposit",
+                            "cursor " + i).toString()).
+                    when().
+                    post("/transactions");
+            response.then().assertThat().statusCode(201);
+            ids.add(response.jsonPath().getInt("id"));
+        }
+        return ids;
+    }
+}
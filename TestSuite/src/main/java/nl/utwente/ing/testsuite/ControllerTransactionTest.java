@@ -4,6 +4,7 @@ import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
+import nl.utwente.ing.testsuite.load.Payloads;
 import org.json.JSONObject;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -17,27 +18,31 @@ import static org.junit.Assert.*;
 
 public class ControllerTransactionTest {
 
+    private static TestSessions.Seeded fixtures;
+    private static int session;
+    private static int otherSession;
+
     @BeforeClass
     public static void before() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        fixtures = TestSessions.withFixtures();
+        session = fixtures.session;
+        otherSession = TestSessions.create();
     }
 
     @Test
     public void testGetTransactions() {
         // ---- Headers ----
         // Mismatching session IDs
-        given().
-                header("Content-Type", "application/JSON").
-                header("X-session-ID", 3).
+        TestSessions.given(otherSession).
                 when().
-                get("/transactions?session_id=" + "1").
+                get("/transactions?session_id=" + session).
                 then().
                 assertThat().statusCode(401);
 
         // Valid header
-        Response headerTransactions = given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        Response headerTransactions = TestSessions.given(session).
                 when().
                 get("/transactions");
 
@@ -49,7 +54,7 @@ public class ControllerTransactionTest {
         Response parameterTransactions = given().
                 header("Content-Type", "application/JSON").
                 when().
-                get("/transactions?session_id=" + 1);
+                get("/transactions?session_id=" + session);
 
         //Check the response code
         parameterTransactions.
@@ -100,9 +105,7 @@ public class ControllerTransactionTest {
         }
 
         // Invalid header
-        given().
-                header("X-session-ID", -1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(-1).
                 when().
                 get("/transactions").
                 then().
@@ -118,9 +121,7 @@ public class ControllerTransactionTest {
 
         // Get the first transaction id starting with offset 0
         JsonPath transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("offset", 0).
                         when().
                         get("/transactions").
@@ -129,12 +130,11 @@ public class ControllerTransactionTest {
                         extract().
                         response().jsonPath();
         String firstTransactionID = transactionJson.getString("id[0]");
+        String nextTransactionID = transactionJson.getString("id[1]");
 
         // Get the first transaction id starting with offset 1
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("offset", 1).
                         when().
                         get("/transactions").
@@ -145,13 +145,11 @@ public class ControllerTransactionTest {
         String secondTransactionID = transactionJson.getString("id[0]");
 
         // Check if the offset works
-        assertEquals(Integer.parseInt(firstTransactionID) + 1, Integer.parseInt(secondTransactionID));
+        assertEquals(nextTransactionID, secondTransactionID);
 
         // Check the lower bound on the offset
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("offset", -1).
                         when().
                         get("/transactions").
@@ -165,9 +163,7 @@ public class ControllerTransactionTest {
         // ---- Limit ----
 
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("limit", 1).
                         when().
                         get("/transactions").
@@ -179,9 +175,7 @@ public class ControllerTransactionTest {
         assertEquals(1, nrTransactions);
 
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("limit", 2).
                         when().
                         get("/transactions").
@@ -196,9 +190,7 @@ public class ControllerTransactionTest {
         // Limit bounds
         // lower bound
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         param("limit", -1).
                         when().
                         get("/transactions").
@@ -213,9 +205,7 @@ public class ControllerTransactionTest {
 
         // Default values of limit and offset
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
+                TestSessions.given(session).
                         when().
                         get("/transactions").
                         then().
@@ -228,25 +218,19 @@ public class ControllerTransactionTest {
 
         // ---- Category ----
         // Make sure the transactions we want to test on have a category
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
-                body(new JSONObject().put("category_id", 2).toString()).
+        TestSessions.given(session).
+                body(Payloads.categoryAssignment(fixtures.category(2)).toString()).
                 when().
-                patch("/transactions/" + 1 + "/category");
+                patch("/transactions/" + fixtures.transaction(1) + "/category");
 
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
-                body(new JSONObject().put("category_id", 2).toString()).
+        TestSessions.given(session).
+                body(Payloads.categoryAssignment(fixtures.category(2)).toString()).
                 when().
-                patch("/transactions/" + 2 + "/category");
+                patch("/transactions/" + fixtures.transaction(2) + "/category");
 
         transactionJson =
-                given().
-                        header("X-session-ID", 1).
-                        header("Content-Type", "application/JSON").
-                        param("category", 2).
+                TestSessions.given(session).
+                        param("category", fixtures.category(2)).
                         when().
                         get("/transactions").
                         then().
@@ -261,26 +245,21 @@ public class ControllerTransactionTest {
         assertTrue(categoryIds.size() >= 2);
         // Test all returned category Ids
         for (HashMap<String,Integer> categoryID : categoryIds) {
-            assertEquals(2, (int) categoryID.get("id"));
+            assertEquals(fixtures.category(2), (int) categoryID.get("id"));
         }
     }
 
     @Test
     public void testPostTransaction() {
         LocalDateTime now = LocalDateTime.now();
-        JSONObject transaction = new JSONObject().put("date", now.toString())
-                .put("amount", "15.0")
-                .put("externalIBAN", "testIBAN")
-                .put("type", "deposit")
-                .put("description", "adfwein wiahof qoihf cfdnas f");
+        JSONObject transaction = Payloads.transaction(now, 15.0, "testIBAN", "deposit",
+                "adfwein wiahof qoihf cfdnas f");
 
 		// Mismatching session IDs
-		given().
-			header("Content-Type", "application/JSON").
-			header("X-session-ID", 90).
+		TestSessions.given(otherSession).
 			body(transaction.toString()).
 		when().
-			post("/transactions?session_id=" + "1").
+			post("/transactions?session_id=" + session).
 		then().
 			assertThat().statusCode(401);
 
@@ -294,9 +273,7 @@ public class ControllerTransactionTest {
                 assertThat().statusCode(401);
 
         // Invalid header
-        given().
-                header("X-session-ID", -1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(-1).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -304,9 +281,7 @@ public class ControllerTransactionTest {
                 assertThat().statusCode(401);
 
         // Valid header
-        Response headerTransactionResponse = given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        Response headerTransactionResponse = TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions");
@@ -320,7 +295,7 @@ public class ControllerTransactionTest {
                 header("Content-Type", "application/JSON").
                 body(transaction.toString()).
                 when().
-                post("/transactions?session_id=" + 1);
+                post("/transactions?session_id=" + session);
         parameterTransactionResponse.
                 then().
                 assertThat().statusCode(201);
@@ -328,9 +303,7 @@ public class ControllerTransactionTest {
         // Invalid input
         // amount = 0
         transaction.put("amount", 0);
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -338,9 +311,7 @@ public class ControllerTransactionTest {
                 assertThat().statusCode(405);
         // amount is negative
         transaction.put("amount", -15);
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -352,9 +323,7 @@ public class ControllerTransactionTest {
         transaction.
                 put("categoryID", 1).
                 remove("externalIBAN");
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -365,9 +334,7 @@ public class ControllerTransactionTest {
         transaction.
                 put("externalIBAN", "testIBAN").
                 remove("date");
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -377,9 +344,7 @@ public class ControllerTransactionTest {
         // invalid date format
         transaction.
                 put("externalIBAN", "testIBAN").put("date", "some_random_invalid_date_format");
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -389,9 +354,7 @@ public class ControllerTransactionTest {
         // wrong type of transaction
         transaction.
                 put("type", "invalid_type").put("date", now.toString());
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 body(transaction.toString()).
                 when().
                 post("/transactions").
@@ -399,9 +362,7 @@ public class ControllerTransactionTest {
                 assertThat().statusCode(405);
 
         // no body
-        given().
-                header("X-session-ID", 1).
-                header("Content-Type", "application/JSON").
+        TestSessions.given(session).
                 when().
                 post("/transactions").
                 then().
@@ -412,11 +373,9 @@ public class ControllerTransactionTest {
 	public void testGetTransaction() {
 		// ---- Headers ----
 		// Mismatching session IDs
-		given().
-			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+		TestSessions.given(session).
 		when().
-			get("/transactions/"+ 1 + "?session_id=" + 1).
+			get("/transactions/" + fixtures.transaction(1) + "?session_id=" + session).
 		then().
 			assertThat().statusCode(401);
 
@@ -424,25 +383,21 @@ public class ControllerTransactionTest {
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			get("/transactions/" + 1).
+			get("/transactions/" + fixtures.transaction(1)).
 		then().
 			assertThat().statusCode(401);
 
 		// Invalid header
-		given().
-			header("X-session-ID", -1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(-1).
 		when().
-			get("/transactions/" + 1).
+			get("/transactions/" + fixtures.transaction(1)).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
-		Response headerTransactionResponse = given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		Response headerTransactionResponse = TestSessions.given(session).
 		when().
-			get("/transactions/" + 1);
+			get("/transactions/" + fixtures.transaction(1));
 
 
 		// Check the response code
@@ -454,7 +409,7 @@ public class ControllerTransactionTest {
 		Response parameterTransactionResponse = given().
 			header("Content-Type", "application/JSON").
 		when().
-			get("/transactions/" + 1 + "?session_id=" + 1);
+			get("/transactions/" + fixtures.transaction(1) + "?session_id=" + session);
 
 		// Check response code
 		parameterTransactionResponse.
@@ -473,7 +428,7 @@ public class ControllerTransactionTest {
         assertEquals(parameterTransaction.getFloat("amount"), headerTransaction.getFloat("amount"), 0.0);
 		assertEquals(parameterTransaction.getMap("category"), headerTransaction.getMap("category"));
 
-		assertEquals(headerTransaction.getInt("id"), 1);
+		assertEquals(headerTransaction.getInt("id"), fixtures.transaction(1));
 		// Check if the transaction's date is in the valid datetime format
 //		boolean validDate = true;
 //		try {
@@ -492,9 +447,7 @@ public class ControllerTransactionTest {
 
 
 		// ---- Non-existent ID ----
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
 			get("/transactions/" + -1).
 		then().
@@ -503,20 +456,15 @@ public class ControllerTransactionTest {
 
 	@Test
 	public void testPutTransaction() {
-		String now = LocalDateTime.now().toString();
-		JSONObject transaction = new JSONObject().put("date", now)
-				.put("amount", 213.04)
-				.put("externalIBAN", "NL39RABO0300065264")
-				.put("type", "deposit")
-		        .put("description", "asfhwef iwfdc,");
+		LocalDateTime now = LocalDateTime.now();
+		JSONObject transaction = Payloads.transaction(now, 213.04, "NL39RABO0300065264", "deposit",
+				"asfhwef iwfdc,");
 		// ---- Headers ----
 		// Mismatching session IDs
-		given().
-			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7" +"?session_id=" + "1").
+			put("/transactions/" + fixtures.transaction(7) + "?session_id=" + session).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -524,27 +472,23 @@ public class ControllerTransactionTest {
 			header("Content-Type", "application/JSON").
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(401);
 
 		// Invalid header
-		given().
-			header("X-session-ID", -1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(-1).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
-		Response headerTransactionResponse = given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		Response headerTransactionResponse = TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "3");
+			put("/transactions/" + fixtures.transaction(3));
 
 		// Check the response code
 		headerTransactionResponse.
@@ -559,14 +503,14 @@ public class ControllerTransactionTest {
         System.out.println(transactionJson.get("date").toString());
         System.out.println(date.toString());
 		// Check if each parameter is the same as in the put request
-		assertEquals(transactionJson.getInt("id"), Integer.parseInt("3"));
+		assertEquals(transactionJson.getInt("id"), fixtures.transaction(3));
 //		assertEquals(transactionJson.get("date").toString(), date.toString());
 		assertEquals(transactionJson.get("amount").toString(), transaction.get("amount").toString());
 		assertEquals(transactionJson.get("externalIBAN").toString(), transaction.get("externalIBAN"));
 		assertEquals(transactionJson.get("type").toString(), transaction.get("type"));
 
-		now = LocalDateTime.now().toString();
-		transaction.put("date", now)
+		now = LocalDateTime.now();
+		transaction.put("date", now.toString())
 				.put("amount", 42)
 				.put("externalIBAN", "NL39RABO0300065865")
 				.put("type", "withdrawal");
@@ -576,7 +520,7 @@ public class ControllerTransactionTest {
 			header("Content-Type", "application/JSON").
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7" + "?session_id=" + "1");
+			put("/transactions/" + fixtures.transaction(7) + "?session_id=" + session);
 
 		// Check the response code
 		parameterTransactionResponse.
@@ -585,16 +529,14 @@ public class ControllerTransactionTest {
 
 		// Check if the transaction was changed correctly
 		transactionJson = parameterTransactionResponse.jsonPath();
-		assertEquals(transactionJson.getInt("id"), Integer.parseInt("7"));
+		assertEquals(transactionJson.getInt("id"), fixtures.transaction(7));
 //		assertEquals(transactionJson.get("date").toString(), transaction.get("date").toString());
         assertEquals(transactionJson.getFloat("amount"), transaction.getDouble("amount"), 0.0);
 		assertEquals(transactionJson.get("externalIBAN").toString(), transaction.get("externalIBAN"));
 		assertEquals(transactionJson.get("type").toString(), transaction.get("type"));
 
 		// ---- Non-existent ID ----
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
 			put("/transactions/" + "-1").
@@ -604,22 +546,18 @@ public class ControllerTransactionTest {
 		// Invalid input
 		// amount = 0
 		transaction.put("amount", 0);
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 		// amount is negative
 		transaction.put("amount", -15);
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 
@@ -627,12 +565,10 @@ public class ControllerTransactionTest {
 		transaction.
 					put("categoryID", "2").
 					remove("externalIBAN");
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 
@@ -640,33 +576,27 @@ public class ControllerTransactionTest {
 		transaction.
 					put("externalIBAN", "NL39RABO0300065264").
 					remove("date");
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 
 		// wrong type of transaction
 		transaction.
-		put("type", "invalid_type").put("date", now);
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		put("type", "invalid_type").put("date", now.toString());
+		TestSessions.given(session).
 			body(transaction.toString()).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 
 		// no body
-		given().
-			header("X-session-ID", "1").
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
-			put("/transactions/" + "7").
+			put("/transactions/" + fixtures.transaction(7)).
 		then().
 			assertThat().statusCode(405);
 	}
@@ -674,9 +604,7 @@ public class ControllerTransactionTest {
 	@Test
 	public void testDeleteTransaction() {
 		JsonPath transactionJson =
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
 	        get("/transactions?limit=100").
 		then().
@@ -688,11 +616,9 @@ public class ControllerTransactionTest {
 		String lastTransactionID = transactionJson.getList("id").get(listSize - 1).toString();
 		// ---- Headers ----
 		// Mismatching session IDs
-		given().
-			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+		TestSessions.given(session).
 		when().
-			delete("/transactions/" + 8 + "?session_id=" + 1).
+			delete("/transactions/" + lastTransactionID + "?session_id=" + session).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -704,18 +630,14 @@ public class ControllerTransactionTest {
 			assertThat().statusCode(401);
 
 		// Invalid header
-		given().
-			header("X-session-ID", -1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(-1).
 		when().
 			delete("/transactions/" + lastTransactionID).
 		then().
 			assertThat().statusCode(401);
 
 		// Valid header
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
 			delete("/transactions/" + lastTransactionID).
 		then().
@@ -723,17 +645,13 @@ public class ControllerTransactionTest {
 
 		// Check that transaction was indeed deleted
 		// Try another delete
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
 			delete("/transactions/" + lastTransactionID).
 		then().
 			assertThat().statusCode(404);
 		// Try a get request
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
 			get("/transactions/" + lastTransactionID).
 		then().
@@ -741,27 +659,16 @@ public class ControllerTransactionTest {
 
 		// Valid parameter session id
 
-		// Post a new transaction ( should have the same id as the one we just deleted )
-		JSONObject newTransaction = new JSONObject().
-				put("date", "2018-03-31T22:27:09.140").
-				put("amount",201.03).
-				put("externalIBAN", "NL39RABO0300065264").
-				put("type", "deposit").
-                put("description", "auowbfdnsi");
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
-			body(newTransaction.toString()).
-		when().
-			post("/transactions").
-		then().
-			assertThat().statusCode(201);
+		// Post a new transaction to delete with the session id as parameter
+		JSONObject newTransaction = Payloads.transaction(LocalDateTime.parse("2018-03-31T22:27:09.140"), 201.03,
+				"NL39RABO0300065264", "deposit", "auowbfdnsi");
+		int newTransactionID = TestSessions.post(session, "/transactions", newTransaction);
 
 		// Perform the delete and check the response code
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			delete("/transactions/" + lastTransactionID + "?session_id=" + 1).
+			delete("/transactions/" + newTransactionID + "?session_id=" + session).
 		then().
 			assertThat().statusCode(204);
 
@@ -770,14 +677,14 @@ public class ControllerTransactionTest {
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			delete("/transactions/" + lastTransactionID  + "?session_id=" + 1).
+			delete("/transactions/" + newTransactionID  + "?session_id=" + session).
 		then().
 			assertThat().statusCode(404);
 		// Try a get request
 		given().
 			header("Content-Type", "application/JSON").
 		when().
-			get("/transactions/" + lastTransactionID  + "?session_id=" + 1).
+			get("/transactions/" + newTransactionID  + "?session_id=" + session).
 		then().
 			assertThat().statusCode(404);
 
@@ -787,35 +694,30 @@ public class ControllerTransactionTest {
 	public void testPatchTransaction() {
 		// Get the categoryID of a valid transaction
 		JsonPath transactionJson =
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
-	        get("/transactions/" + 1).
+	        get("/transactions/" + fixtures.transaction(1)).
 		then().
 			contentType(ContentType.JSON).
 		extract().
 			response().jsonPath();
 
 		HashMap<String, Integer> categoryJson = transactionJson.get("categoryID");
-		JSONObject incrementedCategoryID = new JSONObject();
-		if (categoryJson != null) {
-			// if the transaction has a category, increment the category nr by one
-			// assumes there exists a category after the present category
-			incrementedCategoryID.put("category_id", categoryJson.get("id") + 1);
+		JSONObject incrementedCategoryID;
+		if (categoryJson != null && categoryJson.get("id") == fixtures.category(1)) {
+			// if the transaction has the first category, move it to the second
+			incrementedCategoryID = Payloads.categoryAssignment(fixtures.category(2));
 		} else {
-			// if the category is null, give the field a valid category
-			incrementedCategoryID.put("category_id", 1);
+			// otherwise give the field the first category
+			incrementedCategoryID = Payloads.categoryAssignment(fixtures.category(1));
 		}
 
 		// ---- Headers ----
 		// Mismatching session IDs
-		given().
-			header("Content-Type", "application/JSON").
-			header("X-session-ID", 1).
+		TestSessions.given(session).
 			body(incrementedCategoryID.toString()).
 		when().
-			patch("/transactions/" + 1 + "/category?session_id=" + 1).
+			patch("/transactions/" + fixtures.transaction(1) + "/category?session_id=" + session).
 		then().
 			assertThat().statusCode(401);
 		// No header
@@ -823,29 +725,25 @@ public class ControllerTransactionTest {
 			header("Content-Type", "application/JSON").
 			body(incrementedCategoryID.toString()).
 		when().
-			patch("/transactions/" + 1 + "/category").
+			patch("/transactions/" + fixtures.transaction(1) + "/category").
 		then().
 			assertThat().statusCode(401);
 
 		// Invalid header
-		given().
-			header("X-session-ID", -1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(-1).
 			body(incrementedCategoryID.toString()).
 		when().
-			patch("/transactions/" + 1 + "/category").
+			patch("/transactions/" + fixtures.transaction(1) + "/category").
 		then().
 			assertThat().statusCode(401);
 
 
 		// Valid header
 
-		Response response = given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		Response response = TestSessions.given(session).
 			body(incrementedCategoryID.toString()).
 		when().
-			patch("/transactions/" + 1 + "/category");
+			patch("/transactions/" + fixtures.transaction(1) + "/category");
 
 		response.
 		then().
@@ -862,13 +760,12 @@ public class ControllerTransactionTest {
 		assertEquals(categoryID, incrementedCategoryID.get("category_id"));
 
 		// Perform the patch and check the response code
-		JSONObject newCategoryID = new JSONObject().put("category_id",
-				incrementedCategoryID.getInt("category_id") + 1);  // Update the category id further
+		JSONObject newCategoryID = Payloads.categoryAssignment(fixtures.category(3));  // Update the category id further
 		response = given().
 			header("Content-Type", "application/JSON").
 			body(newCategoryID.toString()).
 		when().
-			patch("/transactions/" + 1 + "/category?session_id=" + 1);
+			patch("/transactions/" + fixtures.transaction(1) + "/category?session_id=" + session);
 		// Check response code
 		response.
 			then().
@@ -878,9 +775,7 @@ public class ControllerTransactionTest {
 
 		// ---- Non-existent IDs ----
 		// Invalid transactionID
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			body(incrementedCategoryID.toString()).
 		when().
 			// Id out of the session or possibly out of valid id range
@@ -889,34 +784,28 @@ public class ControllerTransactionTest {
 			assertThat().statusCode(404);
 
 		// Invalid categoryID
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			// invalid category_id
-			body(new JSONObject().put("category_id", -1).toString()).
+			body(Payloads.categoryAssignment(-1).toString()).
 		when().
-			patch("/transactions/" + 1 + "/category").
+			patch("/transactions/" + fixtures.transaction(1) + "/category").
 		then().
 			assertThat().statusCode(404);
 
 		// Invalid both transactionID and categoryID
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 			// invalid category_id
-			body(new JSONObject().put("category_id", -1).toString()).
+			body(Payloads.categoryAssignment(-1).toString()).
 		when().
 			// ID that is out of the session or possibly out of valid id range
-			patch("/transactions/" + 1 + "/category").
+			patch("/transactions/" + fixtures.transaction(1) + "/category").
 		then().
 			assertThat().statusCode(404);
 
 		// No body
-		given().
-			header("X-session-ID", 1).
-			header("Content-Type", "application/JSON").
+		TestSessions.given(session).
 		when().
-			patch("/transactions/" + 1 + "/category").
+			patch("/transactions/" + fixtures.transaction(1) + "/category").
 		then().
 			assertThat().statusCode(405);
 
@@ -0,0 +1,195 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.Assert.*;
+
+/**
+ * Long-polling GET /messages/poll for new user messages instead of listing them over and over. A poll
+ * waiting for messages above its since-id must be answered as soon as a transaction adds one, and
+ * polling on from the last id seen must deliver every message once, in order.
+ */
+public class ControllerUserMessagePollTest {
+
+    // From sending the transaction to the waiting poll receiving its message
+    private static final long DELIVERY_MILLIS = 500;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private static final ExecutorService POLLERS = Executors.newCachedThreadPool();
+
+    @BeforeClass
+    public static void before() {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+    }
+
+    @AfterClass
+    public static void after() {
+        POLLERS.shutdownNow();
+    }
+
+    @Test
+    public void testDeliversNewMessage() throws Exception {
+        int session = TestSessions.create();
+        // The new high of the first deposit
+        Future<Long> newHigh = pollAndTime(session, 0);
+        Thread.sleep(200);
+        long sent = System.nanoTime();
+        post(session, Payloads.deposit(100));
+        assertDelivered(sent, newHigh);
+
+        Response messages = poll(session, 0, 0);
+        assertEquals("Balance reached new high", messages.jsonPath().getString("[0].message"));
+        int newHighId = messages.jsonPath().getInt("[0].id");
+
+        // A negative balance after it
+        Future<Long> negative = pollAndTime(session, newHighId);
+        Thread.sleep(200);
+        sent = System.nanoTime();
+        post(session, Payloads.withdrawal(250));
+        assertDelivered(sent, negative);
+
+        messages = poll(session, newHighId, 0);
+        assertEquals(1, messages.jsonPath().getList("id").size());
+        assertEquals("Balance is negative", messages.jsonPath().getString("[0].message"));
+        assertTrue(messages.jsonPath().getInt("[0].id") > newHighId);
+    }
+
+    @Test
+    public void testDeliversEveryMessageInOrder() throws Exception {
+        int session = TestSessions.create();
+        Future<List<Integer>> received = POLLERS.submit(() -> {
+            List<Integer> ids = new ArrayList<>();
+            int since = 0;
+            while (ids.size() < 10) {
+                Response response = poll(session, since, TIMEOUT_MILLIS);
+                response.then().assertThat().statusCode(200);
+                List<Integer> page = response.jsonPath().getList("id", Integer.class);
+                assertFalse("Poll timed out", page.isEmpty());
+                ids.addAll(page);
+                since = page.get(page.size() - 1);
+            }
+            return ids;
+        });
+        // Every deposit is a new high, every withdrawal leaves a negative balance
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            int high = 1000 * (i + 1);
+            post(session, Payloads.transaction(date.plusMinutes(2 * i), i == 0 ? high : high + 100,
+                    "NL39RABO0300065264", "deposit", ""));
+            List<Integer> listed = given().header("X-session-ID", session).when().get("/messages").jsonPath()
+                    .getList("id", Integer.class);
+            int newHigh = listed.get(listed.size() - 1);
+            given().header("X-session-ID", session).header("Content-Type", "application/json")
+                    .when().put("/messages/" + newHigh).then().assertThat().statusCode(200);
+            post(session, Payloads.transaction(date.plusMinutes(2 * i + 1), high + 100, "NL39RABO0300065264",
+                    "withdrawal", ""));
+        }
+
+        List<Integer> ids = received.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        List<Integer> listed = given().header("X-session-ID", session).when().get("/messages").jsonPath()
+                .getList("id", Integer.class);
+        assertEquals(listed, ids);
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+    }
+
+    @Test
+    public void testAnswersRightAwayWithExistingMessages() {
+        int session = TestSessions.create();
+        post(session, Payloads.deposit(100));
+        long start = System.nanoTime();
+        Response response = poll(session, 0, TIMEOUT_MILLIS);
+        response.then().assertThat().statusCode(200);
+        assertEquals(1, response.jsonPath().getList("id").size());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < TIMEOUT_MILLIS / 2);
+    }
+
+    @Test
+    public void testTimeout() {
+        int session = TestSessions.create();
+        long start = System.nanoTime();
+        Response response = poll(session, 0, 300);
+        response.then().assertThat().statusCode(200);
+        assertTrue(response.jsonPath().getList("id").isEmpty());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+    }
+
+    @Test
+    public void testInvalidPoll() {
+        // No session
+        given().
+                param("since", 0).
+                when().
+                get("/messages/poll").
+                then().
+                assertThat().statusCode(401);
+        int session = TestSessions.create();
+        given().
+                header("X-session-ID", session).
+                param("since", -1).
+                when().
+                get("/messages/poll").
+                then().
+                assertThat().statusCode(405);
+        given().
+                header("X-session-ID", session).
+                param("since", 0).
+                param("timeout", -5).
+                when().
+                get("/messages/poll").
+                then().
+                assertThat().statusCode(405);
+    }
+
+    private static Future<Long> pollAndTime(int session, int since) {
+        return POLLERS.submit(() -> {
+            Response response = poll(session, since, TIMEOUT_MILLIS);
+            long received = System.nanoTime();
+            response.then().assertThat().statusCode(200);
+            assertFalse("Poll timed out", response.jsonPath().getList("id").isEmpty());
+            return received;
+        });
+    }
+
+    private static void assertDelivered(long sent, Future<Long> received) throws Exception {
+        long millis = TimeUnit.NANOSECONDS.toMillis(received.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) - sent);
+        assertTrue("Delivered after " + millis + " ms", millis <= DELIVERY_MILLIS);
+    }
+
+    private static Response poll(int session, int since, long timeout) {
+        return given().
+                header("X-session-ID", session).
+                param("since", since).
+                param("timeout", timeout).
+                when().
+                get("/messages/poll");
+    }
+
+    private static void post(int session, Object transaction) {
+        given().
+                header("X-session-ID", session).
+                header("Content-Type", "application/json").
+                body(transaction.toString()).
+                when().
+                post("/transactions").
+                then().
+                assertThat().statusCode(201);
+    }
+
+}
@@ -2,6 +2,7 @@ package nl.utwente.ing.testsuite;
 
 import io.restassured.RestAssured;
 import io.restassured.path.json.JsonPath;
+import nl.utwente.ing.testsuite.load.Payloads;
 import org.json.JSONObject;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -14,10 +15,19 @@ import static org.junit.Assert.*;
 
 public class ControllerUserMessageTest {
 
+    private static int session;
+    private static int otherSession;
+    private static int emptySession;
 
     @BeforeClass
     public static void setUp() {
         RestAssured.basePath = "api/v1";
+        TestEnvironment.setUp();
+        // A withdrawal from an empty account leaves a message to read
+        session = TestSessions.create();
+        TestSessions.post(session, "/transactions", Payloads.withdrawal(10));
+        otherSession = TestSessions.create();
+        emptySession = TestSessions.create();
     }
 
     @Test
@@ -31,7 +41,7 @@ public class ControllerUserMessageTest {
                 .statusCode(401);
         //good param
         given()
-                .param("session_id", 1)
+                .param("session_id", session)
                 .when()
                 .get("/messages")
                 .then()
@@ -39,7 +49,7 @@ public class ControllerUserMessageTest {
                 .statusCode(200);
         //good header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/messages")
                 .then()
@@ -47,8 +57,8 @@ public class ControllerUserMessageTest {
                 .statusCode(200);
         //mismatching header and param
         given()
-                .header("X-session-ID", 1)
-                .param("session_id", 2)
+                .header("X-session-ID", session)
+                .param("session_id", otherSession)
                 .when()
                 .get("/messages")
                 .then()
@@ -68,7 +78,7 @@ public class ControllerUserMessageTest {
                 .statusCode(401);
         //invalid message
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .header("Content-Type", "application/json")
                 .when()
                 .put("/messages/-1")
@@ -76,7 +86,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(404);
         JsonPath jsonPath = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .when()
                 .get("/messages")
                 .then()
@@ -87,8 +97,8 @@ public class ControllerUserMessageTest {
         System.out.println(lastId);
         //mismatching header and param
         given()
-                .header("X-session-ID", 1)
-                .param("session_id", 2)
+                .header("X-session-ID", session)
+                .param("session_id", otherSession)
                 .header("Content-Type", "application/json")
                 .when()
                 .put("/messages/" + lastId)
@@ -97,7 +107,7 @@ public class ControllerUserMessageTest {
                 .statusCode(401);
         //good header
         given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .header("Content-Type", "application/json")
                 .when()
                 .put("/messages/" + lastId)
@@ -105,7 +115,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(200);
         jsonPath = given()
-                .header("X-session-ID", 1)
+                .header("X-session-ID", session)
                 .header("Content-Type", "application/json")
                 .when()
                 .get("/messages")
@@ -122,7 +132,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 150).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -134,7 +144,7 @@ public class ControllerUserMessageTest {
         jsonObject.put("amount", 250);
         jsonObject.put("type", "withdrawal");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -142,7 +152,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(201);
         JsonPath jsonPath = given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -150,7 +160,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         List<Object> list = jsonPath.getList("message");
         assertTrue(list.get(list.size() - 1).equals("Balance is negative"));
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -158,14 +168,14 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         int id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + id)
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + (id - 1))
                 .then()
@@ -180,7 +190,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 150).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -194,7 +204,7 @@ public class ControllerUserMessageTest {
         jsonObject.put("type", "deposit");
         jsonObject.put("date", LocalDateTime.now());
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -202,7 +212,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(201);
         JsonPath jsonPath = given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -213,7 +223,7 @@ public class ControllerUserMessageTest {
         //check if the message was not read a new one will not be added
         int size = list.size();
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -221,7 +231,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(201);
         jsonPath = given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -232,7 +242,7 @@ public class ControllerUserMessageTest {
         //check if the message was read a new one will be added
         size = list.size();
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .header("Content-Type", "application/json")
                 .when()
                 .put("/messages/" + jsonPath.getList("id").get(jsonPath.getList("id").size() - 1))
@@ -240,7 +250,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(200);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -248,7 +258,7 @@ public class ControllerUserMessageTest {
                 .assertThat()
                 .statusCode(201);
         jsonPath = given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -256,7 +266,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         list = jsonPath.getList("message");
         assertEquals(list.size(), size + 1);
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -264,28 +274,28 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         int id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + id)
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + (id - 1))
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + (id - 2))
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + (id - 3))
                 .then()
@@ -299,7 +309,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 500).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -309,7 +319,7 @@ public class ControllerUserMessageTest {
 
         jsonObject = new JSONObject().put("name", "Test").put("goal", 200).put("savePerMonth", 200);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/savingGoals")
@@ -321,7 +331,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 500).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -330,7 +340,7 @@ public class ControllerUserMessageTest {
                 .statusCode(201);
 
         JsonPath jsonPath = given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -340,7 +350,7 @@ public class ControllerUserMessageTest {
         assertEquals("Saving goal Test reached", list.get(list.size() - 1));
 
 
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -348,21 +358,21 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         int id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + id)
                 .then()
                 .assertThat()
                 .statusCode(204);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + (id - 1))
                 .then()
                 .assertThat()
                 .statusCode(204);
 
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/savingGoals")
                 .then()
@@ -370,7 +380,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/savingGoals/" + id)
                 .then()
@@ -384,7 +394,7 @@ public class ControllerUserMessageTest {
                 .put("due_date", LocalDateTime.now().minusMonths(1))
                 .put("amount", 50).put("number_of_requests", 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -395,7 +405,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 500).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -404,7 +414,7 @@ public class ControllerUserMessageTest {
                 .statusCode(201);
 
         JsonPath jsonPath = given()
-                .header("X-session-ID" ,3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -412,7 +422,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         List<Object> list = jsonPath.getList("message");
         assertEquals("One payment request has not been filled", list.get(list.size() - 1));
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -420,7 +430,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         int id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + id)
                 .then()
@@ -434,7 +444,7 @@ public class ControllerUserMessageTest {
                 .put("due_date", LocalDateTime.now().plusMonths(2).toString())
                 .put("amount", 50).put("number_of_requests", 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/paymentRequests")
@@ -445,7 +455,7 @@ public class ControllerUserMessageTest {
                 .put("amount", 50).put("externalIBAN", "testIBAN").put("type", "deposit")
                 .put("description", "description");
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .body(jsonObject.toString())
                 .when()
                 .post("/transactions")
@@ -454,7 +464,7 @@ public class ControllerUserMessageTest {
                 .statusCode(201);
 
         JsonPath jsonPath = given()
-                .header("X-session-ID" ,3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .get("/messages")
                 .then()
@@ -462,7 +472,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         List<Object> list = jsonPath.getList("message");
         assertEquals("One payment request has been filled", list.get(list.size() - 1));
-        jsonPath = given().header("X-session-ID", 3)
+        jsonPath = given().header("X-session-ID", emptySession)
                 .when()
                 .get("/transactions")
                 .then()
@@ -470,7 +480,7 @@ public class ControllerUserMessageTest {
                 .jsonPath();
         int id = (int) jsonPath.getList("id").get(jsonPath.getList("id").size() - 1);
         given()
-                .header("X-session-ID", 3)
+                .header("X-session-ID", emptySession)
                 .when()
                 .delete("/transactions/" + id)
                 .then()
@@ -0,0 +1,55 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.reference.ReferenceServer;
+import nl.utwente.ing.testsuite.filter.LatencyBudgetFilter;
+import nl.utwente.ing.testsuite.filter.LatencyHistogramFilter;
+import nl.utwente.ing.testsuite.transport.ConnectionPool;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+
+/**
+ * Points RestAssured at the server under test. By default that is the server on localhost:8080; with
+ * {@code -Ddpa.server=embedded} the reference server is started once per JVM on a free port instead.
+ * Functional tests also hold every request to its latency budget and record its response time in the
+ * histogram of its endpoint. All requests share one {@link ConnectionPool} of keep-alive connections.
+ */
+public final class TestEnvironment {
+
+    private static EmbeddedWebApplicationContext embedded;
+
+    private TestEnvironment() {
+    }
+
+    public static void setUp() {
+        startServer();
+        LatencyBudgetFilter.install();
+        LatencyHistogramFilter.install();
+    }
+
+    /**
+     * Only selects the server, for load runs that measure latency themselves.
+     */
+    public static synchronized void startServer() {
+        ConnectionPool.install();
+        if (!"embedded".equals(System.getProperty("dpa.server")) || embedded != null) {
+            return;
+        }
+        embedded = (EmbeddedWebApplicationContext) new SpringApplicationBuilder(ReferenceServer.class)
+                .properties("server.port=0", "spring.main.banner-mode=off")
+                .run();
+        RestAssured.port = embedded.getEmbeddedServletContainer().getPort();
+        // Test classes running in parallel wait for this, so they do not all pay for the first request
+        RestAssured.given().contentType("application/json").post("/sessions");
+    }
+
+    /**
+     * Stops the embedded server, if it was started. Tests do not need this, the server stops with the JVM.
+     */
+    public static synchronized void tearDown() {
+        if (embedded != null) {
+            embedded.close();
+            embedded = null;
+        }
+    }
+}
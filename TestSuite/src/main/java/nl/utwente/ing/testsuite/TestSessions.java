@@ -0,0 +1,163 @@
+package nl.utwente.ing.testsuite;
+
+import io.restassured.RestAssured;
+import io.restassured.specification.RequestSpecification;
+import nl.utwente.ing.testsuite.load.Payloads;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sessions of one test class. Every class provisions its own sessions through POST /sessions and seeds
+ * them through the API, so no class sees what another one changed and the classes can run in
+ * parallel. The API does not say how ids are numbered, so a seeded session hands out the ids the
+ * server gave its categories, rules, transactions and saving goals, in the order they were posted.
+ */
+public final class TestSessions {
+
+    /**
+     * The header every request names its session in, also sent by the load drivers.
+     */
+    public static final String SESSION_HEADER = "X-session-ID";
+
+    /**
+     * A session and the ids of what it was seeded with. {@code transaction(1)} is the id of the first
+     * transaction posted, and so on.
+     */
+    public static final class Seeded {
+
+        public final int session;
+        private final List<Integer> categories = new ArrayList<>();
+        private final List<Integer> rules = new ArrayList<>();
+        private final List<Integer> transactions = new ArrayList<>();
+        private final List<Integer> savingGoals = new ArrayList<>();
+
+        private Seeded(int session) {
+            this.session = session;
+        }
+
+        public int category(int number) {
+            return categories.get(number - 1);
+        }
+
+        public int rule(int number) {
+            return rules.get(number - 1);
+        }
+
+        public int transaction(int number) {
+            return transactions.get(number - 1);
+        }
+
+        public int savingGoal(int number) {
+            return savingGoals.get(number - 1);
+        }
+
+        private void category(String name) {
+            categories.add(post(session, "/categories", new JSONObject().put("name", name)));
+        }
+
+        private void rule(String description, String iban, String type, int category) {
+            rules.add(post(session, "/categoryRules", Payloads.categoryRule(description, iban, type, category(category))
+                    .put("applyOnHistory", true)));
+        }
+
+        private void transaction(LocalDateTime date, double amount, String iban, String type, String description) {
+            transactions.add(post(session, "/transactions", Payloads.transaction(date, amount, iban, type, description)));
+        }
+
+        private void savingGoal(String name, double goal, double savePerMonth, double minBalanceRequired) {
+            savingGoals.add(post(session, "/savingGoals",
+                    Payloads.savingGoal(name, goal, savePerMonth, minBalanceRequired)));
+        }
+    }
+
+    private TestSessions() {
+    }
+
+    /**
+     * A new, empty session.
+     */
+    public static int create() {
+        return RestAssured.given().
+                contentType("application/json").
+                when().
+                post("/sessions").
+                then().
+                assertThat().statusCode(201).
+                extract().
+                jsonPath().getInt("id");
+    }
+
+    /**
+     * A new session with four categories (Groceries, Rent, Salary, Leisure), a category rule for each
+     * of them, ten transactions dated at the start of this month and two saving goals.
+     */
+    public static Seeded withFixtures() {
+        Seeded seeded = new Seeded(create());
+        // Dated at the start of this month, so transactions the tests post now do not start a new month
+        LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        for (String name : new String[]{"Groceries", "Rent", "Salary", "Leisure"}) {
+            seeded.category(name);
+        }
+        seeded.rule("supermarket", "", "withdrawal", 1);
+        seeded.rule("", "NL39RABO0300065264", "withdrawal", 2);
+        seeded.rule("salary", "", "deposit", 3);
+        seeded.rule("cinema", "", "", 4);
+        seeded.transaction(date, 2500, "NL02ABNA0123456789", "deposit", "salary");
+        seeded.transaction(date.plusMinutes(1), 120.5, "NL89INGB0258025802", "deposit", "refund");
+        seeded.transaction(date.plusMinutes(2), 850, "NL39RABO0300065264", "withdrawal", "rent");
+        seeded.transaction(date.plusMinutes(3), 42.37, "NL91ABNA0417164300", "withdrawal", "supermarket");
+        seeded.transaction(date.plusMinutes(4), 12.5, "NL20INGB0001234567", "withdrawal", "cinema");
+        seeded.transaction(date.plusMinutes(5), 300, "NL44RABO0123456789", "deposit", "gift");
+        seeded.transaction(date.plusMinutes(6), 64.99, "NL91ABNA0417164300", "withdrawal", "supermarket");
+        seeded.transaction(date.plusMinutes(7), 25, "NL69INGB0123456789", "withdrawal", "phone");
+        seeded.transaction(date.plusMinutes(8), 75, "NL02ABNA0123456789", "deposit", "bonus");
+        seeded.transaction(date.plusMinutes(9), 18.2, "NL20INGB0001234567", "withdrawal", "cinema");
+        seeded.savingGoal("Holiday", 1000, 100, 0);
+        seeded.savingGoal("Bike", 600, 50, 500);
+        return seeded;
+    }
+
+    /**
+     * A new session with two categories (Groceries, Rent), a category rule for groceries and three
+     * transactions dated at the start of this month.
+     */
+    public static Seeded withSmallFixtures() {
+        Seeded seeded = new Seeded(create());
+        LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        seeded.category("Groceries");
+        seeded.category("Rent");
+        seeded.rule("supermarket", "", "withdrawal", 1);
+        seeded.transaction(date, 1800, "NL02ABNA0123456789", "deposit", "salary");
+        seeded.transaction(date.plusMinutes(1), 35.1, "NL91ABNA0417164300", "withdrawal", "supermarket");
+        seeded.transaction(date.plusMinutes(2), 700, "NL39RABO0300065264", "withdrawal", "rent");
+        return seeded;
+    }
+
+    /**
+     * A request in {@code session} with a JSON body, as the tests and the load mode send them. The
+     * session may also be one that does not exist or belongs to someone else.
+     */
+    public static RequestSpecification given(int session) {
+        return RestAssured.given().
+                header(SESSION_HEADER, session).
+                header("Content-Type", "application/JSON");
+    }
+
+    /**
+     * Posts one resource to the session, it must be created. Returns the id the server gave it.
+     */
+    public static int post(int session, String path, JSONObject body) {
+        return given(session).
+                body(body.toString()).
+                when().
+                post(path).
+                then().
+                assertThat().statusCode(201).
+                extract().
+                jsonPath().getInt("id");
+    }
+}
@@ -0,0 +1,52 @@
+package nl.utwente.ing.testsuite.filter;
+
+import io.restassured.specification.FilterableRequestSpecification;
+
+import java.net.URI;
+
+/**
+ * Names requests by method and templated path, e.g. "GET /transactions/{id}", the same labels the
+ * load mode reports under.
+ */
+public final class Endpoints {
+
+    private Endpoints() {
+    }
+
+    public static String of(FilterableRequestSpecification request) {
+        return of(request.getMethod(), URI.create(request.getURI()).getPath(), request.getBasePath());
+    }
+
+    /**
+     * @param path     the path of the request, with or without the base path and query
+     * @param basePath the base path to strip, e.g. "api/v1"
+     */
+    public static String of(String method, String path, String basePath) {
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        String base = "/" + trimSlashes(basePath);
+        if (base.length() > 1 && path.startsWith(base)) {
+            path = path.substring(base.length());
+        }
+        StringBuilder template = new StringBuilder(method.toUpperCase());
+        template.append(' ');
+        for (String segment : trimSlashes(path).split("/")) {
+            template.append('/').append(segment.matches("-?\\d+") ? "{id}" : segment);
+        }
+        return template.toString();
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(start, end);
+    }
+}
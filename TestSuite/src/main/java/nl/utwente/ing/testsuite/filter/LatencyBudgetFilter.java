@@ -0,0 +1,125 @@
+package nl.utwente.ing.testsuite.filter;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds every request the tests send to the budget of its endpoint. A request over budget fails the
+ * test that sent it, naming the endpoint and the excess; with {@code -Dbudget.enforce=false} it is
+ * only reported. At the end of the run the endpoints that went over budget, with their worst excess,
+ * are written to target/latency-budgets.txt.
+ *
+ * <p>The first {@code -Dbudget.warmup} requests (1 by default) of every endpoint are not held to a
+ * budget, they pay for connecting and for the server's lazy initialization. Per endpoint, because
+ * classes running in parallel each reach the endpoints they test first at about the same time.
+ */
+public class LatencyBudgetFilter implements Filter {
+
+    static final Path REPORT = Paths.get("target", "latency-budgets.txt");
+
+    private static LatencyBudgetFilter installed;
+
+    private final LatencyBudgets budgets;
+    private final boolean enforce;
+    private final int warmup;
+    private final Map<String, AtomicInteger> warmups = new ConcurrentHashMap<>();
+    private final Map<String, Overrun> overruns = new ConcurrentHashMap<>();
+
+    LatencyBudgetFilter(LatencyBudgets budgets, boolean enforce, int warmup) {
+        this.budgets = budgets;
+        this.enforce = enforce;
+        this.warmup = warmup;
+    }
+
+    /**
+     * Adds the filter to every RestAssured request of this JVM, once.
+     */
+    public static synchronized void install() {
+        if (installed != null) {
+            return;
+        }
+        installed = new LatencyBudgetFilter(LatencyBudgets.load(),
+                !"false".equals(System.getProperty("budget.enforce")), Integer.getInteger("budget.warmup", 1));
+        RestAssured.filters(installed);
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::writeReport));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        String endpoint = Endpoints.of(requestSpec);
+        if (warmups.computeIfAbsent(endpoint, e -> new AtomicInteger(warmup)).getAndDecrement() > 0) {
+            return response;
+        }
+        long budget = budgets.millis(endpoint);
+        if (millis > budget) {
+            overruns.computeIfAbsent(endpoint, e -> new Overrun(budget)).add(millis);
+            if (enforce) {
+                throw new AssertionError(String.format("%s took %d ms, %d ms over its budget of %d ms",
+                        endpoint, millis, millis - budget, budget));
+            }
+        }
+        return response;
+    }
+
+    /**
+     * The requests of one endpoint that went over budget.
+     */
+    static final class Overrun {
+        final long budget;
+        int count;
+        long worst;
+
+        Overrun(long budget) {
+            this.budget = budget;
+        }
+
+        synchronized void add(long millis) {
+            count++;
+            worst = Math.max(worst, millis);
+        }
+    }
+
+    Map<String, Overrun> overruns() {
+        return new TreeMap<>(overruns);
+    }
+
+    void writeReport() {
+        try {
+            Files.createDirectories(REPORT.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(REPORT))) {
+                if (overruns.isEmpty()) {
+                    out.println("All requests were within their latency budget");
+                    return;
+                }
+                out.printf("%-40s %9s %10s %9s %9s%n", "endpoint", "budget ms", "overruns", "worst ms", "over ms");
+                for (Map.Entry<String, Overrun> entry : overruns().entrySet()) {
+                    Overrun overrun = entry.getValue();
+                    out.printf("%-40s %9d %10d %9d %9d%n", entry.getKey(), overrun.budget, overrun.count,
+                            overrun.worst, overrun.worst - overrun.budget);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package nl.utwente.ing.testsuite.filter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency budget per endpoint in milliseconds. Each line of the file holds a method, a templated path
+ * and a budget, e.g. {@code GET /transactions/{id} 200}; {@code default 500} applies to every
+ * endpoint without its own line. Lines starting with # are comments.
+ */
+public final class LatencyBudgets {
+
+    static final String RESOURCE = "latency-budgets.txt";
+
+    private final Map<String, Long> budgets;
+    private final long defaultBudget;
+
+    LatencyBudgets(Map<String, Long> budgets, long defaultBudget) {
+        this.budgets = budgets;
+        this.defaultBudget = defaultBudget;
+    }
+
+    /**
+     * The file given with {@code -Dbudget.file}, or the one on the classpath.
+     */
+    public static LatencyBudgets load() {
+        String file = System.getProperty("budget.file");
+        try (InputStream in = file != null ? Files.newInputStream(Paths.get(file))
+                : LatencyBudgets.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(RESOURCE + " is not on the classpath");
+            }
+            return parse(file != null ? file : RESOURCE,
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the budgets from {@code reader}; {@code source} names the file in errors.
+     */
+    static LatencyBudgets parse(String source, BufferedReader reader) throws IOException {
+        Map<String, Long> budgets = new LinkedHashMap<>();
+        long defaultBudget = Long.MAX_VALUE;
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int split = line.lastIndexOf(' ');
+            if (split <= 0) {
+                throw new IllegalArgumentException(source + ":" + number + ": expected an endpoint and a budget in "
+                        + "milliseconds, got \"" + line + "\"");
+            }
+            String endpoint = line.substring(0, split).trim();
+            long millis;
+            try {
+                millis = Long.parseLong(line.substring(split + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(source + ":" + number + ": the budget is not a number of "
+                        + "milliseconds in \"" + line + "\"", e);
+            }
+            if (endpoint.equals("default")) {
+                defaultBudget = millis;
+            } else {
+                budgets.put(endpoint, millis);
+            }
+        }
+        return new LatencyBudgets(budgets, defaultBudget);
+    }
+
+    public long millis(String endpoint) {
+        return budgets.getOrDefault(endpoint, defaultBudget);
+    }
+
+    public Map<String, Long> budgets() {
+        return Collections.unmodifiableMap(budgets);
+    }
+}
@@ -0,0 +1,49 @@
+package nl.utwente.ing.testsuite.filter;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import nl.utwente.ing.testsuite.load.HistogramFiles;
+import nl.utwente.ing.testsuite.load.LatencyRecorder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Records the response time of every request the tests send in a histogram per endpoint. At the end
+ * of the run the histograms are written to target/latency-histograms, or {@code -Dhistogram.dir}, as
+ * {@link HistogramFiles}.
+ */
+public class LatencyHistogramFilter implements Filter {
+
+    static final Path DIRECTORY = Paths.get(System.getProperty("histogram.dir", "target/latency-histograms"));
+
+    private static LatencyHistogramFilter installed;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    /**
+     * Adds the filter to every RestAssured request of this JVM, once.
+     */
+    public static synchronized void install() {
+        if (installed != null) {
+            return;
+        }
+        installed = new LatencyHistogramFilter();
+        RestAssured.filters(installed);
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> HistogramFiles.write(installed.recorder.histograms(), DIRECTORY)));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        recorder.record(Endpoints.of(requestSpec), System.nanoTime() - start);
+        return response;
+    }
+}
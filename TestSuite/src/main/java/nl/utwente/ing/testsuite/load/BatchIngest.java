@@ -0,0 +1,121 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the throughput of POST /transactions:batch. A fresh session is filled with
+ * {@code -Dingest.rows} transactions sent as newline delimited JSON in batches of
+ * {@code -Dingest.batch} rows, and for comparison another fresh session gets {@code -Dingest.single}
+ * transactions posted one by one as {@link PaginationScan#seed} does.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=nl.utwente.ing.testsuite.load.BatchIngest \
+ *     -Dingest.rows=1000000 -Dingest.batch=10000 -Dingest.single=20000 -Dload.driver=http
+ * </pre>
+ */
+public class BatchIngest {
+
+    private final RequestDriver driver;
+
+    public BatchIngest(RequestDriver driver) {
+        this.driver = driver;
+    }
+
+    public static void main(String[] args) {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        try (RequestDriver driver = Drivers.fromSystemProperties()) {
+            BatchIngest ingest = new BatchIngest(driver);
+            PaginationScan scan = new PaginationScan(driver, 20, 1);
+            int rows = Integer.getInteger("ingest.rows", 1_000_000);
+            int single = Integer.getInteger("ingest.single", 20_000);
+            int concurrency = Integer.getInteger("ingest.concurrency", 4);
+
+            // A short unmeasured run so neither side pays for a cold server
+            ingest.ingest(scan.newSession(), 10_000, 1_000, concurrency);
+            scan.seed(scan.newSession(), 1_000, 64);
+
+            long start = System.nanoTime();
+            ingest.ingest(scan.newSession(), rows, Integer.getInteger("ingest.batch", 10_000), concurrency);
+            double batchSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            scan.seed(scan.newSession(), single, 64);
+            double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+            double batchRate = rows / batchSeconds;
+            double singleRate = single / singleSeconds;
+            System.out.printf("POST /transactions:batch %,d rows in %.1f s, %,.0f rows/s%n", rows, batchSeconds,
+                    batchRate);
+            System.out.printf("POST /transactions       %,d rows in %.1f s, %,.0f rows/s%n", single, singleSeconds,
+                    singleRate);
+            System.out.printf("Batch import is %.1fx faster%n", batchRate / singleRate);
+        } finally {
+            TestEnvironment.tearDown();
+        }
+    }
+
+    /**
+     * Imports {@code rows} generated transactions into the session with at most {@code concurrency}
+     * batches in flight and fails if any of them is not created.
+     */
+    public void ingest(int session, int rows, int batchSize, int concurrency) {
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        Iterator<JSONObject> transactions = IntStream.range(0, rows)
+                .mapToObj(i -> transaction(start, i))
+                .iterator();
+        long created = ingest(session, transactions, batchSize, concurrency);
+        if (created != rows) {
+            throw new IllegalStateException("Imported " + created + " of " + rows + " transactions");
+        }
+    }
+
+    /**
+     * Imports the transactions into the session in batches of {@code batchSize} with at most
+     * {@code concurrency} batches in flight, reading the next batch only when one is done. Returns the
+     * number created and fails if a batch fails as a whole.
+     */
+    public long ingest(int session, Iterator<JSONObject> transactions, int batchSize, int concurrency) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong created = new AtomicLong();
+        while (transactions.hasNext() && failure.get() == null) {
+            inFlight.acquireUninterruptibly();
+            StringBuilder body = new StringBuilder(batchSize * 160);
+            for (int i = 0; i < batchSize && transactions.hasNext(); i++) {
+                body.append(transactions.next()).append('\n');
+            }
+            driver.send(DriverRequest.post("POST /transactions:batch", "/transactions:batch", session,
+                    body.toString()).expect(200))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                        } else if (response.statusCode() != 200) {
+                            failure.compareAndSet(null, new IllegalStateException(
+                                    "Import returned " + response.statusCode() + ": " + response.body()));
+                        } else {
+                            created.addAndGet(new JSONObject(response.body()).getLong("created"));
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquireUninterruptibly(concurrency);
+        if (failure.get() != null) {
+            throw new IllegalStateException("Could not import into session " + session, failure.get());
+        }
+        return created.get();
+    }
+
+    private static JSONObject transaction(LocalDateTime start, int i) {
+        return Payloads.transaction(start.plusSeconds(i), 1 + i % 1000, "NL39RABO0300065264",
+                i % 3 == 0 ? "withdrawal" : "deposit", "batch ingest " + i);
+    }
+}
@@ -0,0 +1,406 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Realistic data for large sessions, the same for the same seed. A session has a few hundred
+ * counterparties with valid Dutch IBANs: shops, restaurants, transport, utilities and friends, a few
+ * of them far more popular than the rest, and an employer and a landlord paid monthly. Card payments
+ * arrive at random with amounts spread log-normally around what a counterparty usually costs.
+ *
+ * <p>Transactions are generated one at a time, so millions of them stream into a file or the API
+ * without being held in memory. Categories, rules, goals and payment requests each draw from their
+ * own random sequence, so generating one kind never changes the others.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=nl.utwente.ing.testsuite.load.DataGenerator \
+ *     -Dgen.seed=42 -Dgen.transactions=1000000 -Dgen.out=target/data
+ * </pre>
+ *
+ * Without {@code -Dgen.out} the data goes into a new session through the API, the transactions in
+ * batches of {@code -Dgen.batch} through POST /transactions:batch.
+ */
+public final class DataGenerator {
+
+    /**
+     * The categories, in the order they are posted; a fresh session gives them ids 1 and up.
+     */
+    public static final String[] CATEGORIES = {"groceries", "dining", "transport", "utilities", "entertainment",
+            "rent", "salary", "transfers"};
+
+    private static final String[] BANKS = {"INGB", "RABO", "ABNA", "SNSB", "TRIO", "ASNB", "KNAB", "BUNQ"};
+    private static final String[] CITIES = {"ENSCHEDE", "AMSTERDAM", "UTRECHT", "HENGELO", "ZWOLLE", "DEVENTER"};
+
+    /**
+     * What a counterparty is, which decides its category, its direction and what it costs.
+     */
+    private enum Kind {
+        SHOP(0, "withdrawal", 32, 0.7, "Albert Heijn", "Jumbo", "Lidl", "Aldi", "Plus", "Spar"),
+        RESTAURANT(1, "withdrawal", 24, 0.6, "Cafe De Pijp", "Happy Italy", "Wagamama", "Subway", "De Beiaard"),
+        TRANSPORT(2, "withdrawal", 8, 0.8, "NS Reizigers", "Arriva", "Keolis", "Shell", "Swapfiets"),
+        UTILITY(3, "withdrawal", 85, 0.3, "Vattenfall", "Eneco", "Ziggo", "KPN", "Vitens"),
+        ENTERTAINMENT(4, "withdrawal", 15, 0.9, "Netflix", "Spotify", "Pathe", "Bol.com", "Steam"),
+        FRIEND(7, null, 20, 0.8, "Tikkie"),
+        LANDLORD(5, "withdrawal", 950, 0, "Huur"),
+        EMPLOYER(6, "deposit", 2800, 0, "Salaris");
+
+        final int category;
+        final String type;
+        final double median;
+        final double sigma;
+        final String[] names;
+
+        Kind(int category, String type, double median, double sigma, String... names) {
+            this.category = category;
+            this.type = type;
+            this.median = median;
+            this.sigma = sigma;
+            this.names = names;
+        }
+    }
+
+    private static final class Counterparty {
+        final Kind kind;
+        final String name;
+        final String iban;
+        final double median;
+
+        Counterparty(Kind kind, String name, String iban, double median) {
+            this.kind = kind;
+            this.name = name;
+            this.iban = iban;
+            this.median = median;
+        }
+    }
+
+    private final long seed;
+    // By popularity, the first is paid most often
+    private final List<Counterparty> counterparties = new ArrayList<>();
+    private final Zipf popularity;
+    private final Counterparty employer;
+    private final Counterparty landlord;
+    private final SplittableRandom goalRandom;
+    private final SplittableRandom requestRandom;
+
+    public DataGenerator(long seed) {
+        this(seed, 300);
+    }
+
+    /**
+     * @param counterparties the number of shops, restaurants and others paid at random
+     */
+    public DataGenerator(long seed, int counterparties) {
+        this.seed = seed;
+        SplittableRandom random = random(seed, 0);
+        Kind[] paidAtRandom = {Kind.SHOP, Kind.SHOP, Kind.SHOP, Kind.RESTAURANT, Kind.RESTAURANT, Kind.TRANSPORT,
+                Kind.TRANSPORT, Kind.ENTERTAINMENT, Kind.UTILITY, Kind.FRIEND};
+        for (int i = 0; i < counterparties; i++) {
+            Kind kind = paidAtRandom[random.nextInt(paidAtRandom.length)];
+            this.counterparties.add(counterparty(random, kind));
+        }
+        popularity = new Zipf(counterparties, 1.0);
+        employer = counterparty(random, Kind.EMPLOYER);
+        landlord = counterparty(random, Kind.LANDLORD);
+        goalRandom = random(seed, 1);
+        requestRandom = random(seed, 2);
+    }
+
+    private static Counterparty counterparty(SplittableRandom random, Kind kind) {
+        String name = kind.names[random.nextInt(kind.names.length)];
+        if (kind == Kind.FRIEND) {
+            name += " " + (char) ('A' + random.nextInt(26)) + ". " + (1000 + random.nextInt(9000));
+        } else if (kind != Kind.EMPLOYER && kind != Kind.LANDLORD) {
+            name += " " + (1000 + random.nextInt(9000)) + " " + CITIES[random.nextInt(CITIES.length)];
+        }
+        String iban = iban(BANKS[random.nextInt(BANKS.length)], random.nextLong(10_000_000_000L));
+        // Shops of a chain cost about the same, within a factor of two
+        double median = kind.median * Math.exp(0.35 * gaussian(random));
+        return new Counterparty(kind, name, iban, median);
+    }
+
+    /**
+     * One category per name of {@link #CATEGORIES}, in that order.
+     */
+    public List<JSONObject> categories() {
+        List<JSONObject> categories = new ArrayList<>();
+        for (String name : CATEGORIES) {
+            categories.add(new JSONObject().put("name", name));
+        }
+        return categories;
+    }
+
+    /**
+     * Rules that categorize the payments to every chain by its name, and the salary and the rent by
+     * IBAN. {@code categoryIds} holds the ids the categories got, in the order of {@link #CATEGORIES}.
+     */
+    public List<JSONObject> categoryRules(int[] categoryIds) {
+        List<JSONObject> rules = new ArrayList<>();
+        for (Kind kind : new Kind[]{Kind.SHOP, Kind.RESTAURANT, Kind.TRANSPORT, Kind.UTILITY, Kind.ENTERTAINMENT}) {
+            for (String name : kind.names) {
+                rules.add(Payloads.categoryRule(name, "", kind.type, categoryIds[kind.category]));
+            }
+        }
+        rules.add(Payloads.categoryRule("", employer.iban, "deposit", categoryIds[Kind.EMPLOYER.category]));
+        rules.add(Payloads.categoryRule("", landlord.iban, "withdrawal", categoryIds[Kind.LANDLORD.category]));
+        for (JSONObject rule : rules) {
+            rule.put("applyOnHistory", false);
+        }
+        return rules;
+    }
+
+    /**
+     * The next saving goal, from a holiday to a house.
+     */
+    public JSONObject savingGoal() {
+        String[] names = {"holiday", "bike", "laptop", "emergency fund", "car", "house"};
+        int size = goalRandom.nextInt(names.length);
+        double goal = Math.round(200 * Math.pow(3, size) * (0.5 + goalRandom.nextDouble()));
+        double savePerMonth = Math.max(10, Math.round(goal / (6 + goalRandom.nextInt(30))));
+        double minBalanceRequired = 100 * goalRandom.nextInt(20);
+        return Payloads.savingGoal(names[size], goal, savePerMonth, minBalanceRequired);
+    }
+
+    /**
+     * The next payment request, due within two months of {@code now}: a shared bill split over up to
+     * five people.
+     */
+    public JSONObject paymentRequest(LocalDateTime now) {
+        String[] descriptions = {"shared dinner", "concert tickets", "weekend away", "birthday present", "groceries"};
+        LocalDateTime due = now.plusHours(1 + requestRandom.nextInt(60 * 24)).truncatedTo(ChronoUnit.MINUTES);
+        double amount = cents(5 + 60 * requestRandom.nextDouble() * requestRandom.nextDouble());
+        return Payloads.paymentRequest(descriptions[requestRandom.nextInt(descriptions.length)], due, amount,
+                1 + requestRandom.nextInt(5));
+    }
+
+    /**
+     * {@code count} transactions from {@code start} on, in date order, about {@code perDay} card
+     * payments a day plus the salary on the 25th and the rent on the 1st of every month. Generated as
+     * they are read.
+     */
+    public Iterator<JSONObject> transactions(LocalDateTime start, long count, double perDay) {
+        SplittableRandom random = random(seed, 3);
+        double meanGapSeconds = 24 * 60 * 60 / perDay;
+        return new Iterator<JSONObject>() {
+            private long generated;
+            private LocalDateTime next = start.plusSeconds(gap(random, meanGapSeconds));
+            private LocalDateTime salary = monthly(start, 25, 9);
+            private LocalDateTime rent = monthly(start, 1, 6);
+
+            @Override
+            public boolean hasNext() {
+                return generated < count;
+            }
+
+            @Override
+            public JSONObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                generated++;
+                if (!salary.isAfter(next) && !salary.isAfter(rent)) {
+                    LocalDateTime date = salary;
+                    salary = monthly(salary.plusDays(1), 25, 9);
+                    return transaction(random, employer, date);
+                }
+                if (!rent.isAfter(next)) {
+                    LocalDateTime date = rent;
+                    rent = monthly(rent.plusDays(1), 1, 6);
+                    return transaction(random, landlord, date);
+                }
+                LocalDateTime date = next;
+                next = next.plusSeconds(gap(random, meanGapSeconds));
+                return transaction(random, counterparties.get(popularity.rank(random.nextDouble())), date);
+            }
+        };
+    }
+
+    private static JSONObject transaction(SplittableRandom random, Counterparty counterparty, LocalDateTime date) {
+        Kind kind = counterparty.kind;
+        double amount = cents(counterparty.median * Math.exp(kind.sigma * gaussian(random)));
+        String type = kind.type != null ? kind.type : random.nextBoolean() ? "deposit" : "withdrawal";
+        String description = kind == Kind.FRIEND
+                ? counterparty.name + " " + (random.nextBoolean() ? "dinner" : "drinks")
+                : kind == Kind.EMPLOYER || kind == Kind.LANDLORD
+                ? counterparty.name + " " + date.getMonth().toString().toLowerCase() + " " + date.getYear()
+                : counterparty.name;
+        return Payloads.transaction(date, amount, counterparty.iban, type, description);
+    }
+
+    /**
+     * Writes the transactions as newline delimited JSON, the body POST /transactions:batch takes, and
+     * returns how many were written.
+     */
+    public static long writeNdjson(Iterator<JSONObject> transactions, Writer out) throws IOException {
+        long written = 0;
+        while (transactions.hasNext()) {
+            out.write(transactions.next().toString());
+            out.write('\n');
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * A Dutch IBAN for the bank code and account number, with its check digits.
+     */
+    public static String iban(String bank, long account) {
+        String bban = bank + String.format("%010d", account);
+        int check = 98 - mod97(bban + "NL00");
+        return String.format("NL%02d%s", check, bban);
+    }
+
+    /**
+     * Whether the IBAN has valid check digits.
+     */
+    public static boolean isValidIban(String iban) {
+        return iban.length() > 4 && mod97(iban.substring(4) + iban.substring(0, 4)) == 1;
+    }
+
+    private static int mod97(String rearranged) {
+        StringBuilder digits = new StringBuilder();
+        for (char c : rearranged.toCharArray()) {
+            digits.append(Character.isDigit(c) ? String.valueOf(c) : String.valueOf(c - 'A' + 10));
+        }
+        return new BigInteger(digits.toString()).mod(BigInteger.valueOf(97)).intValue();
+    }
+
+    /**
+     * The first {@code day} of a month at {@code hour}, on or after {@code from}.
+     */
+    private static LocalDateTime monthly(LocalDateTime from, int day, int hour) {
+        LocalDateTime date = from.withDayOfMonth(day).truncatedTo(ChronoUnit.DAYS).withHour(hour);
+        return date.isBefore(from) ? date.plusMonths(1) : date;
+    }
+
+    private static long gap(SplittableRandom random, double meanSeconds) {
+        return 1 + (long) (-Math.log(1 - random.nextDouble()) * meanSeconds);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, SplittableRandom has no nextGaussian on Java 11
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double cents(double amount) {
+        return Math.max(1, Math.round(amount * 100)) / 100.0;
+    }
+
+    private static SplittableRandom random(long seed, int stream) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream);
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seed = Long.getLong("gen.seed", 42);
+        long count = Long.getLong("gen.transactions", 1_000_000);
+        int goals = Integer.getInteger("gen.goals", 3);
+        int requests = Integer.getInteger("gen.requests", 5);
+        LocalDateTime start = LocalDateTime.now().minusYears(3).truncatedTo(ChronoUnit.DAYS);
+        // Spread over three years, with at least a few card payments a day
+        double perDay = Double.parseDouble(System.getProperty("gen.perDay",
+                String.valueOf(Math.max(3, count / (3 * 365.0)))));
+        DataGenerator generator = new DataGenerator(seed);
+        String out = System.getProperty("gen.out");
+        long begin = System.nanoTime();
+        if (out != null) {
+            generator.writeFiles(Paths.get(out), start, count, perDay, goals, requests);
+            System.out.printf("Wrote %,d transactions to %s in %.1f s%n", count, out, (System.nanoTime() - begin) / 1e9);
+            return;
+        }
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        try (RequestDriver driver = Drivers.fromSystemProperties()) {
+            int session = generator.post(driver, start, count, perDay, goals, requests,
+                    Integer.getInteger("gen.batch", 10_000));
+            System.out.printf("Posted %,d transactions into session %d in %.1f s%n", count, session,
+                    (System.nanoTime() - begin) / 1e9);
+        } finally {
+            TestEnvironment.tearDown();
+        }
+    }
+
+    /**
+     * Writes categories.json, categoryRules.json, savingGoals.json and paymentRequests.json as arrays,
+     * and transactions.ndjson one transaction per line. The rules refer to the categories by the ids a
+     * fresh session gives them.
+     */
+    public void writeFiles(Path directory, LocalDateTime start, long count, double perDay, int goals, int requests)
+            throws IOException {
+        Files.createDirectories(directory);
+        int[] categoryIds = new int[CATEGORIES.length];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = i + 1;
+        }
+        JSONArray savingGoals = new JSONArray();
+        for (int i = 0; i < goals; i++) {
+            savingGoals.put(savingGoal());
+        }
+        JSONArray paymentRequests = new JSONArray();
+        for (int i = 0; i < requests; i++) {
+            paymentRequests.put(paymentRequest(start));
+        }
+        Files.write(directory.resolve("categories.json"), new JSONArray(categories()).toString(2).getBytes());
+        Files.write(directory.resolve("categoryRules.json"),
+                new JSONArray(categoryRules(categoryIds)).toString(2).getBytes());
+        Files.write(directory.resolve("savingGoals.json"), savingGoals.toString(2).getBytes());
+        Files.write(directory.resolve("paymentRequests.json"), paymentRequests.toString(2).getBytes());
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("transactions.ndjson"))) {
+            writeNdjson(transactions(start, count, perDay), writer);
+        }
+    }
+
+    /**
+     * Posts everything into a new session and returns its id.
+     */
+    public int post(RequestDriver driver, LocalDateTime start, long count, double perDay, int goals, int requests,
+                    int batchSize) {
+        int session = send(driver, DriverRequest.post("POST /sessions", "/sessions", 0, null)).jsonPath().getInt("id");
+        int[] categoryIds = new int[CATEGORIES.length];
+        List<JSONObject> categories = categories();
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = send(driver, DriverRequest.post("POST /categories", "/categories", session,
+                    categories.get(i).toString())).jsonPath().getInt("id");
+        }
+        for (JSONObject rule : categoryRules(categoryIds)) {
+            send(driver, DriverRequest.post("POST /categoryRules", "/categoryRules", session, rule.toString()));
+        }
+        for (int i = 0; i < goals; i++) {
+            send(driver, DriverRequest.post("POST /savingGoals", "/savingGoals", session, savingGoal().toString()));
+        }
+        for (int i = 0; i < requests; i++) {
+            send(driver, DriverRequest.post("POST /paymentRequests", "/paymentRequests", session,
+                    paymentRequest(start).toString()));
+        }
+        long created = new BatchIngest(driver).ingest(session, transactions(start, count, perDay), batchSize, 4);
+        if (created != count) {
+            throw new IllegalStateException("Imported " + created + " of " + count + " transactions");
+        }
+        return session;
+    }
+
+    private static DriverResponse send(RequestDriver driver, DriverRequest request) {
+        DriverResponse response = driver.send(request).join();
+        if (response.statusCode() != request.expectedStatus()) {
+            throw new IllegalStateException(request.method() + " " + request.path() + " returned "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+}
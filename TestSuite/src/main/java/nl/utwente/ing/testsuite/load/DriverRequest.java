@@ -0,0 +1,90 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One call against the API, independent of the driver that ends up sending it.
+ */
+public final class DriverRequest {
+
+    private final String endpoint;
+    private final String method;
+    private final String path;
+    private final int sessionId;
+    private final Map<String, Object> params;
+    private final String body;
+    private final int expectedStatus;
+
+    private DriverRequest(String endpoint, String method, String path, int sessionId,
+                          Map<String, Object> params, String body, int expectedStatus) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.path = path;
+        this.sessionId = sessionId;
+        this.params = params;
+        this.body = body;
+        this.expectedStatus = expectedStatus;
+    }
+
+    public static DriverRequest get(String endpoint, String path, int sessionId) {
+        return new DriverRequest(endpoint, "GET", path, sessionId, Collections.emptyMap(), null, 200);
+    }
+
+    public static DriverRequest post(String endpoint, String path, int sessionId, String body) {
+        return new DriverRequest(endpoint, "POST", path, sessionId, Collections.emptyMap(), body, 201);
+    }
+
+    public static DriverRequest put(String endpoint, String path, int sessionId, String body) {
+        return new DriverRequest(endpoint, "PUT", path, sessionId, Collections.emptyMap(), body, 200);
+    }
+
+    public static DriverRequest delete(String endpoint, String path, int sessionId) {
+        return new DriverRequest(endpoint, "DELETE", path, sessionId, Collections.emptyMap(), null, 204);
+    }
+
+    public DriverRequest param(String name, Object value) {
+        Map<String, Object> copy = new LinkedHashMap<>(params);
+        copy.put(name, value);
+        return new DriverRequest(endpoint, method, path, sessionId, copy, body, expectedStatus);
+    }
+
+    public DriverRequest expect(int status) {
+        return new DriverRequest(endpoint, method, path, sessionId, params, body, status);
+    }
+
+    /**
+     * The templated endpoint latencies are reported under, e.g. "GET /transactions/{id}".
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * The session sent as X-session-ID, or 0 for calls without a session such as POST /sessions.
+     */
+    public int sessionId() {
+        return sessionId;
+    }
+
+    public Map<String, Object> params() {
+        return params;
+    }
+
+    public String body() {
+        return body;
+    }
+
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+}
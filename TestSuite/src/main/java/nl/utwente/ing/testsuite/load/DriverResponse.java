@@ -0,0 +1,43 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.path.json.JsonPath;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+public final class DriverResponse {
+
+    private final int statusCode;
+    private final String body;
+    private final Map<String, String> headers;
+
+    public DriverResponse(int statusCode, String body) {
+        this(statusCode, body, Collections.emptyMap());
+    }
+
+    /**
+     * @param headers the first value of every response header, keyed by lower case name
+     */
+    public DriverResponse(int statusCode, String body, Map<String, String> headers) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.headers = headers;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public String body() {
+        return body;
+    }
+
+    public String header(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public JsonPath jsonPath() {
+        return JsonPath.from(body);
+    }
+}
@@ -0,0 +1,25 @@
+package nl.utwente.ing.testsuite.load;
+
+/**
+ * Picks the request driver for a run with {@code -Dload.driver=restassured|http}.
+ */
+public final class Drivers {
+
+    private Drivers() {
+    }
+
+    public static RequestDriver fromSystemProperties() {
+        return create(System.getProperty("load.driver", "restassured"), Integer.getInteger("load.threads", 500));
+    }
+
+    public static RequestDriver create(String name, int threads) {
+        switch (name) {
+            case "restassured":
+                return new RestAssuredDriver(threads);
+            case "http":
+                return new HttpClientDriver();
+            default:
+                throw new IllegalArgumentException("Unknown load.driver " + name + ", use restassured or http");
+        }
+    }
+}
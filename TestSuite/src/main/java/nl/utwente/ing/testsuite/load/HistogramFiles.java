@@ -0,0 +1,117 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Latency histograms per endpoint on disk: latency.json with the percentiles and the compressed
+ * histogram of every endpoint, and a percentile distribution per endpoint in the .hgrm format of
+ * HdrHistogram, in milliseconds. Both are written in endpoint order, so the files of two builds can be
+ * diffed, and latency.json can be read back to compare runs.
+ */
+public final class HistogramFiles {
+
+    public static final String JSON = "latency.json";
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_FIELDS = {"p50Ms", "p90Ms", "p99Ms", "p999Ms"};
+
+    private HistogramFiles() {
+    }
+
+    public static void write(Map<String, Histogram> histograms, Path directory) {
+        Map<String, Histogram> sorted = new TreeMap<>(histograms);
+        try {
+            Files.createDirectories(directory);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(directory.resolve(JSON)))) {
+                out.println("{");
+                for (Iterator<Map.Entry<String, Histogram>> it = sorted.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Histogram> entry = it.next();
+                    out.print("  " + JSONObject.quote(entry.getKey()) + ": " + toJson(entry.getValue()));
+                    out.println(it.hasNext() ? "," : "");
+                }
+                out.println("}");
+            }
+            for (Map.Entry<String, Histogram> entry : sorted.entrySet()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        directory.resolve(fileName(entry.getKey()))), false, "UTF-8")) {
+                    entry.getValue().outputPercentileDistribution(out, 1e6);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The histograms of a latency.json, by endpoint.
+     */
+    public static Map<String, Histogram> read(Path json) {
+        try {
+            JSONObject endpoints = new JSONObject(new String(Files.readAllBytes(json), StandardCharsets.UTF_8));
+            Map<String, Histogram> histograms = new TreeMap<>();
+            for (String endpoint : endpoints.keySet()) {
+                histograms.put(endpoint, decode(endpoints.getJSONObject(endpoint).getString("histogram")));
+            }
+            return histograms;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The fields in a fixed order, unlike {@link JSONObject#toString()}.
+     */
+    private static String toJson(Histogram histogram) {
+        StringBuilder json = new StringBuilder("{\"count\": ").append(histogram.getTotalCount());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.append(", \"").append(PERCENTILE_FIELDS[i]).append("\": ")
+                    .append(millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        json.append(", \"maxMs\": ").append(millis(histogram.getMaxValue()));
+        return json.append(", \"histogram\": \"").append(encode(histogram)).append("\"}").toString();
+    }
+
+    /**
+     * The histogram in nanoseconds, compressed and base64 encoded.
+     */
+    static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Histogram decode(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Not a compressed histogram", e);
+        }
+    }
+
+    /**
+     * "GET /transactions/{id}" is written to GET_transactions_id.hgrm.
+     */
+    static String fileName(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_+$", "") + ".hgrm";
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
@@ -0,0 +1,100 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestSessions;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking driver on the JDK HTTP client. A request in flight holds no thread, so a single JVM
+ * can keep tens of thousands of sessions busy. The target is taken from the RestAssured settings so
+ * both drivers hit the same server.
+ *
+ * <p>The JDK client keeps its own pool of connections, which keeps idle connections for
+ * {@code -Dpool.keepAlive} seconds as the RestAssured pool does. It has no limit per route and does
+ * not pipeline either; {@code -Dpool.http2=true} sends the requests multiplexed over HTTP/2 instead,
+ * where the server speaks it.
+ */
+public class HttpClientDriver implements RequestDriver {
+
+    private final HttpClient client;
+    private final String baseUri;
+
+    public HttpClientDriver() {
+        // Read once, when the first client is built
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(Long.getLong("pool.keepAlive", 30)));
+        }
+        this.client = HttpClient.newBuilder()
+                .version(Boolean.getBoolean("pool.http2") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        int port = RestAssured.port == RestAssured.UNDEFINED_PORT ? RestAssured.DEFAULT_PORT : RestAssured.port;
+        this.baseUri = RestAssured.baseURI + ":" + port + "/" + trimSlashes(RestAssured.basePath);
+    }
+
+    @Override
+    public CompletableFuture<DriverResponse> send(DriverRequest request) {
+        HttpRequest.BodyPublisher body = request.body() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(request.body());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(request))
+                .header("Content-Type", "application/json")
+                .method(request.method(), body);
+        if (request.sessionId() > 0) {
+            builder.header(TestSessions.SESSION_HEADER, String.valueOf(request.sessionId()));
+        }
+        return client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> new DriverResponse(response.statusCode(), response.body(), headers(response)));
+    }
+
+    private static Map<String, String> headers(HttpResponse<?> response) {
+        Map<String, String> headers = new HashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name.toLowerCase(Locale.ROOT), values.get(0));
+            }
+        });
+        return headers;
+    }
+
+    private URI uri(DriverRequest request) {
+        StringBuilder uri = new StringBuilder(baseUri).append('/').append(trimSlashes(request.path()));
+        char separator = '?';
+        for (Map.Entry<String, Object> param : request.params().entrySet()) {
+            uri.append(separator)
+                    .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(String.valueOf(param.getValue()), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return URI.create(uri.toString());
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(start, end);
+    }
+
+    @Override
+    public void close() {
+        // The JDK client has no close before Java 21, its threads are daemons
+    }
+}
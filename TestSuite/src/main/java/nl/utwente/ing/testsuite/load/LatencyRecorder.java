@@ -0,0 +1,77 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects response times per endpoint from any number of worker threads.
+ */
+public class LatencyRecorder {
+
+    // One hour is more than any request is allowed to take, three digits keeps the error below 0.1%
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos) {
+        histogram(endpoint).recordValue(Math.min(Math.max(nanos, 1), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public void recordError(String endpoint) {
+        errors.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    public Histogram histogram(String endpoint) {
+        return histograms.computeIfAbsent(endpoint,
+                e -> new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+    }
+
+    public Map<String, Histogram> histograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    public Set<String> endpoints() {
+        Set<String> endpoints = new TreeSet<>(histograms.keySet());
+        endpoints.addAll(errors.keySet());
+        return endpoints;
+    }
+
+    public long errorCount(String endpoint) {
+        LongAdder adder = errors.get(endpoint);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public void report(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%-32s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        for (String endpoint : endpoints()) {
+            Histogram histogram = histogram(endpoint);
+            out.printf("%-32s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint,
+                    histogram.getTotalCount(),
+                    errorCount(endpoint),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
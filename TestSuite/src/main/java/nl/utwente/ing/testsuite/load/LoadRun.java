@@ -0,0 +1,97 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Closed-loop run: every virtual user starts its next iteration as soon as the previous one is done.
+ */
+public class LoadRun {
+
+    private final RequestDriver driver;
+    private final int users;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long seed;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private volatile boolean recording;
+
+    /**
+     * @param seed seeds the random stream of every user, user {@code i} gets the same stream every run
+     */
+    public LoadRun(RequestDriver driver, int users, long warmupSeconds, long durationSeconds, long seed) {
+        this.driver = driver;
+        this.users = users;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.seed = seed;
+    }
+
+    public LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    boolean recording() {
+        return recording;
+    }
+
+    /**
+     * Runs {@code setup} once per user, then {@code iteration} in a loop until the run is over.
+     * Returns the length of the measured part in nanoseconds. If the setup of any user fails, such as
+     * creating or seeding its session, the other users stop and the run throws at once, rather than
+     * measuring sessions that were only half set up.
+     */
+    public long run(Scenario setup, Scenario iteration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        CompletableFuture<?>[] done = new CompletableFuture<?>[users];
+        // Only ever completed exceptionally, by the first setup that fails
+        CompletableFuture<Void> aborted = new CompletableFuture<>();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(driver, this, seeds.split());
+            CompletableFuture<Void> finished = new CompletableFuture<>();
+            setup.run(user).whenComplete((result, failure) -> {
+                if (failure != null) {
+                    aborted.completeExceptionally(failure);
+                    finished.completeExceptionally(failure);
+                } else {
+                    loop(user, iteration, end, aborted, finished);
+                }
+            });
+            done[i] = finished;
+        }
+        try {
+            try {
+                aborted.get(Math.max(0, measureStart - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Warmed up
+            }
+            recording = true;
+            CompletableFuture.anyOf(CompletableFuture.allOf(done), aborted).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A virtual user could not be set up, the run is aborted", e.getCause());
+        } finally {
+            recording = false;
+        }
+        return System.nanoTime() - measureStart;
+    }
+
+    private void loop(VirtualUser user, Scenario iteration, long end, CompletableFuture<Void> aborted,
+                      CompletableFuture<Void> finished) {
+        if (System.nanoTime() >= end || aborted.isDone()) {
+            finished.complete(null);
+            return;
+        }
+        // Failed iterations are already counted as errors, the user simply starts over. Continuing on
+        // the common pool keeps iterations that complete synchronously from growing the stack.
+        iteration.run(user).whenCompleteAsync((result, failure) -> loop(user, iteration, end, aborted, finished),
+                ForkJoinPool.commonPool());
+    }
+}
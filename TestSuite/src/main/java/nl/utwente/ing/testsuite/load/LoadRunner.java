@@ -0,0 +1,186 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+import nl.utwente.ing.testsuite.transport.ConnectionPool;
+
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Load mode for the API. Runs the scenarios of the Controller*Test classes from many concurrent
+ * virtual users and prints throughput and p50/p95/p99/p999 latency per endpoint.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=nl.utwente.ing.testsuite.load.LoadRunner \
+ *     -Dload.users=500 -Dload.duration=60 -Dload.warmup=10 -Dload.session=1 \
+ *     -Dload.scenarios=transactions,categories,reads -Dload.driver=http
+ * </pre>
+ *
+ * With {@code -Dload.session=new} every virtual user creates its own session through POST /sessions.
+ * With {@code -Dload.session=tenants} the run first seeds {@code -Dload.tenants} sessions (1000 by
+ * default) with {@code -Dload.tenantTransactions} transactions each, and every iteration goes to a
+ * tenant drawn with Zipf's law of exponent {@code -Dload.zipf} (1.0 by default, 0 spreads evenly).
+ * {@code -Dload.seed} fixes the data of the tenants.
+ *
+ * <p>With {@code -Dload.rate=2000} the run is open-loop instead: requests of the mix {@code -Dload.mix}
+ * arrive at 2,000 per second whether or not earlier ones were answered, and their latency counts from
+ * the moment they were due, see {@link OpenLoopRun}. {@code -Dload.seed} (42) fixes the sequence of
+ * requests. Every arrival goes to the session of
+ * {@code -Dload.session}, to one session created for the run with {@code new}, or to a tenant drawn per
+ * arrival with {@code tenants}. {@code -Dload.maxInFlight} (10,000) bounds the requests in flight, the
+ * run fails when an arrival finds that many.
+ *
+ * <p>{@code -Dload.workload} runs a {@link Workload} instead, from a YAML file or by the name of one in
+ * {@code src/main/resources/workloads}, such as {@code dashboard}, {@code statement-import} or
+ * {@code month-end}. The workload sets the mix, the rate or users and the length of the run; the
+ * sessions are those of {@code -Dload.session}.
+ *
+ * <p>With {@code -Dload.histograms=<dir>} the histograms of the run are also written to that directory,
+ * for the {@link nl.utwente.ing.testsuite.regression.RegressionGate}.
+ *
+ * <p>The {@code restassured} driver sends on the shared
+ * {@link nl.utwente.ing.testsuite.transport.ConnectionPool}, tuned with {@code -Dpool.maxPerRoute},
+ * {@code -Dpool.maxTotal} and {@code -Dpool.keepAlive}, and the run ends with how many connections it took.
+ */
+public class LoadRunner {
+
+    public static void main(String[] args) throws InterruptedException {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        String session = System.getProperty("load.session", "1");
+
+        try (RequestDriver driver = Drivers.fromSystemProperties()) {
+            long warmup = Long.getLong("load.warmup", 10);
+            long duration = Long.getLong("load.duration", 60);
+            LatencyRecorder recorder;
+            long elapsed;
+            String workloadName = System.getProperty("load.workload");
+            Workload workload = workloadName == null ? null : Workload.load(workloadName);
+            if (workload != null && workload.openLoop()) {
+                OpenLoopRun run = workload.openLoopRun(driver, Integer.getInteger("load.maxInFlight", 10_000));
+                elapsed = runOpenLoop(run, openLoopSessions(driver, session, prepare(driver, workload)),
+                        workload.mix(), workload.seed());
+                recorder = run.recorder();
+            } else if (workload != null) {
+                LoadRun run = workload.closedLoopRun(driver);
+                elapsed = runClosedLoop(run, driver, session, workload.iteration(), workload::setup,
+                        prepare(driver, workload));
+                recorder = run.recorder();
+            } else if (System.getProperty("load.rate") != null) {
+                OpenLoopRun run = new OpenLoopRun(driver, Double.parseDouble(System.getProperty("load.rate")),
+                        warmup, duration, Integer.getInteger("load.maxInFlight", 10_000));
+                elapsed = runOpenLoop(run, openLoopSessions(driver, session, prepare(driver, null)),
+                        RequestMix.byName(System.getProperty("load.mix", "transactions")), Long.getLong("load.seed", 42));
+                recorder = run.recorder();
+            } else {
+                Scenario iteration = null;
+                for (String name : System.getProperty("load.scenarios", "transactions").split(",")) {
+                    Scenario scenario = Scenarios.byName(name.trim());
+                    iteration = iteration == null ? scenario : iteration.then(scenario);
+                }
+                LoadRun run = new LoadRun(driver, Integer.getInteger("load.users", 500), warmup, duration,
+                        Long.getLong("load.seed", 42));
+                elapsed = runClosedLoop(run, driver, session, iteration, setup -> setup, prepare(driver, null));
+                recorder = run.recorder();
+            }
+            recorder.report(System.out, elapsed);
+            if (driver instanceof RestAssuredDriver) {
+                // Setup requests included; the JDK client does not tell when it opens a connection
+                System.out.println(ConnectionPool.installed().report());
+            }
+            String histograms = System.getProperty("load.histograms");
+            if (histograms != null) {
+                HistogramFiles.write(recorder.histograms(), Paths.get(histograms));
+            }
+        } finally {
+            TestEnvironment.tearDown();
+        }
+    }
+
+    private static long runOpenLoop(OpenLoopRun run, ToIntFunction<SplittableRandom> sessions, RequestMix mix,
+                                    long seed) throws InterruptedException {
+        long elapsed = run.run(sessions, mix, seed);
+        System.out.printf("Sent %,d requests, %,d not sent because too many were in flight, %,d not answered"
+                + " when the run ended; the schedule ran up to %.2f ms late%n", run.sent(), run.dropped(),
+                run.unanswered(), run.maxLagNanos() / 1e6);
+        return elapsed;
+    }
+
+    /**
+     * Runs {@code iteration} in the session of {@code -Dload.session}: every user in the given session,
+     * every user in a session of its own with {@code new}, or every iteration for a tenant drawn with
+     * Zipf's law with {@code tenants}. {@code setup} wraps what a user does before its first iteration;
+     * tenants are given out per iteration, so they are prepared with {@code prepare} before the run.
+     */
+    private static long runClosedLoop(LoadRun run, RequestDriver driver, String session, Scenario iteration,
+                                      UnaryOperator<Scenario> setup, IntFunction<CompletableFuture<Void>> prepare)
+            throws InterruptedException {
+        Scenario start;
+        if (session.equals("tenants")) {
+            Tenants tenants = tenants(driver);
+            prepareTenants(tenants, prepare);
+            iteration = Scenarios.tenant(tenants, zipf(tenants.size())).then(iteration);
+            start = user -> CompletableFuture.completedFuture(null);
+        } else {
+            start = session.equals("new") ? Scenarios.newSession() : Scenarios.session(Integer.parseInt(session));
+        }
+        return run.run(setup.apply(start), iteration);
+    }
+
+    /**
+     * The session of every arrival of an open-loop run: a tenant drawn with Zipf's law, the one session
+     * created for the run, or the given session. All of them are prepared with {@code prepare} first.
+     */
+    private static ToIntFunction<SplittableRandom> openLoopSessions(RequestDriver driver, String session,
+                                                                    IntFunction<CompletableFuture<Void>> prepare) {
+        if (session.equals("tenants")) {
+            Tenants tenants = tenants(driver);
+            prepareTenants(tenants, prepare);
+            Zipf zipf = zipf(tenants.size());
+            return random -> tenants.session(zipf.rank(random.nextDouble()));
+        }
+        int id = session.equals("new")
+                ? driver.send(DriverRequest.post("POST /sessions", "/sessions", 0, null)).join().jsonPath().getInt("id")
+                : Integer.parseInt(session);
+        prepare.apply(id).join();
+        return random -> id;
+    }
+
+    /**
+     * Creates what the operations of the workload need in a session, see {@link Workload#prepare}; nothing
+     * without a workload.
+     */
+    private static IntFunction<CompletableFuture<Void>> prepare(RequestDriver driver, Workload workload) {
+        return workload == null ? id -> CompletableFuture.completedFuture(null)
+                : id -> workload.prepare(driver::send, id);
+    }
+
+    private static void prepareTenants(Tenants tenants, IntFunction<CompletableFuture<Void>> prepare) {
+        CompletableFuture<?>[] prepared = new CompletableFuture<?>[tenants.size()];
+        for (int tenant = 0; tenant < prepared.length; tenant++) {
+            prepared[tenant] = prepare.apply(tenants.session(tenant));
+        }
+        CompletableFuture.allOf(prepared).join();
+    }
+
+    private static Tenants tenants(RequestDriver driver) {
+        int count = Integer.getInteger("load.tenants", 1000);
+        long start = System.nanoTime();
+        Tenants tenants = Tenants.create(driver, count, Integer.getInteger("load.tenantTransactions", 50),
+                Long.getLong("load.seed", 42), Integer.getInteger("load.seedConcurrency", 64));
+        Zipf zipf = zipf(count);
+        System.out.printf("Seeded %,d tenants in %.1f s; the hottest gets %.1f%% of the traffic, the top 1%% %.1f%%,"
+                        + " the top 10%% %.1f%%%n", count, (System.nanoTime() - start) / 1e9, 100 * zipf.share(1),
+                100 * zipf.share(Math.max(1, count / 100)), 100 * zipf.share(Math.max(1, count / 10)));
+        return tenants;
+    }
+
+    private static Zipf zipf(int tenants) {
+        return new Zipf(tenants, Double.parseDouble(System.getProperty("load.zipf", "1.0")));
+    }
+}
@@ -0,0 +1,164 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds {@code -Dpoll.clients} GET /messages/poll requests open at the same time, each on its own
+ * connection through the {@link HttpClientDriver}, spread over {@code -Dpoll.sessions} sessions. Once
+ * they are all open, one withdrawal per session adds a negative balance message, and the run measures
+ * how long each poll took to answer after the withdrawal of its session was sent. It prints the heap
+ * the open polls take and the delivery latency.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=nl.utwente.ing.testsuite.load.MessagePollRun \
+ *     -Ddpa.server=embedded -Dpoll.clients=50000 -Dpoll.sessions=1000
+ * </pre>
+ *
+ * With {@code -Ddpa.server=embedded} the reference server is started with
+ * {@code server.tomcat.max-connections} at {@code -Dpoll.maxConnections}, the number of clients plus
+ * 1,000 unless set, since Tomcat 8.5 accepts no more than 10,000 connections by default; a server of
+ * its own needs the same setting. The heap is that of this JVM, so with an embedded server it holds
+ * both ends of every connection. Every poll takes a file descriptor on both ends and a local port on
+ * the client: 50k polls need {@code ulimit -n} above 100,000 with an embedded server, and
+ * {@code net.ipv4.ip_local_port_range} wider than the 28k ports Linux hands out by default.
+ * {@code MessagePollBenchmark} measures the same polls inside the server, without the sockets.
+ */
+public class MessagePollRun {
+
+    private static final String DELIVERY = "GET /messages/poll delivery";
+    private static final LocalDateTime DATE = LocalDateTime.of(2018, 1, 1, 12, 0);
+
+    private final RequestDriver driver;
+    private final int clients;
+    private final int sessions;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    // Answers before the withdrawal of their session, and polls that failed or timed out empty
+    private final AtomicInteger early = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public MessagePollRun(RequestDriver driver, int clients, int sessions) {
+        this.driver = driver;
+        this.clients = clients;
+        this.sessions = sessions;
+    }
+
+    public static void main(String[] args) {
+        int clients = Integer.getInteger("poll.clients", 50_000);
+        if (System.getProperty("server.tomcat.max-connections") == null) {
+            System.setProperty("server.tomcat.max-connections",
+                    String.valueOf(Integer.getInteger("poll.maxConnections", clients + 1_000)));
+        }
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        try (RequestDriver driver = new HttpClientDriver()) {
+            MessagePollRun run = new MessagePollRun(driver, clients, Integer.getInteger("poll.sessions", 1_000));
+            run.run(Integer.getInteger("poll.openRate", 5_000), Long.getLong("poll.settle", 5));
+        } finally {
+            TestEnvironment.tearDown();
+        }
+    }
+
+    /**
+     * Opens the polls at {@code openRate} per second, waits {@code settleSeconds} for the last ones to
+     * reach the server, then sends the withdrawals and waits for every poll to be answered.
+     */
+    public void run(int openRate, long settleSeconds) {
+        int[] session = new int[sessions];
+        for (int i = 0; i < sessions; i++) {
+            session[i] = join(driver.send(DriverRequest.post("POST /sessions", "/sessions", 0, null)))
+                    .jsonPath().getInt("id");
+        }
+        long heapBefore = usedHeap();
+        // When the withdrawal of each session was sent, 0 until then
+        AtomicLongArray sent = new AtomicLongArray(sessions);
+        CompletableFuture<?>[] polls = new CompletableFuture<?>[clients];
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            pace(start, i, openRate);
+            int s = i % sessions;
+            polls[i] = driver.send(DriverRequest.get("GET /messages/poll", "/messages/poll", session[s])
+                    .param("since", 0)
+                    .param("timeout", 60_000))
+                    .whenComplete((response, error) -> answered(sent.get(s), response, error));
+        }
+        long opening = System.nanoTime() - start;
+        sleep(TimeUnit.SECONDS.toMillis(settleSeconds));
+        long heapOpen = usedHeap();
+        System.out.printf("%,d polls opened in %.1f s, %,d already answered%n", clients, opening / 1e9,
+                early.get() + failed.get());
+
+        String withdrawal = Payloads.transaction(DATE, 1, "NL01", "withdrawal", "poll").toString();
+        long delivering = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            sent.set(i, System.nanoTime());
+            DriverResponse response = join(driver.send(
+                    DriverRequest.post("POST /transactions", "/transactions", session[i], withdrawal)));
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("POST /transactions returned " + response.statusCode());
+            }
+        }
+        CompletableFuture.allOf(polls).exceptionally(error -> null).join();
+
+        System.out.printf("%,d polls take %,d bytes of heap, %.0f bytes each%n", clients, heapOpen - heapBefore,
+                (double) (heapOpen - heapBefore) / clients);
+        recorder.report(System.out, System.nanoTime() - delivering);
+        System.out.printf("%,d answered before their message, %,d failed or timed out%n", early.get(), failed.get());
+    }
+
+    private void answered(long sent, DriverResponse response, Throwable error) {
+        long now = System.nanoTime();
+        if (error != null || response.statusCode() != 200 || response.jsonPath().getList("$").isEmpty()) {
+            failed.incrementAndGet();
+            recorder.recordError(DELIVERY);
+        } else if (sent == 0) {
+            early.incrementAndGet();
+            recorder.recordError(DELIVERY);
+        } else {
+            recorder.record(DELIVERY, now - sent);
+        }
+    }
+
+    private static void pace(long start, int opened, int openRate) {
+        long due = start + TimeUnit.SECONDS.toNanos(opened) / openRate;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            sleep(TimeUnit.NANOSECONDS.toMillis(wait));
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DriverResponse join(CompletableFuture<DriverResponse> response) {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+/**
+ * Open-loop run: requests arrive on a schedule whether or not earlier ones were answered, the way
+ * independent clients do. Every request has an intended send time on a fixed schedule and its latency
+ * is measured from that time, so a server that stalls is charged for the queue that builds up behind
+ * the stall, not only for the one request a closed loop would have had waiting. When the scheduler
+ * itself falls behind it sends the overdue requests at once, and they still count from their intended
+ * time. The rate may change over the run, following a {@link RateProfile}.
+ *
+ * <p>No due request goes unmeasured. A request still unanswered when the drain after the schedule
+ * runs out counts as an error that took until then. An arrival that finds {@code maxInFlight} requests
+ * in flight during the measured part fails the run, because its latency and that of every request
+ * after it would be missing.
+ */
+public class OpenLoopRun {
+
+    // How long the run waits for the requests still in flight when the schedule is over
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final RequestDriver driver;
+    private final RateProfile profile;
+    private final long warmupNanos;
+    private final int maxInFlight;
+    private final long drainNanos;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<Pending> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong unanswered = new AtomicLong();
+    private long maxLagNanos;
+
+    /**
+     * @param rate        requests per second
+     * @param maxInFlight requests in flight beyond which new arrivals are not sent, so a server that
+     *                    stops answering cannot exhaust the client; the run fails when that happens
+     */
+    public OpenLoopRun(RequestDriver driver, double rate, long warmupSeconds, long durationSeconds, int maxInFlight) {
+        this(driver, RateProfile.constant(rate, warmupSeconds + durationSeconds), warmupSeconds, maxInFlight);
+    }
+
+    /**
+     * A run that follows {@code profile}, of which the first {@code warmupSeconds} are not measured.
+     */
+    public OpenLoopRun(RequestDriver driver, RateProfile profile, long warmupSeconds, int maxInFlight) {
+        this(driver, profile, warmupSeconds, maxInFlight, DRAIN_NANOS);
+    }
+
+    OpenLoopRun(RequestDriver driver, RateProfile profile, long warmupSeconds, int maxInFlight, long drainNanos) {
+        this.driver = driver;
+        this.profile = profile;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.maxInFlight = maxInFlight;
+        this.drainNanos = drainNanos;
+    }
+
+    public LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Sends requests from {@code mix} at the rate of the profile until it is over, each to the session
+     * {@code sessions} draws. Both draw from one random stream seeded with {@code seed}, so a run sends
+     * the same requests in the same order every time. Returns the length of the measured part in
+     * nanoseconds.
+     *
+     * @throws IllegalStateException when a measured arrival found {@code maxInFlight} requests in
+     *                               flight; the schedule stops there
+     */
+    public long run(ToIntFunction<SplittableRandom> sessions, RequestMix mix, long seed) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = start + profile.durationNanos();
+        for (long arrival = 0; ; arrival++) {
+            long offset = profile.intendedNanos(arrival);
+            if (offset < 0) {
+                break;
+            }
+            long intended = start + offset;
+            long now = System.nanoTime();
+            while (intended - now > 0) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+            boolean measured = intended - measureStart >= 0;
+            DriverRequest request = mix.next(sessions.applyAsInt(random), random);
+            if (measured) {
+                maxLagNanos = Math.max(maxLagNanos, now - intended);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped.incrementAndGet();
+                    recorder.recordError(request.endpoint());
+                    drain();
+                    throw new IllegalStateException(String.format("%,d requests were in flight %.1f s into the"
+                                    + " run, the server fell behind the schedule; lower the rate or raise the"
+                                    + " maximum in flight", maxInFlight, (intended - start) / 1e9));
+                }
+                continue;
+            }
+            send(request, intended, measured);
+        }
+        drain();
+        return Math.max(0, end - measureStart);
+    }
+
+    /**
+     * Waits for the requests in flight, and records those still unanswered when the drain runs out as
+     * errors that took until then.
+     */
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + drainNanos;
+        while (inFlight.get() > 0 && deadline - System.nanoTime() > 0) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        long now = System.nanoTime();
+        for (Pending request : pending) {
+            // Whoever removes a request records it, the response may still arrive meanwhile
+            if (pending.remove(request) && request.measured) {
+                unanswered.incrementAndGet();
+                recorder.record(request.endpoint, now - request.intended);
+                recorder.recordError(request.endpoint);
+            }
+        }
+    }
+
+    private void send(DriverRequest request, long intended, boolean measured) {
+        Pending sending = new Pending(request.endpoint(), intended, measured);
+        pending.add(sending);
+        inFlight.incrementAndGet();
+        sent.incrementAndGet();
+        CompletableFuture<DriverResponse> response;
+        try {
+            response = driver.send(request);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((result, failure) -> {
+            long latency = System.nanoTime() - intended;
+            if (pending.remove(sending) && measured) {
+                if (failure == null) {
+                    recorder.record(request.endpoint(), latency);
+                }
+                if (failure != null || result.statusCode() != request.expectedStatus()) {
+                    recorder.recordError(request.endpoint());
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    /**
+     * Requests sent, including those of the warmup.
+     */
+    public long sent() {
+        return sent.get();
+    }
+
+    /**
+     * Measured arrivals that were not sent because {@code maxInFlight} requests were in flight, at most
+     * one as the run fails on it.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Measured requests that had no answer when the drain after the schedule ran out.
+     */
+    public long unanswered() {
+        return unanswered.get();
+    }
+
+    /**
+     * How far the scheduler ran behind its schedule at worst during the measured part. Large values
+     * mean the client, not the server, limited the rate.
+     */
+    public long maxLagNanos() {
+        return maxLagNanos;
+    }
+
+    private static final class Pending {
+        final String endpoint;
+        final long intended;
+        final boolean measured;
+
+        Pending(String endpoint, long intended, boolean measured) {
+            this.endpoint = endpoint;
+            this.intended = intended;
+            this.measured = measured;
+        }
+    }
+}
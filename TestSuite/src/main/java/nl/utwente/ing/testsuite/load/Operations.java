@@ -0,0 +1,142 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The single requests a {@link Workload} is made of, by the endpoint they are reported under. Every
+ * operation builds its request for a session and draws whatever it sends from the random stream it is
+ * given. The bodies are those of the Controller*Test classes, see {@link Payloads}. An operation that
+ * refers to data of the session, such as the category of a new rule, reads it from the
+ * {@link Prepared} it was made with, which must have prepared the session first.
+ */
+public final class Operations {
+
+    private interface Operation {
+        DriverRequest request(Prepared prepared, int session, SplittableRandom random);
+    }
+
+    private static final Map<String, Operation> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        get("/transactions");
+        OPERATIONS.put("POST /transactions", (prepared, session, random) -> DriverRequest.post("POST /transactions",
+                "/transactions", session, (random.nextBoolean()
+                        ? Payloads.deposit(random.nextInt(1, 100000) / 100.0)
+                        : Payloads.withdrawal(random.nextInt(1, 10000) / 100.0)).toString()));
+        get("/categories");
+        OPERATIONS.put("POST /categories", (prepared, session, random) -> DriverRequest.post("POST /categories",
+                "/categories", session, new JSONObject().put("name", "category " + random.nextInt(1000)).toString()));
+        get("/categoryRules");
+        // Not applied on the history, a workload that posts rules should not rewrite every transaction
+        OPERATIONS.put("POST /categoryRules", (prepared, session, random) -> DriverRequest.post("POST /categoryRules",
+                "/categoryRules", session, Payloads.categoryRule("shop " + random.nextInt(1000), "", "withdrawal",
+                        prepared.ruleCategory(session)).put("applyOnHistory", false).toString()));
+        get("/savingGoals");
+        OPERATIONS.put("POST /savingGoals", (prepared, session, random) -> DriverRequest.post("POST /savingGoals",
+                "/savingGoals", session, Payloads.savingGoal("goal " + random.nextInt(1000),
+                        random.nextInt(100, 5000), random.nextInt(10, 200), random.nextInt(0, 500)).toString()));
+        get("/paymentRequests");
+        OPERATIONS.put("POST /paymentRequests", (prepared, session, random) -> DriverRequest.post("POST /paymentRequests",
+                "/paymentRequests", session, Payloads.paymentRequest("request " + random.nextInt(1000),
+                        LocalDateTime.now().plusDays(30), random.nextInt(1, 10000) / 100.0,
+                        random.nextInt(1, 5)).toString()));
+        get("/messages");
+        get("/balance/history");
+    }
+
+    private Operations() {
+    }
+
+    private static void get(String path) {
+        String endpoint = "GET " + path;
+        OPERATIONS.put(endpoint, (prepared, session, random) -> DriverRequest.get(endpoint, path, session));
+    }
+
+    /**
+     * The operation of an endpoint such as "GET /transactions" or "POST /savingGoals", for operations
+     * that need no {@link Prepared prepared} session.
+     */
+    public static BiFunction<Integer, SplittableRandom, DriverRequest> byName(String endpoint) {
+        return byName(endpoint, Collections.emptyMap());
+    }
+
+    /**
+     * The operation of {@code endpoint} with {@code params} added to every request in order of their
+     * names, e.g. a limit for GET /transactions.
+     */
+    public static BiFunction<Integer, SplittableRandom, DriverRequest> byName(String endpoint,
+                                                                           Map<String, ?> params) {
+        return byName(endpoint, params, new Prepared());
+    }
+
+    /**
+     * The operation of {@code endpoint} with {@code params}, reading what it refers to in a session from
+     * {@code prepared}.
+     */
+    public static BiFunction<Integer, SplittableRandom, DriverRequest> byName(String endpoint,
+                                                                           Map<String, ?> params,
+                                                                           Prepared prepared) {
+        Operation operation = OPERATIONS.get(endpoint);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown operation " + endpoint + ", use one of " + OPERATIONS.keySet());
+        }
+        Map<String, Object> copy = new TreeMap<>(params);
+        return (session, random) -> {
+            DriverRequest request = operation.request(prepared, session, random);
+            for (Map.Entry<String, Object> param : copy.entrySet()) {
+                request = request.param(param.getKey(), param.getValue());
+            }
+            return request;
+        };
+    }
+
+    /**
+     * What the operations of one run need in its sessions: the category that POST /categoryRules posts
+     * its rules to, by session. It belongs to the server the run goes to, so every run prepares its
+     * sessions with one of its own.
+     */
+    public static final class Prepared {
+
+        private final Map<Integer, Integer> ruleCategories = new ConcurrentHashMap<>();
+
+        private int ruleCategory(int session) {
+            Integer category = ruleCategories.get(session);
+            if (category == null) {
+                throw new IllegalStateException("Session " + session + " was not prepared for POST /categoryRules");
+            }
+            return category;
+        }
+
+        /**
+         * Creates what {@code endpoint} needs in the session before its requests can be sent, once per
+         * session: the category that POST /categoryRules posts its rules to. Completes at once for the
+         * other operations.
+         */
+        public CompletableFuture<Void> prepare(String endpoint, Function<DriverRequest,
+                CompletableFuture<DriverResponse>> send, int session) {
+            if (!endpoint.equals("POST /categoryRules") || ruleCategories.containsKey(session)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            DriverRequest category = DriverRequest.post("POST /categories", "/categories", session,
+                    new JSONObject().put("name", "rules").toString());
+            return send.apply(category).thenAccept(response -> {
+                if (response.statusCode() != category.expectedStatus()) {
+                    throw new IllegalStateException("Could not create the category for rules in session " + session
+                            + ", POST /categories returned " + response.statusCode());
+                }
+                ruleCategories.putIfAbsent(session, response.jsonPath().getInt("id"));
+            });
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how GET /transactions latency develops with the depth of the page in a session holding a
+ * large history. The session is seeded first, then pages are read at offsets that double every step,
+ * once with offset/limit and once by following the {@code after} cursor.
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=nl.utwente.ing.testsuite.load.PaginationScan \
+ *     -Dscan.sizes=10000,100000,1000000 -Dload.driver=http
+ * </pre>
+ */
+public class PaginationScan {
+
+    /**
+     * Response header of GET /transactions holding the {@code after} value for the next page.
+     */
+    public static final String CURSOR_HEADER = "X-Next-Cursor";
+
+    private final RequestDriver driver;
+    private final int limit;
+    private final int repetitions;
+
+    public PaginationScan(RequestDriver driver, int limit, int repetitions) {
+        this.driver = driver;
+        this.limit = limit;
+        this.repetitions = repetitions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        try (RequestDriver driver = Drivers.fromSystemProperties()) {
+            PaginationScan scan = new PaginationScan(driver, 20, Integer.getInteger("scan.repetitions", 20));
+            for (int size : sizes()) {
+                int session = scan.newSession();
+                scan.seed(session, size, Integer.getInteger("scan.concurrency", 64));
+                List<Point> points = scan.scan(session, size);
+                Path csv = scan.writeCsv("offset-latency-" + size, points);
+                plot(points);
+                System.out.printf("%d transactions, offset: growth exponent %.2f, written to %s%n",
+                        size, growthExponent(points), csv);
+                points = scan.scanCursor(session, size);
+                csv = scan.writeCsv("cursor-latency-" + size, points);
+                plot(points);
+                System.out.printf("%d transactions, cursor: growth exponent %.2f, written to %s%n",
+                        size, growthExponent(points), csv);
+            }
+        } finally {
+            TestEnvironment.tearDown();
+        }
+    }
+
+    static int[] sizes() {
+        return Arrays.stream(System.getProperty("scan.sizes", "10000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .toArray();
+    }
+
+    public int newSession() {
+        return join(driver.send(DriverRequest.post("POST /sessions", "/sessions", 0, null)))
+                .jsonPath().getInt("id");
+    }
+
+    /**
+     * Posts {@code count} transactions into the session with at most {@code concurrency} in flight.
+     */
+    public void seed(int session, int count, int concurrency) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        for (int i = 0; i < count && failure.get() == null; i++) {
+            inFlight.acquireUninterruptibly();
+            String body = Payloads.transaction(start.plusSeconds(i), 1 + i % 1000, "NL39RABO0300065264",
+                    i % 3 == 0 ? "withdrawal" : "deposit", "pagination scan " + i).toString();
+            driver.send(DriverRequest.post("POST /transactions", "/transactions", session, body))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                        } else if (response.statusCode() != 201) {
+                            failure.compareAndSet(null, new IllegalStateException(
+                                    "Seeding returned " + response.statusCode() + ": " + response.body()));
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquireUninterruptibly(concurrency);
+        if (failure.get() != null) {
+            throw new IllegalStateException("Could not seed session " + session, failure.get());
+        }
+    }
+
+    /**
+     * Reads pages at offset 0, limit, 2 * limit, 4 * limit, ... up to the last page and returns the
+     * median and worst latency per offset. The session needs more than one page, for at least two
+     * offsets to fit a growth exponent to.
+     */
+    public List<Point> scan(int session, int size) {
+        if (size <= limit) {
+            throw new IllegalArgumentException("Scanning needs more than " + limit + " transactions, got " + size);
+        }
+        List<Point> points = new ArrayList<>();
+        for (long offset = 0; offset <= size - limit; offset = offset == 0 ? limit : offset * 2) {
+            points.add(measure(session, (int) offset));
+        }
+        if (points.get(points.size() - 1).offset != size - limit) {
+            points.add(measure(session, size - limit));
+        }
+        return points;
+    }
+
+    /**
+     * Walks all pages with the {@code after} cursor and measures the pages that start at the same
+     * offsets {@link #scan} uses. With keyset paging every one of them should cost the same.
+     */
+    public List<Point> scanCursor(int session, int size) {
+        List<Point> points = new ArrayList<>();
+        DriverRequest first = DriverRequest.get("GET /transactions", "/transactions", session).param("limit", limit);
+        String cursor = null;
+        long nextMeasured = 0;
+        for (int offset = 0; offset < size; offset += limit) {
+            DriverRequest page = cursor == null ? first : first.param("after", cursor);
+            if (offset == nextMeasured || offset + limit >= size) {
+                points.add(measure(page, offset));
+                nextMeasured = nextMeasured == 0 ? limit : nextMeasured * 2;
+            }
+            DriverResponse response = join(driver.send(page));
+            cursor = response.header(CURSOR_HEADER);
+            if (cursor == null) {
+                break;
+            }
+        }
+        return points;
+    }
+
+    private Point measure(int session, int offset) {
+        return measure(DriverRequest.get("GET /transactions", "/transactions", session)
+                .param("offset", offset)
+                .param("limit", limit), offset);
+    }
+
+    private Point measure(DriverRequest page, int offset) {
+        // One unmeasured call so the first offset does not pay for cold caches on its own
+        join(driver.send(page));
+        long[] nanos = new long[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            DriverResponse response = join(driver.send(page));
+            nanos[i] = System.nanoTime() - start;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET /transactions at offset " + offset + " returned "
+                        + response.statusCode());
+            }
+        }
+        Arrays.sort(nanos);
+        return new Point(offset, limit, nanos[nanos.length / 2], nanos[nanos.length - 1]);
+    }
+
+    /**
+     * Slope of log(median latency) against log(offset + limit), fitted with least squares. Linear
+     * growth in the offset gives at most 1, anything clearly above 1 is super-linear.
+     */
+    public static double growthExponent(List<Point> points) {
+        int n = points.size();
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (Point point : points) {
+            double x = Math.log(point.offset + point.limit);
+            double y = Math.log(Math.max(point.medianNanos, 1));
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        return denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    public Path writeCsv(String name, List<Point> points) throws IOException {
+        Path directory = Paths.get("target", "pagination-scan");
+        Files.createDirectories(directory);
+        Path csv = directory.resolve(name + ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("offset,p50_ms,max_ms");
+            for (Point point : points) {
+                out.printf("%d,%.3f,%.3f%n", point.offset, point.medianNanos / 1e6, point.maxNanos / 1e6);
+            }
+        }
+        return csv;
+    }
+
+    static void plot(List<Point> points) {
+        long slowest = points.stream().mapToLong(point -> point.medianNanos).max().orElse(1);
+        for (Point point : points) {
+            int width = (int) Math.round(60.0 * point.medianNanos / slowest);
+            StringBuilder bar = new StringBuilder();
+            for (int i = 0; i < width; i++) {
+                bar.append('#');
+            }
+            System.out.printf("%10d %9.2f ms %s%n", point.offset, point.medianNanos / 1e6, bar);
+        }
+    }
+
+    private static DriverResponse join(CompletableFuture<DriverResponse> response) {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public static final class Point {
+        final int offset;
+        final int limit;
+        final long medianNanos;
+        final long maxNanos;
+
+        Point(int offset, int limit, long medianNanos, long maxNanos) {
+            this.offset = offset;
+            this.limit = limit;
+            this.medianNanos = medianNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("offset %d: %.2f ms", offset, medianNanos / 1e6);
+        }
+    }
+}
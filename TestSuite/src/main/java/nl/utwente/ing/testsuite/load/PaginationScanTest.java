@@ -0,0 +1,65 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.RestAssured;
+import nl.utwente.ing.testsuite.TestEnvironment;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fails when GET /transactions gets super-linearly slower with the offset, or any slower at all with
+ * the depth of the {@code after} cursor. Sizes come from {@code -Dscan.sizes} (10000 by default), the
+ * allowed exponents from {@code -Dscan.maxExponent} and {@code -Dscan.maxCursorExponent}. Runs with
+ * {@code mvn test -Pscan}.
+ */
+public class PaginationScanTest {
+
+    private static RequestDriver driver;
+
+    @BeforeClass
+    public static void before() {
+        RestAssured.basePath = "api/v1";
+        TestEnvironment.startServer();
+        driver = Drivers.fromSystemProperties();
+    }
+
+    @AfterClass
+    public static void after() {
+        driver.close();
+    }
+
+    @Test
+    public void testOffsetLatencyGrowsAtMostLinearly() throws IOException {
+        double maxExponent = Double.parseDouble(System.getProperty("scan.maxExponent", "1.1"));
+        PaginationScan scan = new PaginationScan(driver, 20, Integer.getInteger("scan.repetitions", 20));
+        for (int size : PaginationScan.sizes()) {
+            int session = scan.newSession();
+            scan.seed(session, size, Integer.getInteger("scan.concurrency", 64));
+            List<PaginationScan.Point> points = scan.scan(session, size);
+            scan.writeCsv("offset-latency-" + size, points);
+            double exponent = PaginationScan.growthExponent(points);
+            assertTrue(String.format("Latency grows with offset^%.2f for %d transactions, more than offset^%.2f: %s",
+                    exponent, size, maxExponent, points), exponent <= maxExponent);
+        }
+    }
+
+    @Test
+    public void testCursorLatencyStaysFlat() throws IOException {
+        double maxExponent = Double.parseDouble(System.getProperty("scan.maxCursorExponent", "0.2"));
+        PaginationScan scan = new PaginationScan(driver, 20, Integer.getInteger("scan.repetitions", 20));
+        for (int size : PaginationScan.sizes()) {
+            int session = scan.newSession();
+            scan.seed(session, size, Integer.getInteger("scan.concurrency", 64));
+            List<PaginationScan.Point> points = scan.scanCursor(session, size);
+            scan.writeCsv("cursor-latency-" + size, points);
+            double exponent = PaginationScan.growthExponent(points);
+            assertTrue(String.format("Cursor latency grows with depth^%.2f for %d transactions, more than depth^%.2f: %s",
+                    exponent, size, maxExponent, points), exponent <= maxExponent);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+
+/**
+ * The request bodies of the Controller*Test classes, shared so the load mode and the benchmarks
+ * send exactly what the functional tests send.
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static JSONObject transaction(LocalDateTime date, double amount, String externalIBAN,
+                                         String type, String description) {
+        return new JSONObject().put("date", date.toString())
+                .put("amount", amount)
+                .put("externalIBAN", externalIBAN)
+                .put("type", type)
+                .put("description", description);
+    }
+
+    public static JSONObject deposit(double amount) {
+        return transaction(LocalDateTime.now(), amount, "NL39RABO0300065264", "deposit",
+                "adfwein wiahof qoihf cfdnas f");
+    }
+
+    public static JSONObject withdrawal(double amount) {
+        return transaction(LocalDateTime.now(), amount, "NL39RABO0300065865", "withdrawal",
+                "asfhwef iwfdc,");
+    }
+
+    /**
+     * The body of PATCH /transactions/{id}/category.
+     */
+    public static JSONObject categoryAssignment(int categoryId) {
+        return new JSONObject().put("category_id", categoryId);
+    }
+
+    public static JSONObject categoryRule(String description, String iban, String type, int categoryId) {
+        return new JSONObject()
+                .put("description", description)
+                .put("IBAN", iban)
+                .put("type", type)
+                .put("categoryId", categoryId);
+    }
+
+    public static JSONObject savingGoal(String name, double goal, double savePerMonth, double minBalanceRequired) {
+        return new JSONObject()
+                .put("name", name)
+                .put("goal", goal)
+                .put("savePerMonth", savePerMonth)
+                .put("minBalanceRequired", minBalanceRequired);
+    }
+
+    public static JSONObject paymentRequest(String description, LocalDateTime dueDate, double amount,
+                                            int numberOfRequests) {
+        return new JSONObject()
+                .put("description", description)
+                .put("due_date", dueDate.toString())
+                .put("amount", amount)
+                .put("number_of_requests", numberOfRequests);
+    }
+}
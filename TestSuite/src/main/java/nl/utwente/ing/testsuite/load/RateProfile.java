@@ -0,0 +1,133 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arrival rate of an {@link OpenLoopRun} over time, as stages in which the rate goes linearly from
+ * the current rate (0 at the start) to a new one, or holds the current rate.
+ * Arrival {@code n} is due when the integral of the rate reaches {@code n}, so a ramp sends exactly the
+ * requests its average rate promises and two runs of one profile share their schedule.
+ */
+public final class RateProfile {
+
+    private final double[] fromRates;
+    private final double[] toRates;
+    private final double[] seconds;
+    // Arrivals due before the start of every stage, and the start of every stage in seconds
+    private final double[] arrivalsBefore;
+    private final double[] startSeconds;
+    private final double totalArrivals;
+    private final double totalSeconds;
+
+    private RateProfile(List<double[]> stages) {
+        int count = stages.size();
+        fromRates = new double[count];
+        toRates = new double[count];
+        seconds = new double[count];
+        arrivalsBefore = new double[count];
+        startSeconds = new double[count];
+        double arrivals = 0;
+        double time = 0;
+        for (int i = 0; i < count; i++) {
+            fromRates[i] = stages.get(i)[0];
+            toRates[i] = stages.get(i)[1];
+            seconds[i] = stages.get(i)[2];
+            arrivalsBefore[i] = arrivals;
+            startSeconds[i] = time;
+            arrivals += (fromRates[i] + toRates[i]) / 2 * seconds[i];
+            time += seconds[i];
+        }
+        totalArrivals = arrivals;
+        totalSeconds = time;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@code rate} requests per second from the start, for {@code seconds}.
+     */
+    public static RateProfile constant(double rate, long seconds) {
+        return builder().rampTo(rate, 0).hold(seconds).build();
+    }
+
+    /**
+     * When arrival {@code n} is due, in nanoseconds from the start of the run, or -1 when the profile
+     * is over before it.
+     */
+    public long intendedNanos(long n) {
+        if (n >= totalArrivals) {
+            return -1;
+        }
+        int stage = 0;
+        while (stage < seconds.length - 1 && arrivalsBefore[stage + 1] <= n) {
+            stage++;
+        }
+        // Solve r0 t + (r1 - r0) t^2 / (2 d) = n for t, in the form that holds for flat and falling rates too
+        double within = n - arrivalsBefore[stage];
+        double t = 0;
+        if (within > 0) {
+            double r0 = fromRates[stage];
+            double a = (toRates[stage] - r0) / (2 * seconds[stage]);
+            t = 2 * within / (r0 + Math.sqrt(Math.max(0, r0 * r0 + 4 * a * within)));
+        }
+        return (long) ((startSeconds[stage] + t) * 1e9);
+    }
+
+    public long durationNanos() {
+        return (long) (totalSeconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * The number of arrivals the profile schedules.
+     */
+    public long arrivals() {
+        return (long) Math.ceil(totalArrivals);
+    }
+
+    public static final class Builder {
+        private final List<double[]> stages = new ArrayList<>();
+        private double rate;
+
+        private Builder() {
+        }
+
+        /**
+         * Goes linearly from the current rate to {@code rate} requests per second over {@code seconds}.
+         * A ramp over 0 seconds jumps to the rate.
+         */
+        public Builder rampTo(double rate, double seconds) {
+            if (rate < 0 || seconds < 0) {
+                throw new IllegalArgumentException("A stage needs a rate and a length of at least 0");
+            }
+            if (seconds > 0) {
+                stages.add(new double[]{this.rate, rate, seconds});
+            }
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Keeps the current rate for {@code seconds}.
+         */
+        public Builder hold(double seconds) {
+            if (seconds < 0) {
+                throw new IllegalArgumentException("A stage needs a length of at least 0");
+            }
+            if (seconds > 0) {
+                stages.add(new double[]{rate, rate, seconds});
+            }
+            return this;
+        }
+
+        public RateProfile build() {
+            if (stages.isEmpty()) {
+                throw new IllegalStateException("A rate profile needs at least one stage that takes time");
+            }
+            return new RateProfile(stages);
+        }
+    }
+}
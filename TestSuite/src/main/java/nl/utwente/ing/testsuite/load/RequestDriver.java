@@ -0,0 +1,14 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests for the load scenarios. Implementations must allow many requests in flight at once.
+ */
+public interface RequestDriver extends AutoCloseable {
+
+    CompletableFuture<DriverResponse> send(DriverRequest request);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,113 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Weighted single requests for an {@link OpenLoopRun}: every arrival is one request, drawn from the
+ * mix with the random stream of the run, so a seed gives the same sequence of requests every run,
+ * apart from the dates of new transactions, which are sent as of now.
+ */
+public final class RequestMix {
+
+    private final String[] names;
+    private final int[] cumulativeWeights;
+    private final List<BiFunction<Integer, SplittableRandom, DriverRequest>> requests;
+
+    private RequestMix(String[] names, int[] cumulativeWeights,
+                       List<BiFunction<Integer, SplittableRandom, DriverRequest>> requests) {
+        this.names = names;
+        this.cumulativeWeights = cumulativeWeights;
+        this.requests = requests;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The next request for {@code session}. Draws the request, and whatever the request itself needs,
+     * from {@code random}.
+     */
+    public DriverRequest next(int session, SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= draw) {
+            index++;
+        }
+        return requests.get(index).apply(session, random);
+    }
+
+    /**
+     * The share of the arrivals that goes to the request with the given name.
+     */
+    public double share(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                int weight = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+                return weight / (double) cumulativeWeights[cumulativeWeights.length - 1];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The mix a user of the app makes: mostly reading transactions, some new transactions and a look at
+     * the balance history now and then.
+     */
+    public static RequestMix transactions() {
+        return builder()
+                .add("GET /transactions", 6, Operations.byName("GET /transactions", Collections.singletonMap("limit", 20)))
+                .add("POST /transactions", 3, Operations.byName("POST /transactions"))
+                .add("GET /balance/history", 1, Operations.byName("GET /balance/history",
+                        Map.of("interval", "day", "intervals", 10)))
+                .build();
+    }
+
+    public static RequestMix byName(String name) {
+        if (name.equals("transactions")) {
+            return transactions();
+        }
+        throw new IllegalArgumentException("Unknown mix " + name + ", use transactions");
+    }
+
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+        private final List<BiFunction<Integer, SplittableRandom, DriverRequest>> requests = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a request with a relative weight. {@code request} builds it for a session, drawing any
+         * random content from the random stream it is given.
+         */
+        public Builder add(String name, int weight, BiFunction<Integer, SplittableRandom, DriverRequest> request) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("The weight of " + name + " must be positive");
+            }
+            names.add(name);
+            weights.add(weight);
+            requests.add(request);
+            return this;
+        }
+
+        public RequestMix build() {
+            if (names.isEmpty()) {
+                throw new IllegalStateException("A mix needs at least one request");
+            }
+            int[] cumulative = new int[weights.size()];
+            int sum = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                sum += weights.get(i);
+                cumulative[i] = sum;
+            }
+            return new RequestMix(names.toArray(new String[0]), cumulative, new ArrayList<>(requests));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package nl.utwente.ing.testsuite.load;
+
+import io.restassured.http.Header;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import nl.utwente.ing.testsuite.TestSessions;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Sends requests through the same given()/when() chain as the functional tests. Every request in
+ * flight holds a thread, so concurrency is bounded by the executor from {@link Workers}.
+ */
+public class RestAssuredDriver implements RequestDriver {
+
+    private final ExecutorService executor;
+
+    public RestAssuredDriver(int threads) {
+        this.executor = Workers.newExecutor(threads);
+    }
+
+    @Override
+    public CompletableFuture<DriverResponse> send(DriverRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            RequestSpecification specification = given().header("Content-Type", "application/JSON");
+            if (request.sessionId() > 0) {
+                specification.header(TestSessions.SESSION_HEADER, request.sessionId());
+            }
+            specification.params(request.params());
+            if (request.body() != null) {
+                specification.body(request.body());
+            }
+            Response response = specification.
+                    when().
+                    request(Method.valueOf(request.method()), request.path());
+            Map<String, String> headers = new HashMap<>();
+            for (Header header : response.headers()) {
+                headers.putIfAbsent(header.getName().toLowerCase(Locale.ROOT), header.getValue());
+            }
+            return new DriverResponse(response.statusCode(), response.asString(), headers);
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
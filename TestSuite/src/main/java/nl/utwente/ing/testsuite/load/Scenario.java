@@ -0,0 +1,16 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A sequence of calls made by one virtual user. The returned future completes when the last call
+ * has, and fails as soon as one call does not get its expected status.
+ */
+public interface Scenario {
+
+    CompletableFuture<?> run(VirtualUser user);
+
+    default Scenario then(Scenario next) {
+        return user -> run(user).thenCompose(ignored -> next.run(user));
+    }
+}
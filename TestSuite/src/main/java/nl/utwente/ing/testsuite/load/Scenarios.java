@@ -0,0 +1,110 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The calls of the Controller*Test classes, as scenarios any {@link RequestDriver} can run.
+ */
+public final class Scenarios {
+
+    private Scenarios() {
+    }
+
+    /**
+     * Uses the given session, as the functional tests do with their fixed ids.
+     */
+    public static Scenario session(int sessionId) {
+        return user -> {
+            user.sessionId(sessionId);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    /**
+     * Moves the user to a tenant drawn with Zipf's law, so a few hot tenants get most of the traffic.
+     * Put it before the scenarios of an iteration to draw a tenant per iteration.
+     */
+    public static Scenario tenant(Tenants tenants, Zipf zipf) {
+        return user -> {
+            user.sessionId(tenants.session(zipf.rank(user.random().nextDouble())));
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    /**
+     * ControllerTest.testPostSession: creates a fresh session for the user.
+     */
+    public static Scenario newSession() {
+        return user -> user.call(DriverRequest.post("POST /sessions", "/sessions", 0, null))
+                .thenAccept(response -> user.sessionId(response.jsonPath().getInt("id")));
+    }
+
+    /**
+     * ControllerTransactionTest: POST, GET, PUT, GET list and DELETE of one transaction.
+     */
+    public static Scenario transactions() {
+        return user -> {
+            int session = user.sessionId();
+            double amount = user.random().nextInt(1, 100000) / 100.0;
+            JSONObject update = Payloads.withdrawal(amount);
+            return user.call(DriverRequest.post("POST /transactions", "/transactions", session,
+                    Payloads.deposit(amount).toString()))
+                    .thenApply(created -> created.jsonPath().getString("id"))
+                    .thenCompose(id -> user.call(DriverRequest.get("GET /transactions/{id}", "/transactions/" + id, session))
+                            .thenCompose(r -> user.call(DriverRequest.put("PUT /transactions/{id}", "/transactions/" + id,
+                                    session, update.toString())))
+                            .thenCompose(r -> user.call(DriverRequest.get("GET /transactions", "/transactions", session)
+                                    .param("limit", 20)))
+                            .thenCompose(r -> user.call(DriverRequest.delete("DELETE /transactions/{id}",
+                                    "/transactions/" + id, session))));
+        };
+    }
+
+    /**
+     * ControllerCategoryTest: POST, GET, GET list and DELETE of one category.
+     */
+    public static Scenario categories() {
+        return user -> {
+            int session = user.sessionId();
+            return user.call(DriverRequest.post("POST /categories", "/categories", session,
+                    new JSONObject().put("name", "blah").toString()))
+                    .thenApply(created -> created.jsonPath().getString("id"))
+                    .thenCompose(id -> user.call(DriverRequest.get("GET /categories/{id}", "/categories/" + id, session))
+                            .thenCompose(r -> user.call(DriverRequest.get("GET /categories", "/categories", session)))
+                            .thenCompose(r -> user.call(DriverRequest.delete("DELETE /categories/{id}",
+                                    "/categories/" + id, session))));
+        };
+    }
+
+    /**
+     * The GET calls of ControllerCategoryRuleTest, ControllerSavingGoalTest, ControllerPaymentRequestTest,
+     * ControllerUserMessageTest and ControllerBalanceHistoryTest.
+     */
+    public static Scenario reads() {
+        return user -> {
+            int session = user.sessionId();
+            return user.call(DriverRequest.get("GET /categoryRules", "/categoryRules", session))
+                    .thenCompose(r -> user.call(DriverRequest.get("GET /savingGoals", "/savingGoals", session)))
+                    .thenCompose(r -> user.call(DriverRequest.get("GET /paymentRequests", "/paymentRequests", session)))
+                    .thenCompose(r -> user.call(DriverRequest.get("GET /messages", "/messages", session)))
+                    .thenCompose(r -> user.call(DriverRequest.get("GET /balance/history", "/balance/history", session)
+                            .param("interval", "day").param("intervals", 10)));
+        };
+    }
+
+    public static Scenario byName(String name) {
+        switch (name) {
+            case "transactions":
+                return transactions();
+            case "categories":
+                return categories();
+            case "reads":
+                return reads();
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + name
+                        + ", use transactions, categories or reads");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Independent sessions for load runs, each created through POST /sessions as
+ * ControllerTest.testPostSession does and seeded by a {@link DataGenerator} of its own with
+ * categories, category rules, a saving goal, a payment request and transactions. The transactions are
+ * streamed through POST /transactions:batch and dated from {@link #EPOCH} on, so tenant {@code i} of a
+ * given seed always gets the same data and runs with the same seed are comparable.
+ */
+public final class Tenants {
+
+    /**
+     * The date the history of every tenant starts at.
+     */
+    static final LocalDateTime EPOCH = LocalDateTime.of(2018, 1, 1, 0, 0);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final int[] sessions;
+
+    private Tenants(int[] sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Creates and seeds {@code count} sessions with at most {@code concurrency} being seeded at once.
+     */
+    public static Tenants create(RequestDriver driver, int count, int transactions, long seed, int concurrency) {
+        int[] sessions = new int[count];
+        // A year of history, with at least one card payment a day
+        double perDay = Math.max(1, transactions / 365.0);
+        ExecutorService seeders = Executors.newFixedThreadPool(concurrency);
+        try {
+            CompletableFuture<?>[] seeded = new CompletableFuture<?>[count];
+            for (int i = 0; i < count; i++) {
+                int tenant = i;
+                seeded[i] = CompletableFuture.runAsync(() -> sessions[tenant] = new DataGenerator(seed * 31 + tenant)
+                        .post(driver, EPOCH, transactions, perDay, 1, 1, BATCH_SIZE), seeders);
+            }
+            CompletableFuture.allOf(seeded).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Could not seed the tenants", e.getCause());
+        } finally {
+            seeders.shutdownNow();
+        }
+        return new Tenants(sessions);
+    }
+
+    public int size() {
+        return sessions.length;
+    }
+
+    /**
+     * The session of the tenant, tenants are numbered in the order they were created.
+     */
+    public int session(int tenant) {
+        return sessions[tenant];
+    }
+}
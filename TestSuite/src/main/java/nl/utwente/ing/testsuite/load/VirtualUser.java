@@ -0,0 +1,66 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One simulated client. Holds the session it works in and times every call it makes.
+ */
+public class VirtualUser {
+
+    private final RequestDriver driver;
+    private final LoadRun run;
+    private final SplittableRandom random;
+    private volatile int sessionId;
+
+    VirtualUser(RequestDriver driver, LoadRun run, SplittableRandom random) {
+        this.driver = driver;
+        this.run = run;
+        this.random = random;
+    }
+
+    /**
+     * The random stream of this user. The calls of a user follow each other, so its scenarios can draw
+     * from it without locking.
+     */
+    public SplittableRandom random() {
+        return random;
+    }
+
+    public int sessionId() {
+        return sessionId;
+    }
+
+    public void sessionId(int sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public CompletableFuture<DriverResponse> call(DriverRequest request) {
+        long start = System.nanoTime();
+        CompletableFuture<DriverResponse> sent;
+        try {
+            sent = driver.send(request);
+        } catch (RuntimeException e) {
+            sent = new CompletableFuture<>();
+            sent.completeExceptionally(e);
+        }
+        return sent.handle((response, failure) -> {
+            long elapsed = System.nanoTime() - start;
+            boolean expected = failure == null && response.statusCode() == request.expectedStatus();
+            if (run.recording()) {
+                if (failure == null) {
+                    run.recorder().record(request.endpoint(), elapsed);
+                }
+                if (!expected) {
+                    run.recorder().recordError(request.endpoint());
+                }
+            }
+            if (!expected) {
+                throw new CompletionException(new IllegalStateException(request.method() + " " + request.path()
+                        + (failure == null ? " returned " + response.statusCode() : " failed"), failure));
+            }
+            return response;
+        });
+    }
+}
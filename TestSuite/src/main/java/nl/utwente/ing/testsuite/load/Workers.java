@@ -0,0 +1,28 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for drivers that block a thread per request.
+ */
+final class Workers {
+
+    private Workers() {
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the JVM running the suite has virtual threads
+     * (Java 21 and later), and a fixed pool of {@code platformThreads} threads otherwise. The module
+     * still compiles for Java 11, hence the lookup by reflection.
+     */
+    static ExecutorService newExecutor(int platformThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(platformThreads);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A load test described instead of programmed: weighted {@link Operations} and either an arrival rate
+ * over time (open loop, see {@link OpenLoopRun}) or a number of users that think between their
+ * requests (closed loop, see {@link LoadRun}). It is built in Java or read from YAML, such as
+ * {@code src/main/resources/workloads/dashboard.yml}:
+ *
+ * <pre>
+ * name: dashboard
+ * seed: 42
+ * warmup: 10
+ * operations:
+ *   - {operation: GET /transactions, weight: 50, params: {limit: 20}}
+ *   - {operation: GET /balance/history, weight: 20}
+ * arrivals:
+ *   - {rampTo: 500, seconds: 30}
+ *   - {hold: 60}
+ * </pre>
+ *
+ * or, for the closed loop, {@code users}, {@code rampUp} (seconds over which the users start),
+ * {@code thinkTime} (mean milliseconds between the requests of a user) and {@code duration} instead of
+ * {@code arrivals}. The warmup is the first part of the run in both cases. The operations are compiled
+ * into a {@link RequestMix} and drawn from streams seeded with {@code seed}, so a workload sends the
+ * same requests on every build.
+ */
+public final class Workload {
+
+    private static final Set<String> KEYS = new HashSet<>(Arrays.asList(
+            "name", "seed", "warmup", "operations", "arrivals", "users", "rampUp", "thinkTime", "duration"));
+
+    private final String name;
+    private final long seed;
+    private final long warmupSeconds;
+    private final RequestMix mix;
+    private final Set<String> operations;
+    private final Operations.Prepared prepared;
+    private final RateProfile arrivals;
+    private final int users;
+    private final long rampUpSeconds;
+    private final long thinkTimeMillis;
+    private final long durationSeconds;
+
+    private Workload(Builder builder) {
+        this.name = builder.name;
+        this.seed = builder.seed;
+        this.warmupSeconds = builder.warmupSeconds;
+        this.mix = builder.mix.build();
+        this.operations = new LinkedHashSet<>(builder.operations);
+        this.prepared = builder.prepared;
+        this.arrivals = builder.arrivals;
+        this.users = builder.users;
+        this.rampUpSeconds = builder.rampUpSeconds;
+        this.thinkTimeMillis = builder.thinkTimeMillis;
+        this.durationSeconds = builder.durationSeconds;
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * The workload in the YAML file {@code nameOrFile}, or else the one of that name under
+     * {@code workloads/} on the classpath.
+     */
+    public static Workload load(String nameOrFile) {
+        Path file = Paths.get(nameOrFile);
+        try {
+            if (Files.isRegularFile(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    return fromYaml(reader);
+                }
+            }
+            try (InputStream resource = Workload.class.getResourceAsStream("/workloads/" + nameOrFile + ".yml")) {
+                if (resource == null) {
+                    throw new IllegalArgumentException("No workload file " + nameOrFile
+                            + " and no workload of that name in workloads/");
+                }
+                return fromYaml(new InputStreamReader(resource, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Workload fromYaml(Reader reader) {
+        Object document = new Yaml().load(reader);
+        if (!(document instanceof Map)) {
+            throw new IllegalArgumentException("A workload is a YAML mapping");
+        }
+        Map<String, Object> yaml = (Map<String, Object>) document;
+        for (String key : yaml.keySet()) {
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown workload key " + key + ", use one of " + KEYS);
+            }
+        }
+        Builder builder = builder(String.valueOf(required(yaml, "name")));
+        if (yaml.containsKey("seed")) {
+            builder.seed(number(yaml, "seed").longValue());
+        }
+        if (yaml.containsKey("warmup")) {
+            builder.warmup(number(yaml, "warmup").longValue());
+        }
+        for (Map<String, Object> operation : (List<Map<String, Object>>) required(yaml, "operations")) {
+            Map<String, Object> params = operation.containsKey("params")
+                    ? (Map<String, Object>) operation.get("params") : Collections.emptyMap();
+            builder.operation(String.valueOf(required(operation, "operation")),
+                    number(operation, "weight").intValue(), params);
+        }
+        if (yaml.containsKey("arrivals")) {
+            RateProfile.Builder profile = RateProfile.builder();
+            for (Map<String, Object> stage : (List<Map<String, Object>>) yaml.get("arrivals")) {
+                if (stage.containsKey("hold")) {
+                    profile.hold(number(stage, "hold").doubleValue());
+                } else {
+                    profile.rampTo(number(stage, "rampTo").doubleValue(), number(stage, "seconds").doubleValue());
+                }
+            }
+            builder.arrivals(profile.build());
+        }
+        if (yaml.containsKey("users")) {
+            builder.users(number(yaml, "users").intValue());
+        }
+        if (yaml.containsKey("rampUp")) {
+            builder.rampUp(number(yaml, "rampUp").longValue());
+        }
+        if (yaml.containsKey("thinkTime")) {
+            builder.thinkTime(number(yaml, "thinkTime").longValue());
+        }
+        if (yaml.containsKey("duration")) {
+            builder.duration(number(yaml, "duration").longValue());
+        }
+        return builder.build();
+    }
+
+    private static Object required(Map<String, Object> yaml, String key) {
+        Object value = yaml.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + " is missing in " + yaml);
+        }
+        return value;
+    }
+
+    private static Number number(Map<String, Object> yaml, String key) {
+        Object value = required(yaml, key);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(key + " must be a number, not " + value);
+        }
+        return (Number) value;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public RequestMix mix() {
+        return mix;
+    }
+
+    /**
+     * Whether requests arrive at the rate of {@code arrivals}, rather than from users that wait for
+     * their answers.
+     */
+    public boolean openLoop() {
+        return arrivals != null;
+    }
+
+    /**
+     * The open-loop run of this workload; run it with {@link #mix()} and {@link #seed()}.
+     */
+    public OpenLoopRun openLoopRun(RequestDriver driver, int maxInFlight) {
+        if (!openLoop()) {
+            throw new IllegalStateException(name + " has users, not arrivals");
+        }
+        return new OpenLoopRun(driver, arrivals, warmupSeconds, maxInFlight);
+    }
+
+    /**
+     * The closed-loop run of this workload; run it with {@link #setup} and {@link #iteration()}.
+     */
+    public LoadRun closedLoopRun(RequestDriver driver) {
+        if (openLoop()) {
+            throw new IllegalStateException(name + " has arrivals, not users");
+        }
+        return new LoadRun(driver, users, warmupSeconds, durationSeconds - warmupSeconds, seed);
+    }
+
+    /**
+     * Creates what the operations of this workload need in the session before the run, see
+     * {@link Operations.Prepared#prepare}. Sessions that are given out per iteration, such as tenants,
+     * must be prepared with this before the run starts. What was created belongs to this workload, so
+     * load the workload again for a run against another server.
+     */
+    public CompletableFuture<Void> prepare(Function<DriverRequest, CompletableFuture<DriverResponse>> send,
+                                           int session) {
+        return CompletableFuture.allOf(operations.stream()
+                .map(operation -> prepared.prepare(operation, send, session))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Starts the users one after the other over the ramp-up, each with {@code session}, which is then
+     * prepared for the operations if the user has one.
+     */
+    public Scenario setup(Scenario session) {
+        AtomicInteger started = new AtomicInteger();
+        return user -> {
+            long delay = TimeUnit.SECONDS.toNanos(rampUpSeconds) * started.getAndIncrement() / users;
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS))
+                    .thenCompose(ignored -> session.run(user))
+                    .thenCompose(ignored -> user.sessionId() > 0
+                            ? prepare(user::call, user.sessionId()) : CompletableFuture.completedFuture(null));
+        };
+    }
+
+    /**
+     * One request of the mix to the session of the user, then a think time drawn from an exponential
+     * distribution with the mean of the workload. A failed request is counted and the user carries on.
+     */
+    public Scenario iteration() {
+        return user -> {
+            SplittableRandom random = user.random();
+            DriverRequest request = mix.next(user.sessionId(), random);
+            long think = thinkTimeMillis == 0 ? 0
+                    : (long) (-TimeUnit.MILLISECONDS.toNanos(thinkTimeMillis) * Math.log(1 - random.nextDouble()));
+            return user.call(request).handle((response, failure) -> null)
+                    .thenCompose(ignored -> think == 0 ? CompletableFuture.completedFuture(null)
+                            : CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(think, TimeUnit.NANOSECONDS)));
+        };
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final RequestMix.Builder mix = RequestMix.builder();
+        private final List<String> operations = new ArrayList<>();
+        private final Operations.Prepared prepared = new Operations.Prepared();
+        private boolean hasOperations;
+        private long seed = 42;
+        private long warmupSeconds;
+        private RateProfile arrivals;
+        private int users;
+        private long rampUpSeconds;
+        private long thinkTimeMillis;
+        private long durationSeconds;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Seconds at the start of the run that are not measured.
+         */
+        public Builder warmup(long seconds) {
+            this.warmupSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * An operation of {@link Operations} with a relative weight.
+         */
+        public Builder operation(String endpoint, int weight) {
+            return operation(endpoint, weight, Collections.emptyMap());
+        }
+
+        /**
+         * An operation of {@link Operations} with a relative weight and parameters added to its requests.
+         */
+        public Builder operation(String endpoint, int weight, Map<String, ?> params) {
+            operation(endpoint, weight, Operations.byName(endpoint, params, prepared));
+            operations.add(endpoint);
+            return this;
+        }
+
+        /**
+         * A request of your own with a relative weight.
+         */
+        public Builder operation(String endpoint, int weight,
+                                 BiFunction<Integer, SplittableRandom, DriverRequest> request) {
+            mix.add(endpoint, weight, request);
+            hasOperations = true;
+            return this;
+        }
+
+        /**
+         * Makes the workload open-loop: requests arrive following {@code profile}.
+         */
+        public Builder arrivals(RateProfile profile) {
+            this.arrivals = profile;
+            return this;
+        }
+
+        /**
+         * Makes the workload closed-loop with {@code users} users.
+         */
+        public Builder users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        /**
+         * Seconds over which the users start, evenly spread.
+         */
+        public Builder rampUp(long seconds) {
+            this.rampUpSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * Mean milliseconds a user waits after an answer before its next request.
+         */
+        public Builder thinkTime(long millis) {
+            this.thinkTimeMillis = millis;
+            return this;
+        }
+
+        /**
+         * Seconds the users run, warmup included.
+         */
+        public Builder duration(long seconds) {
+            this.durationSeconds = seconds;
+            return this;
+        }
+
+        public Workload build() {
+            if (!hasOperations) {
+                throw new IllegalStateException(name + " needs at least one operation");
+            }
+            if ((arrivals == null) == (users == 0)) {
+                throw new IllegalStateException(name + " needs either arrivals or users");
+            }
+            if (arrivals != null) {
+                if (rampUpSeconds != 0 || thinkTimeMillis != 0 || durationSeconds != 0) {
+                    throw new IllegalStateException(name + " has arrivals; rampUp, thinkTime and duration are"
+                            + " for users, the arrivals set the rate and length of the run");
+                }
+                if (TimeUnit.SECONDS.toNanos(warmupSeconds) >= arrivals.durationNanos()) {
+                    throw new IllegalStateException(name + " is over before its warmup is");
+                }
+            } else {
+                if (users < 0 || rampUpSeconds < 0 || thinkTimeMillis < 0) {
+                    throw new IllegalStateException(name + " needs users, rampUp and thinkTime of at least 0");
+                }
+                if (durationSeconds <= warmupSeconds) {
+                    throw new IllegalStateException(name + " needs a duration longer than its warmup");
+                }
+            }
+            return new Workload(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package nl.utwente.ing.testsuite.load;
+
+import java.util.Arrays;
+
+/**
+ * Ranks 0 to {@code n - 1} drawn with Zipf's law: rank {@code k} is drawn with a probability
+ * proportional to {@code 1 / (k + 1)^exponent}. With an exponent around 1 a few ranks get most of the
+ * draws and a long tail gets a few each, as traffic spreads over tenants; 0 draws every rank alike.
+ */
+public final class Zipf {
+
+    // The probability of drawing rank k or lower
+    private final double[] cumulative;
+
+    public Zipf(int n, double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("Zipf needs n >= 1 and exponent >= 0, not " + n + ", " + exponent);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+        cumulative[n - 1] = 1;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * The rank for a uniform draw in [0, 1).
+     */
+    public int rank(double uniform) {
+        int rank = Arrays.binarySearch(cumulative, uniform);
+        // Not found gives -(insertion point) - 1, the first rank whose cumulative probability exceeds it
+        return rank >= 0 ? Math.min(rank + 1, cumulative.length - 1) : -rank - 1;
+    }
+
+    /**
+     * The share of draws that fall on the {@code ranks} lowest ranks.
+     */
+    public double share(int ranks) {
+        return ranks <= 0 ? 0 : cumulative[Math.min(ranks, cumulative.length) - 1];
+    }
+}
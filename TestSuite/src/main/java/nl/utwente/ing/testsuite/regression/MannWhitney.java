@@ -0,0 +1,91 @@
+package nl.utwente.ing.testsuite.regression;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The Mann-Whitney U test on two latency histograms, one-sided: are the samples of one run larger
+ * than those of another? Samples in the same histogram bucket are ties. With thousands of samples the
+ * normal approximation of U is exact enough, so that is all this implements.
+ */
+public final class MannWhitney {
+
+    /**
+     * U of the current samples, the number of (current, baseline) pairs in which the current sample is
+     * larger, ties counting half.
+     */
+    public final double u;
+    /**
+     * The standard score of U, with continuity and tie correction.
+     */
+    public final double z;
+    /**
+     * The chance of a U this large when both runs have the same distribution.
+     */
+    public final double p;
+    /**
+     * U over the number of pairs: the chance that a current sample is larger than a baseline sample,
+     * 0.5 when neither run is slower.
+     */
+    public final double effect;
+
+    private MannWhitney(double u, double z, double p, double effect) {
+        this.u = u;
+        this.z = z;
+        this.p = p;
+        this.effect = effect;
+    }
+
+    /**
+     * Tests whether the samples of {@code current} are larger than those of {@code baseline}. Both
+     * histograms must be non-empty and have the same precision, so their buckets line up.
+     */
+    public static MannWhitney greater(Histogram current, Histogram baseline) {
+        double n1 = current.getTotalCount();
+        double n2 = baseline.getTotalCount();
+        if (n1 == 0 || n2 == 0) {
+            throw new IllegalArgumentException("Both runs need samples");
+        }
+        // Counts per bucket of the current and the baseline run, in order of value
+        Map<Long, double[]> buckets = new TreeMap<>();
+        for (HistogramIterationValue value : current.recordedValues()) {
+            buckets.computeIfAbsent(current.lowestEquivalentValue(value.getValueIteratedTo()), v -> new double[2])[0]
+                    += value.getCountAtValueIteratedTo();
+        }
+        for (HistogramIterationValue value : baseline.recordedValues()) {
+            buckets.computeIfAbsent(baseline.lowestEquivalentValue(value.getValueIteratedTo()), v -> new double[2])[1]
+                    += value.getCountAtValueIteratedTo();
+        }
+
+        double rankSum = 0;
+        double ranked = 0;
+        double ties = 0;
+        for (double[] counts : buckets.values()) {
+            double tied = counts[0] + counts[1];
+            // Every sample of the bucket gets the average of the ranks the bucket spans
+            rankSum += counts[0] * (ranked + (tied + 1) / 2);
+            ranked += tied;
+            ties += tied * tied * tied - tied;
+        }
+        double n = n1 + n2;
+        double u = rankSum - n1 * (n1 + 1) / 2;
+        double mean = n1 * n2 / 2;
+        double variance = n1 * n2 / 12 * ((n + 1) - ties / (n * (n - 1)));
+        double z = variance <= 0 ? 0 : (u - mean - 0.5) / Math.sqrt(variance);
+        return new MannWhitney(u, z, 0.5 * erfc(z / Math.sqrt(2)), u / (n1 * n2));
+    }
+
+    /**
+     * The complementary error function, with a relative error below 1.2e-7 (Numerical Recipes).
+     */
+    static double erfc(double x) {
+        double t = 1 / (1 + 0.5 * Math.abs(x));
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? erfc : 2 - erfc;
+    }
+}
@@ -0,0 +1,177 @@
+package nl.utwente.ing.testsuite.regression;
+
+import nl.utwente.ing.testsuite.load.HistogramFiles;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Fails the build when an endpoint got slower than in the baseline run. Both runs are latency.json
+ * files as {@link HistogramFiles} writes them, and must come from the same machine with the same load
+ * flags: the latencies are absolute. {@code mvn verify -Pregression} takes care of that by running
+ * the baseline commit right before the current tree. An endpoint regressed
+ * when the Mann-Whitney test says its samples are larger than those of the baseline with
+ * significance {@code -Dgate.alpha} (0.01 by default) and its {@code -Dgate.percentile} (the median by
+ * default) grew by more than {@code -Dgate.threshold} (0.25, that is 25%). Endpoints with fewer than
+ * {@code -Dgate.minSamples} samples in either run are not judged.
+ *
+ * <pre>
+ * java nl.utwente.ing.testsuite.regression.RegressionGate \
+ *     -Dgate.baseline=baseline/latency.json -Dgate.current=target/load-histograms/latency.json
+ * </pre>
+ *
+ * The report, also written to target/latency-regressions.txt, names the route of every endpoint. With
+ * {@code -Dgate.update=true} the current run becomes the baseline instead, for later runs on the same
+ * machine.
+ */
+public class RegressionGate {
+
+    static final Path REPORT = Paths.get("target", "latency-regressions.txt");
+
+    enum Verdict {
+        REGRESSED, SLOWER, OK, NEW, MISSING, FEW_SAMPLES
+    }
+
+    private final double alpha;
+    private final double threshold;
+    private final double percentile;
+    private final long minSamples;
+    private final String basePath;
+
+    RegressionGate(double alpha, double threshold, double percentile, long minSamples, String basePath) {
+        this.alpha = alpha;
+        this.threshold = threshold;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.basePath = basePath;
+    }
+
+    public static void main(String[] args) {
+        Path baseline = Paths.get(System.getProperty("gate.baseline", "latency-baseline.json"));
+        Path current = Paths.get(System.getProperty("gate.current", "target/load-histograms/" + HistogramFiles.JSON));
+        if (Boolean.getBoolean("gate.update")) {
+            try {
+                Files.copy(current, baseline, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            System.out.println("Updated the baseline " + baseline + " from " + current);
+            return;
+        }
+        RegressionGate gate = new RegressionGate(
+                Double.parseDouble(System.getProperty("gate.alpha", "0.01")),
+                Double.parseDouble(System.getProperty("gate.threshold", "0.25")),
+                Double.parseDouble(System.getProperty("gate.percentile", "50")),
+                Long.getLong("gate.minSamples", 30),
+                System.getProperty("gate.basePath", "api/v1"));
+        List<Comparison> comparisons = gate.compare(HistogramFiles.read(baseline), HistogramFiles.read(current));
+        gate.report(comparisons, System.out);
+        try {
+            Files.createDirectories(REPORT.getParent());
+            try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT), false, "UTF-8")) {
+                gate.report(comparisons, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (comparisons.stream().anyMatch(comparison -> comparison.verdict == Verdict.REGRESSED)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * One endpoint of the baseline and the current run.
+     */
+    static final class Comparison {
+        final String endpoint;
+        final Verdict verdict;
+        final Histogram baseline;
+        final Histogram current;
+        final MannWhitney test;
+
+        Comparison(String endpoint, Verdict verdict, Histogram baseline, Histogram current, MannWhitney test) {
+            this.endpoint = endpoint;
+            this.verdict = verdict;
+            this.baseline = baseline;
+            this.current = current;
+            this.test = test;
+        }
+    }
+
+    List<Comparison> compare(Map<String, Histogram> baseline, Map<String, Histogram> current) {
+        TreeSet<String> endpoints = new TreeSet<>(baseline.keySet());
+        endpoints.addAll(current.keySet());
+        List<Comparison> comparisons = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            Histogram before = baseline.get(endpoint);
+            Histogram after = current.get(endpoint);
+            if (before == null || after == null) {
+                comparisons.add(new Comparison(endpoint, before == null ? Verdict.NEW : Verdict.MISSING,
+                        before, after, null));
+            } else if (before.getTotalCount() < minSamples || after.getTotalCount() < minSamples) {
+                comparisons.add(new Comparison(endpoint, Verdict.FEW_SAMPLES, before, after, null));
+            } else {
+                MannWhitney test = MannWhitney.greater(after, before);
+                Verdict verdict = Verdict.OK;
+                if (test.p < alpha) {
+                    verdict = growth(before, after) > threshold ? Verdict.REGRESSED : Verdict.SLOWER;
+                }
+                comparisons.add(new Comparison(endpoint, verdict, before, after, test));
+            }
+        }
+        return comparisons;
+    }
+
+    private double growth(Histogram before, Histogram after) {
+        return (double) after.getValueAtPercentile(percentile) / before.getValueAtPercentile(percentile) - 1;
+    }
+
+    void report(List<Comparison> comparisons, PrintStream out) {
+        String label = percentile == 50 ? "median" : "p" + String.valueOf(percentile).replaceAll("\\.0$", "");
+        int regressed = 0;
+        for (Comparison comparison : comparisons) {
+            out.printf("%-11s %s", comparison.verdict, route(comparison.endpoint));
+            if (comparison.test != null) {
+                out.printf(": %s %.2f ms -> %.2f ms (%+.0f%%), p = %.2g, P(slower) = %.2f, %d vs %d samples",
+                        label, millis(comparison.baseline.getValueAtPercentile(percentile)),
+                        millis(comparison.current.getValueAtPercentile(percentile)),
+                        100 * growth(comparison.baseline, comparison.current), comparison.test.p,
+                        comparison.test.effect, comparison.baseline.getTotalCount(),
+                        comparison.current.getTotalCount());
+            } else if (comparison.verdict == Verdict.FEW_SAMPLES) {
+                out.printf(": %d vs %d samples, %d needed", comparison.baseline.getTotalCount(),
+                        comparison.current.getTotalCount(), minSamples);
+            }
+            out.println();
+            if (comparison.verdict == Verdict.REGRESSED) {
+                regressed++;
+            }
+        }
+        out.println(regressed == 0 ? "No endpoint regressed"
+                : regressed + (regressed == 1 ? " endpoint" : " endpoints") + " regressed: significant at "
+                + alpha + " and the " + label + " more than " + Math.round(100 * threshold) + "% slower");
+    }
+
+    /**
+     * "GET /transactions/{id}" is the route GET /api/v1/transactions/{id}.
+     */
+    String route(String endpoint) {
+        int space = endpoint.indexOf(' ');
+        String base = basePath.replaceAll("^/+|/+$", "");
+        return base.isEmpty() ? endpoint : endpoint.substring(0, space + 1) + "/" + base + endpoint.substring(space + 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,161 @@
+package nl.utwente.ing.testsuite.transport;
+
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.response.Response;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One pool of keep-alive connections for every RestAssured request of this JVM, so the tests and the
+ * load runs measure the API rather than TCP handshakes. Without it RestAssured opens a connection for
+ * every request and leaves the socket in TIME_WAIT. The pool holds up to {@code -Dpool.maxPerRoute}
+ * connections to the server (500 by default, as many as the load mode has threads) and
+ * {@code -Dpool.maxTotal} (1000) in all, and keeps an idle connection for {@code -Dpool.keepAlive}
+ * seconds (30). {@code -Dpool.keepAlive=0} opens a connection per request again, to compare. The
+ * client does not pipeline requests, Apache HttpClient 4 has no HTTP/1.1 pipelining.
+ *
+ * <p>It counts the requests and the connections it opened and how long connecting took, and writes
+ * that to target/connection-pool.txt at the end of the run: the cost of the transport next to the
+ * latencies of the server.
+ */
+// RestAssured 3.0 only takes the AbstractHttpClient of the deprecated HttpClient 4.2 API
+@SuppressWarnings("deprecation")
+public final class ConnectionPool {
+
+    static final Path REPORT = Paths.get("target", "connection-pool.txt");
+
+    private static ConnectionPool installed;
+
+    private final int maxPerRoute;
+    private final long keepAliveSeconds;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong connectNanos = new AtomicLong();
+    private final PoolingClientConnectionManager manager;
+
+    ConnectionPool(int maxTotal, int maxPerRoute, long keepAliveSeconds) {
+        this.maxPerRoute = maxPerRoute;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.manager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault()) {
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+                return new CountingOperator(schemes);
+            }
+        };
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+    }
+
+    /**
+     * Makes every RestAssured request of this JVM use the pool, once, and returns it.
+     */
+    public static synchronized ConnectionPool install() {
+        if (installed != null) {
+            return installed;
+        }
+        installed = new ConnectionPool(Integer.getInteger("pool.maxTotal", 1000),
+                Integer.getInteger("pool.maxPerRoute", 500), Long.getLong("pool.keepAlive", 30));
+        // RestAssured asks for a client per request; the clients are cheap and share the connections
+        HttpClientConfig clients = RestAssured.config().getHttpClientConfig().httpClientFactory(installed::newClient);
+        RestAssured.config = RestAssured.config().httpClient(clients);
+        // The connection goes back to the pool once the body is read to the end, which RestAssured
+        // leaves to the test; it keeps the bytes for the assertions
+        RestAssured.filters((request, response, context) -> {
+            Response sent = context.next(request, response);
+            sent.asByteArray();
+            return sent;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::writeReport));
+        return installed;
+    }
+
+    /**
+     * The pool of this JVM, or null if none was installed.
+     */
+    public static synchronized ConnectionPool installed() {
+        return installed;
+    }
+
+    DefaultHttpClient newClient() {
+        DefaultHttpClient client = new DefaultHttpClient(manager);
+        if (keepAliveSeconds == 0) {
+            client.setReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+        } else {
+            client.setKeepAliveStrategy((response, context) -> TimeUnit.SECONDS.toMillis(keepAliveSeconds));
+        }
+        client.addRequestInterceptor((request, context) -> requests.incrementAndGet());
+        return client;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * The connections opened, the other requests were sent on a connection that was open already.
+     */
+    public long connections() {
+        return connections.get();
+    }
+
+    public long connectNanos() {
+        return connectNanos.get();
+    }
+
+    /**
+     * One line with the requests, the connections they took and how long connecting took.
+     */
+    public String report() {
+        long sent = requests();
+        long opened = connections();
+        return String.format("Connection pool: %,d requests over %,d connections, %.1f%% sent on an open"
+                        + " connection; connecting took %.1f ms, %.2f ms per connection (max %d per route,"
+                        + " keep-alive %d s)", sent, opened, sent == 0 ? 0 : 100.0 * (sent - Math.min(sent, opened)) / sent,
+                connectNanos() / 1e6, opened == 0 ? 0 : connectNanos() / 1e6 / opened, maxPerRoute, keepAliveSeconds);
+    }
+
+    private void writeReport() {
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, Collections.singletonList(report()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class CountingOperator extends DefaultClientConnectionOperator {
+
+        CountingOperator(SchemeRegistry schemes) {
+            super(schemes);
+        }
+
+        @Override
+        public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                   HttpContext context, HttpParams params) throws IOException {
+            long start = System.nanoTime();
+            super.openConnection(connection, target, local, context, params);
+            connectNanos.addAndGet(System.nanoTime() - start);
+            connections.incrementAndGet();
+        }
+    }
+}
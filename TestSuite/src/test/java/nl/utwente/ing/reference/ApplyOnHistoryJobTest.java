@@ -0,0 +1,143 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Rules applied on the history in the background must leave every transaction with the category a
+ * sequential pass at the moment the rule was posted gives, whatever happens to the session meanwhile.
+ */
+public class ApplyOnHistoryJobTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2017, 1, 1, 0, 0);
+    private static final String[] DESCRIPTIONS = {"rent", "groceries at the supermarket", "salary", "fight club",
+            "super deal", "market"};
+    private static final String[] IBANS = {"NL01", "NL02", "NL03"};
+
+    @Test
+    public void testStatus() throws InterruptedException {
+        Session session = new Session(1, 0);
+        session.addCategory("rent");
+        session.addTransactions(transactions(new Random(1), 3 * ApplyOnHistoryJob.CHUNK_ROWS));
+        Map<String, Object> rule = session.addCategoryRule("rent", "", "", 1, true);
+        awaitJobs(session);
+
+        Map<String, Object> status = session.historyJob((Integer) rule.get("id"));
+        assertEquals("done", status.get("state"));
+        assertEquals(3 * ApplyOnHistoryJob.CHUNK_ROWS, status.get("total"));
+        assertEquals(3 * ApplyOnHistoryJob.CHUNK_ROWS, status.get("processed"));
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testNoStatusWithoutApplyOnHistory() {
+        Session session = new Session(1, 0);
+        session.addCategory("rent");
+        session.historyJob((Integer) session.addCategoryRule("rent", "", "", 1, false).get("id"));
+    }
+
+    @Test
+    public void testEqualsSequentialPass() throws InterruptedException {
+        for (long seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            // Rules are applied in the background on any history, or right away on any history
+            Session background = new Session(1, 0);
+            Session sequential = new Session(2, Integer.MAX_VALUE);
+            List<Transaction> history = transactions(random, 4 * ApplyOnHistoryJob.CHUNK_ROWS);
+            List<Integer> ids = new ArrayList<>();
+            for (Session session : new Session[]{background, sequential}) {
+                for (int category = 1; category <= 5; category++) {
+                    session.addCategory("category " + category);
+                }
+                ids.clear();
+                for (int id : session.addTransactions(history)) {
+                    ids.add(id);
+                }
+            }
+
+            for (int step = 0; step < 400; step++) {
+                int action = random.nextInt(20);
+                int id = ids.get(random.nextInt(ids.size()));
+                if (action < 3) {
+                    String description = random.nextBoolean()
+                            ? "" : DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+                    String iban = random.nextBoolean() ? "" : IBANS[random.nextInt(IBANS.length)];
+                    String type = random.nextBoolean() ? "" : random.nextBoolean() ? "deposit" : "withdrawal";
+                    int category = 1 + random.nextInt(5);
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.addCategoryRule(description, iban, type, category, true);
+                    }
+                } else if (action < 8) {
+                    Transaction transaction = transaction(random, ids.size());
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.addTransactions(Collections.singletonList(transaction));
+                    }
+                    ids.add(sequential.transactionStore().id(sequential.transactionStore().size() - 1));
+                } else if (action < 12) {
+                    Transaction transaction = transaction(random, id);
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.updateTransaction(id, transaction.getDate(), transaction.getAmount(),
+                                transaction.getExternalIBAN(), transaction.getType(), transaction.getDescription());
+                    }
+                } else if (action < 16) {
+                    int category = 1 + random.nextInt(5);
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.assignCategory(id, category);
+                    }
+                } else if (action < 19) {
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.deleteTransaction(id);
+                    }
+                    ids.remove((Integer) id);
+                } else {
+                    // The last category gets its id back when it is created again
+                    for (Session session : new Session[]{background, sequential}) {
+                        session.deleteCategory(5);
+                        session.addCategory("category 5");
+                    }
+                }
+            }
+            awaitJobs(background);
+
+            TransactionStore expected = sequential.transactionStore();
+            TransactionStore actual = background.transactionStore();
+            assertEquals(expected.size(), actual.size());
+            for (int row = 0; row < expected.size(); row++) {
+                assertEquals(expected.id(row), actual.id(row));
+                assertEquals("Seed " + seed + ", transaction " + expected.id(row),
+                        expected.category(row), actual.category(row));
+            }
+        }
+    }
+
+    private static void awaitJobs(Session session) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (session.hasPendingHistoryJobs() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse("Jobs did not finish", session.hasPendingHistoryJobs());
+    }
+
+    private static List<Transaction> transactions(Random random, int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(transaction(random, i));
+        }
+        return transactions;
+    }
+
+    private static Transaction transaction(Random random, int minutes) {
+        return new Transaction(START.plusMinutes(minutes), 1 + random.nextInt(1000),
+                IBANS[random.nextInt(IBANS.length)],
+                random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL,
+                DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+    }
+}
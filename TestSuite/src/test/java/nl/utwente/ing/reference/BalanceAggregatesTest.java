@@ -0,0 +1,141 @@
+package nl.utwente.ing.reference;
+
+import nl.utwente.ing.reference.BalanceHistory.Interval;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The incrementally kept balance history must always equal a full pass over the transactions.
+ */
+public class BalanceAggregatesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2018, 5, 16, 13, 45, 12);
+
+    @Test
+    public void testEmptySession() {
+        assertMatchesRecompute(new Session(1));
+    }
+
+    @Test
+    public void testOutOfOrderWithinOneHour() {
+        Session session = new Session(1);
+        session.addTransaction(NOW.minusMinutes(5), 100, "NL01", Transaction.DEPOSIT, "");
+        session.addTransaction(NOW.minusMinutes(30), 250, "NL01", Transaction.WITHDRAWAL, "");
+        session.addTransaction(NOW.minusMinutes(30), 40, "NL01", Transaction.DEPOSIT, "");
+        session.addTransaction(NOW.minusMinutes(1), 10, "NL01", Transaction.WITHDRAWAL, "");
+        assertMatchesRecompute(session);
+
+        // The withdrawal came first, so the low of the hour is -250
+        Map<String, Object> hour = session.balanceHistory(Interval.HOUR, 1, NOW).get(0);
+        assertEquals(-250.0, hour.get("low"));
+        assertEquals(-120.0, hour.get("close"));
+        assertEquals(400.0, hour.get("volume"));
+    }
+
+    @Test
+    public void testRandomMutations() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Session session = new Session(1);
+            List<Integer> ids = new ArrayList<>();
+            for (int step = 0; step < 300; step++) {
+                int action = random.nextInt(10);
+                if (ids.isEmpty() || action < 6) {
+                    Map<String, Object> transaction = session.addTransaction(date(random), amount(random),
+                            "NL01", type(random), "");
+                    ids.add((Integer) transaction.get("id"));
+                } else if (action < 8) {
+                    int id = ids.get(random.nextInt(ids.size()));
+                    session.updateTransaction(id, date(random), amount(random), "NL01", type(random), "");
+                } else {
+                    session.deleteTransaction(ids.remove(random.nextInt(ids.size())));
+                }
+                if (step % 25 == 0) {
+                    assertMatchesRecompute(session);
+                }
+            }
+            assertMatchesRecompute(session);
+        }
+    }
+
+    @Test
+    public void testHighMatchesScan() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            BalanceAggregates aggregates = new BalanceAggregates();
+            List<long[]> rows = new ArrayList<>();
+            for (int id = 1; id <= 500; id++) {
+                long date = TransactionStore.toMillis(date(random));
+                long amount = TransactionStore.toCents(amount(random)) * (random.nextBoolean() ? 1 : -1);
+                aggregates.add(id, date, amount);
+                rows.add(new long[]{date, id, amount});
+                if (random.nextInt(5) == 0) {
+                    long[] removed = rows.remove(random.nextInt(rows.size()));
+                    aggregates.remove((int) removed[1], removed[0], removed[2]);
+                }
+                LocalDateTime to = random.nextBoolean() ? date(random) : TransactionStore.toDate(date);
+                long from = TransactionStore.toMillis(to.minusMonths(3));
+                assertEquals("Seed " + seed + ", step " + id, highByScan(rows, from, TransactionStore.toMillis(to)),
+                        aggregates.high(from, TransactionStore.toMillis(to)));
+            }
+        }
+    }
+
+    /**
+     * The highest balance from before {@code from} up to {@code to}, walking the rows by date and id.
+     */
+    private static long highByScan(List<long[]> rows, long from, long to) {
+        List<long[]> sorted = new ArrayList<>(rows);
+        sorted.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long balance = 0;
+        for (long[] row : sorted) {
+            if (row[0] < from) {
+                balance += row[2];
+            }
+        }
+        long high = balance;
+        for (long[] row : sorted) {
+            if (row[0] >= from && row[0] <= to) {
+                balance += row[2];
+                high = Math.max(high, balance);
+            }
+        }
+        return high;
+    }
+
+    private static void assertMatchesRecompute(Session session) {
+        for (Interval interval : Interval.values()) {
+            for (int intervals : new int[]{1, 7, 200}) {
+                assertEquals(interval + " x " + intervals,
+                        BalanceHistory.recompute(session.transactionStore(), interval, intervals, NOW),
+                        session.balanceHistory(interval, intervals, NOW));
+            }
+        }
+    }
+
+    /**
+     * Mostly the last days, so hours and days fill up, and some dates up to years back or ahead.
+     */
+    private static LocalDateTime date(Random random) {
+        if (random.nextInt(4) == 0) {
+            return NOW.minusMinutes(random.nextInt(3 * 365 * 24 * 60) - 365 * 24 * 60);
+        }
+        // Whole minutes, so transactions share dates
+        return NOW.minusMinutes(random.nextInt(7 * 24 * 60));
+    }
+
+    private static double amount(Random random) {
+        return (1 + random.nextInt(100_000)) / 100.0;
+    }
+
+    private static String type(Random random) {
+        return random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL;
+    }
+}
@@ -0,0 +1,94 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The compiled rules must always pick the rule a linear scan in rule order picks.
+ */
+public class CategoryRuleIndexTest {
+
+    private static final String[] TYPES = {"", "", Transaction.DEPOSIT, Transaction.WITHDRAWAL, "transfer"};
+
+    @Test
+    public void testNoRules() {
+        CategoryRuleIndex index = new CategoryRuleIndex(Collections.emptyList());
+        assertNull(index.match("groceries", "NL01", Transaction.DEPOSIT));
+        assertNull(index.match(null, null, Transaction.WITHDRAWAL));
+    }
+
+    @Test
+    public void testFirstMatchWins() {
+        List<CategoryRule> rules = Arrays.asList(
+                new CategoryRule(1, "market", "NL02", "", 1, false),
+                new CategoryRule(2, "super", "", Transaction.WITHDRAWAL, 2, false),
+                new CategoryRule(3, "supermarket", "", "", 3, false),
+                new CategoryRule(4, "", "NL01", "", 4, false),
+                new CategoryRule(5, "", "", "", 5, false));
+        CategoryRuleIndex index = new CategoryRuleIndex(rules);
+
+        // "super" is found inside "supermarket" and comes before it
+        assertSame(rules.get(1), index.match("the supermarket", "NL01", Transaction.WITHDRAWAL));
+        assertSame(rules.get(2), index.match("the supermarket", "NL01", Transaction.DEPOSIT));
+        assertSame(rules.get(0), index.match("the supermarket", "NL02", Transaction.DEPOSIT));
+        assertSame(rules.get(3), index.match("rent", "NL01", Transaction.DEPOSIT));
+        assertSame(rules.get(4), index.match(null, "NL03", Transaction.DEPOSIT));
+    }
+
+    @Test
+    public void testRandomRules() {
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            List<CategoryRule> rules = new ArrayList<>();
+            int count = 1 + random.nextInt(200);
+            for (int id = 1; id <= count; id++) {
+                rules.add(new CategoryRule(id,
+                        random.nextInt(4) == 0 ? "" : text(random, 1 + random.nextInt(4)),
+                        random.nextInt(3) == 0 ? "" : iban(random),
+                        TYPES[random.nextInt(TYPES.length)],
+                        1 + random.nextInt(10), false));
+            }
+            CategoryRuleIndex index = new CategoryRuleIndex(rules);
+            for (int i = 0; i < 500; i++) {
+                String description = random.nextInt(20) == 0 ? null : text(random, random.nextInt(20));
+                String iban = random.nextInt(20) == 0 ? null : iban(random);
+                String type = random.nextBoolean() ? Transaction.DEPOSIT : Transaction.WITHDRAWAL;
+                assertEquals("Seed " + seed + ", " + description + " " + iban + " " + type,
+                        scan(rules, description, iban, type), index.match(description, iban, type));
+            }
+        }
+    }
+
+    private static CategoryRule scan(List<CategoryRule> rules, String description, String iban, String type) {
+        for (CategoryRule rule : rules) {
+            if (rule.matches(description, iban, type)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Text over a three letter alphabet, so descriptions overlap and contain each other a lot.
+     */
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append("abc".charAt(random.nextInt(3)));
+        }
+        return text.toString();
+    }
+
+    private static String iban(Random random) {
+        return "NL0" + random.nextInt(5);
+    }
+}
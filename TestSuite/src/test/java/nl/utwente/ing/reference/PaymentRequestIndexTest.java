@@ -0,0 +1,143 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A deposit pays the oldest open request of its exact amount that is not past its due date, and
+ * requests are filled one after the other.
+ */
+public class PaymentRequestIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2018, 1, 1, 12, 0);
+
+    @Test
+    public void testPartialFulfilmentIsFirstComeFirstServed() {
+        Session session = new Session(1);
+        session.addPaymentRequest("Dinner", START.plusDays(10), 10, 2);
+        session.addPaymentRequest("Drinks", START.plusDays(10), 10, 1);
+        session.addPaymentRequest("Tickets", START.plusDays(10), 12.5, 1);
+        deposit(session, START.plusDays(1), 10);
+        // A withdrawal of the amount pays nothing, nor does a deposit of another amount
+        session.addTransaction(START.plusDays(1), 10, "NL01", Transaction.WITHDRAWAL, "");
+        deposit(session, START.plusDays(1), 10.01);
+        assertEquals(ids(1), paid(session, 0));
+        assertEquals(false, session.paymentRequests().get(0).get("filled"));
+
+        deposit(session, START.plusDays(2), 10);
+        deposit(session, START.plusDays(2), 10);
+        deposit(session, START.plusDays(2), 12.5);
+        deposit(session, START.plusDays(3), 10);
+        assertEquals(ids(1, 4), paid(session, 0));
+        assertEquals(ids(5), paid(session, 1));
+        assertEquals(ids(6), paid(session, 2));
+        assertEquals(3, count(session, UserMessage.REQUEST_FILLED));
+
+        // Deleting a payment opens the request again, before the younger ones
+        session.addPaymentRequest("Taxi", START.plusDays(10), 10, 1);
+        session.deleteTransaction(4);
+        deposit(session, START.plusDays(4), 10);
+        assertEquals(ids(1, 8), paid(session, 0));
+        assertEquals(ids(), paid(session, 3));
+    }
+
+    @Test
+    public void testExpiredRequestsAreNotPaid() {
+        Session session = new Session(1);
+        session.addPaymentRequest("Due tomorrow", START.plusDays(1), 20, 1);
+        session.addPaymentRequest("Due next month", START.plusMonths(1), 20, 1);
+        deposit(session, START.plusDays(2), 20);
+        // Too late for the older request, which expires unfilled
+        assertEquals(ids(), paid(session, 0));
+        assertEquals(ids(1), paid(session, 1));
+        assertEquals(1, count(session, UserMessage.REQUEST_NOT_FILLED));
+        deposit(session, START.plusDays(3), 5);
+        assertEquals(1, count(session, UserMessage.REQUEST_NOT_FILLED));
+        // A deposit dated before the due date still pays it
+        deposit(session, START, 20);
+        assertEquals(ids(3), paid(session, 0));
+    }
+
+    @Test
+    public void testIndex() {
+        PaymentRequestIndex index = new PaymentRequestIndex();
+        PaymentRequest first = new PaymentRequest(1, "", START.plusDays(1), 7.3, 1);
+        PaymentRequest second = new PaymentRequest(2, "", START.plusDays(5), 7.3, 1);
+        index.add(second);
+        index.add(first);
+        index.add(first);
+        assertEquals(2, index.size());
+        assertSame(first, index.match(new Transaction(START, 7.3, "NL01", Transaction.DEPOSIT, "")));
+        assertSame(second, index.match(new Transaction(START.plusDays(3), 7.3, "NL01", Transaction.DEPOSIT, "")));
+        assertNull(index.match(new Transaction(START.plusDays(6), 7.3, "NL01", Transaction.DEPOSIT, "")));
+        // An older request due later goes before a younger one due sooner
+        PaymentRequest third = new PaymentRequest(3, "", START.plusDays(2), 7.3, 1);
+        index.add(third);
+        assertSame(first, index.match(new Transaction(START, 7.3, "NL01", Transaction.DEPOSIT, "")));
+        assertSame(second, index.match(new Transaction(START.plusDays(2), 7.3, "NL01", Transaction.DEPOSIT, "")));
+        index.remove(second);
+        assertSame(third, index.match(new Transaction(START.plusDays(2), 7.3, "NL01", Transaction.DEPOSIT, "")));
+        index.remove(first);
+        index.remove(third);
+        // Removing what is not there changes nothing
+        index.remove(second);
+        assertEquals(0, index.size());
+        assertNull(index.match(new Transaction(START, 7.3, "NL01", Transaction.DEPOSIT, "")));
+    }
+
+    @Test
+    public void testMatchesTheOldestRequestInTime() {
+        // Against a walk over every open request, through requests coming and going in any order
+        PaymentRequestIndex index = new PaymentRequestIndex();
+        List<PaymentRequest> open = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int id = 1; id <= 2000; id++) {
+            if (!open.isEmpty() && random.nextInt(3) == 0) {
+                PaymentRequest removed = open.remove(random.nextInt(open.size()));
+                index.remove(removed);
+            }
+            PaymentRequest request = new PaymentRequest(id, "", START.plusDays(random.nextInt(30)),
+                    1 + random.nextInt(3), 1);
+            open.add(request);
+            index.add(request);
+            Transaction deposit = new Transaction(START.plusDays(random.nextInt(30)), 1 + random.nextInt(3), "NL01",
+                    Transaction.DEPOSIT, "");
+            PaymentRequest oldest = open.stream().filter(candidate -> candidate.accepts(deposit))
+                    .min(Comparator.comparingInt(PaymentRequest::getId)).orElse(null);
+            assertSame(oldest, index.match(deposit));
+        }
+        assertEquals(open.size(), index.size());
+    }
+
+    private static void deposit(Session session, LocalDateTime date, double amount) {
+        session.addTransaction(date, amount, "NL01", Transaction.DEPOSIT, "");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> paid(Session session, int request) {
+        List<Map<String, Object>> transactions =
+                (List<Map<String, Object>>) session.paymentRequests().get(request).get("transactions");
+        return transactions.stream().map(transaction -> ((Number) transaction.get("id")).intValue())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(Integer... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private static long count(Session session, String text) {
+        return session.messages().stream().filter(message -> message.get("message").equals(text)).count();
+    }
+}
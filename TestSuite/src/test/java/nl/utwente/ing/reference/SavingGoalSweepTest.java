@@ -0,0 +1,116 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Saving goals must save once for every month, whether the month sweep or a transaction gets there
+ * first, and catching up on many months at once must end where saving month by month does.
+ */
+public class SavingGoalSweepTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 15, 12, 0);
+
+    @Test
+    public void testCatchUpOverManySkippedMonths() {
+        Session caughtUp = sessionWithGoals();
+        // Ten years without a transaction
+        caughtUp.addTransaction(START.plusYears(10), 1, "NL01", Transaction.DEPOSIT, "");
+        // The first goal is reached after 6 months; the second saves while 500 is left, for 4 months
+        assertEquals(300.0, balance(caughtUp, 0), 1e-9);
+        assertEquals(400.0, balance(caughtUp, 1), 1e-9);
+        assertEquals(301.0, caughtUp.transaction(2).get("balance"));
+
+        Session monthByMonth = sessionWithGoals();
+        YearMonth month = YearMonth.from(START);
+        for (int i = 0; i < 120; i++) {
+            month = month.plusMonths(1);
+            monthByMonth.sweepSavingGoals(month);
+        }
+        monthByMonth.addTransaction(START.plusYears(10), 1, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(caughtUp.savingGoals(), monthByMonth.savingGoals());
+        assertEquals(caughtUp.transaction(2).get("balance"), monthByMonth.transaction(2).get("balance"));
+        assertEquals(goalMessages(caughtUp), goalMessages(monthByMonth));
+        assertEquals(1, goalMessages(caughtUp));
+    }
+
+    @Test
+    public void testStopLeavesNoThreads() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        SavingGoalSweep sweep = new SavingGoalSweep(new SessionRegistry(0), pool, 16);
+        sweep.start();
+        assertTrue(sweepThreads() > 0);
+        sweep.stop();
+        assertTrue(pool.isShutdown());
+        for (int i = 0; i < 100 && sweepThreads() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, sweepThreads());
+    }
+
+    @Test
+    public void testSweepSavesEveryMonthOnce() {
+        SessionRegistry registry = new SessionRegistry(0);
+        for (int i = 0; i < 1000; i++) {
+            Session session = registry.create();
+            session.addTransaction(START, 1000, "NL01", Transaction.DEPOSIT, "");
+            session.addSavingGoal("Bike", 10_000, 10, 0);
+            session.addSavingGoal("Holiday", 10_000, 5, 0);
+        }
+        // Nothing to save without transactions or goals
+        registry.create();
+        registry.create().addTransaction(START, 1000, "NL01", Transaction.DEPOSIT, "");
+        SavingGoalSweep sweep = new SavingGoalSweep(registry, new ForkJoinPool(4), 16);
+
+        YearMonth april = YearMonth.from(START).plusMonths(3);
+        assertEquals(1000 * 2 * 3, sweep.sweep(april));
+        assertEquals(0, sweep.sweep(april));
+        for (Session session : registry.all()) {
+            if (!session.savingGoals().isEmpty()) {
+                assertEquals(30.0, balance(session, 0), 1e-9);
+                assertEquals(15.0, balance(session, 1), 1e-9);
+            }
+        }
+
+        Session session = registry.all().stream().filter(s -> !s.savingGoals().isEmpty()).findFirst().get();
+        // April was saved for by the sweep already, May by the first transaction in May
+        session.addTransaction(april.atDay(10).atStartOfDay(), 1, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(30.0, balance(session, 0), 1e-9);
+        session.addTransaction(april.plusMonths(1).atDay(10).atStartOfDay(), 1, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(40.0, balance(session, 0), 1e-9);
+        // May and June for the other sessions, only June for this one
+        assertEquals((999 * 2 + 1) * 2, sweep.sweep(april.plusMonths(2)));
+    }
+
+    private static Session sessionWithGoals() {
+        Session session = new Session(1);
+        session.addTransaction(START, 1000, "NL01", Transaction.DEPOSIT, "");
+        session.addSavingGoal("Bike", 300, 50, 0);
+        session.addSavingGoal("House", 1_000_000, 100, 500);
+        return session;
+    }
+
+    private static double balance(Session session, int goal) {
+        return ((Number) session.savingGoals().get(goal).get("balance")).doubleValue();
+    }
+
+    private static long sweepThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().equals("saving-goal-sweep"))
+                .count();
+    }
+
+    private static long goalMessages(Session session) {
+        List<Map<String, Object>> messages = session.messages();
+        return messages.stream().filter(message -> message.get("message").toString().startsWith("Saving goal"))
+                .count();
+    }
+}
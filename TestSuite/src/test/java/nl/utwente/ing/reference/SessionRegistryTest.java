@@ -0,0 +1,83 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Resolving the session of a request, with and without the cache: the rules of testGetTransactions
+ * for the X-session-ID header and the session_id parameter, and removed sessions.
+ */
+public class SessionRegistryTest {
+
+    @Test
+    public void testHeaderOrParameter() {
+        for (int cacheSize : new int[]{0, 2, 4096}) {
+            SessionRegistry registry = new SessionRegistry(cacheSize);
+            Session first = registry.create();
+            Session third = sessions(registry, 2);
+            // Twice, the second time from the cache
+            for (int i = 0; i < 2; i++) {
+                assertSame(first, registry.resolve("1", null));
+                assertSame(first, registry.resolve(null, "1"));
+                assertSame(first, registry.resolve(" 1 ", null));
+                assertSame(third, registry.resolve("3", null));
+                assertUnauthorized(registry, "3", "1");
+                assertUnauthorized(registry, "1", "1");
+                assertUnauthorized(registry, null, null);
+                assertUnauthorized(registry, "-1", null);
+                assertUnauthorized(registry, null, "4");
+                assertUnauthorized(registry, "one", null);
+                assertUnauthorized(registry, "", null);
+            }
+        }
+    }
+
+    @Test
+    public void testRemovedSession() {
+        SessionRegistry registry = new SessionRegistry(4096);
+        sessions(registry, 3);
+        registry.resolve("2", null);
+        registry.resolve(null, "02");
+        registry.remove(2);
+        assertUnauthorized(registry, "2", null);
+        assertUnauthorized(registry, null, "02");
+        registry.resolve("3", null);
+    }
+
+    @Test
+    public void testCollisions() {
+        // Far more ids than slots, every lookup must still find its own session
+        SessionRegistry registry = new SessionRegistry(8);
+        Session[] sessions = new Session[1000];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = registry.create();
+        }
+        for (int round = 0; round < 3; round++) {
+            for (Session session : sessions) {
+                assertSame(session, registry.resolve(Integer.toString(session.getId()), null));
+            }
+        }
+    }
+
+    /**
+     * Creates {@code count} sessions and returns the last.
+     */
+    private static Session sessions(SessionRegistry registry, int count) {
+        Session session = null;
+        for (int i = 0; i < count; i++) {
+            session = registry.create();
+        }
+        return session;
+    }
+
+    private static void assertUnauthorized(SessionRegistry registry, String header, String parameter) {
+        try {
+            registry.resolve(header, parameter);
+            fail("Resolved header " + header + ", parameter " + parameter);
+        } catch (UnauthorizedException e) {
+            // Expected
+        }
+    }
+}
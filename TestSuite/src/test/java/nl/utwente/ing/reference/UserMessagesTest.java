@@ -0,0 +1,149 @@
+package nl.utwente.ing.reference;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The messages a transaction causes depend on what happened in the session before it, which is kept
+ * as the session changes rather than looked up per transaction.
+ */
+public class UserMessagesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2018, 1, 1, 12, 0);
+
+    @Test
+    public void testNegativeBalance() {
+        Session session = new Session(1);
+        session.addTransaction(START, 150, "NL01", Transaction.DEPOSIT, "");
+        session.addTransaction(START, 250, "NL01", Transaction.WITHDRAWAL, "");
+        assertEquals(texts(UserMessage.NEW_HIGH, UserMessage.NEGATIVE_BALANCE), texts(session));
+    }
+
+    @Test
+    public void testSavingGoalReached() {
+        Session session = new Session(1);
+        session.addTransaction(START.minusMonths(1), 500, "NL01", Transaction.DEPOSIT, "");
+        session.readMessage(1);
+        session.addSavingGoal("Test", 200, 200, 0);
+        session.addTransaction(START, 500, "NL01", Transaction.DEPOSIT, "");
+        // The month passes before the deposit, so the goal is reached first
+        assertEquals(texts(UserMessage.NEW_HIGH, "Saving goal Test reached", UserMessage.NEW_HIGH), texts(session));
+        assertEquals(800.0, session.transaction(2).get("balance"));
+    }
+
+    @Test
+    public void testNewHighOnlyWhileNoneIsUnread() {
+        Session session = new Session(1);
+        session.addTransaction(START, 100, "NL01", Transaction.DEPOSIT, "");
+        session.addTransaction(START.plusDays(1), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(texts(UserMessage.NEW_HIGH), texts(session));
+
+        session.readMessage(1);
+        // A deposit that does not reach the high of the months before it is no new high
+        session.addTransaction(START.plusDays(2), 150, "NL01", Transaction.WITHDRAWAL, "");
+        session.addTransaction(START.plusDays(3), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(texts(UserMessage.NEW_HIGH), texts(session));
+        session.addTransaction(START.plusDays(4), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(texts(UserMessage.NEW_HIGH, UserMessage.NEW_HIGH), texts(session));
+
+        // Reading a message twice does not count twice
+        session.readMessage(1);
+        session.addTransaction(START.plusDays(5), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(texts(UserMessage.NEW_HIGH, UserMessage.NEW_HIGH), texts(session));
+    }
+
+    @Test
+    public void testNewHighOverThreeMonths() {
+        Session session = new Session(1);
+        session.addTransaction(START, 1000, "NL01", Transaction.DEPOSIT, "");
+        session.readMessage(1);
+        session.addTransaction(START.plusDays(1), 900, "NL01", Transaction.WITHDRAWAL, "");
+        // 200 is below the 1000 of two months ago
+        session.addTransaction(START.plusMonths(2), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(1, session.messages().size());
+        // And above everything of the three months before
+        session.addTransaction(START.plusMonths(5), 100, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(texts(UserMessage.NEW_HIGH, UserMessage.NEW_HIGH), texts(session));
+    }
+
+    @Test
+    public void testSavingGoalsLowerTheBalance() {
+        Session session = new Session(1);
+        session.addSavingGoal("bike", 100, 60, 0);
+        session.addSavingGoal("car", 1000, 20, -100);
+        session.addTransaction(START, 50, "NL01", Transaction.DEPOSIT, "");
+        // A month later 80 is put aside, leaving -40 after the withdrawal
+        Map<String, Object> transaction = session.addTransaction(START.plusMonths(1), 10, "NL01",
+                Transaction.WITHDRAWAL, "");
+        assertEquals(-40.0, transaction.get("balance"));
+
+        // Deleting a goal returns its money
+        session.deleteSavingGoal(1);
+        transaction = session.addTransaction(START.plusMonths(1), 10, "NL01", Transaction.DEPOSIT, "");
+        assertEquals(30.0, transaction.get("balance"));
+    }
+
+    @Test
+    public void testPaymentRequestOpenedByDeletion() {
+        Session session = new Session(1);
+        session.addPaymentRequest("dinner", START.plusDays(10), 20, 1);
+        session.addPaymentRequest("drinks", START.plusDays(10), 20, 1);
+        int paid = (Integer) session.addTransaction(START, 20, "NL01", Transaction.DEPOSIT, "").get("id");
+        assertEquals(texts(UserMessage.REQUEST_FILLED), requestTexts(session));
+
+        // The first request is open again and takes the next deposit before the second one
+        session.deleteTransaction(paid);
+        session.addTransaction(START.plusDays(1), 20, "NL01", Transaction.DEPOSIT, "");
+        List<Map<String, Object>> requests = session.paymentRequests();
+        assertEquals(true, requests.get(0).get("filled"));
+        assertEquals(false, requests.get(1).get("filled"));
+
+        // Only the second request expires, once
+        session.addTransaction(START.plusDays(11), 1, "NL01", Transaction.WITHDRAWAL, "");
+        session.addTransaction(START.plusDays(12), 1, "NL01", Transaction.WITHDRAWAL, "");
+        assertEquals(texts(UserMessage.REQUEST_FILLED, UserMessage.REQUEST_FILLED, UserMessage.REQUEST_NOT_FILLED),
+                requestTexts(session));
+    }
+
+    @Test
+    public void testPaymentRequestExpiresAfterReopening() {
+        Session session = new Session(1);
+        session.addPaymentRequest("dinner", START.plusDays(10), 20, 1);
+        int paid = (Integer) session.addTransaction(START, 20, "NL01", Transaction.DEPOSIT, "").get("id");
+        // Passing the due date while filled does not report it
+        session.addTransaction(START.plusDays(11), 1, "NL01", Transaction.WITHDRAWAL, "");
+        assertEquals(texts(UserMessage.REQUEST_FILLED), requestTexts(session));
+
+        session.deleteTransaction(paid);
+        session.addTransaction(START.plusDays(12), 1, "NL01", Transaction.WITHDRAWAL, "");
+        assertEquals(texts(UserMessage.REQUEST_FILLED, UserMessage.REQUEST_NOT_FILLED), requestTexts(session));
+    }
+
+    private static List<String> texts(Session session) {
+        List<String> texts = new ArrayList<>();
+        for (Map<String, Object> message : session.messages()) {
+            texts.add((String) message.get("message"));
+        }
+        return texts;
+    }
+
+    private static List<String> requestTexts(Session session) {
+        List<String> texts = texts(session);
+        texts.removeIf(text -> !text.contains("payment request"));
+        return texts;
+    }
+
+    private static List<String> texts(String... texts) {
+        List<String> list = new ArrayList<>();
+        for (String text : texts) {
+            list.add(text);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,61 @@
+package nl.utwente.ing.testsuite.filter;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Budgets are read per endpoint with a default for the rest, and a malformed line names the file and
+ * the line it is on.
+ */
+public class LatencyBudgetsTest {
+
+    @Test
+    public void testParse() throws IOException {
+        LatencyBudgets budgets = parse("# budgets\n"
+                + "\n"
+                + "default 500\n"
+                + "GET /transactions/{id} 200\n"
+                + "  POST /transactions   300  \n");
+        assertEquals(200, budgets.millis("GET /transactions/{id}"));
+        assertEquals(300, budgets.millis("POST /transactions"));
+        assertEquals(500, budgets.millis("GET /categories"));
+        assertEquals(2, budgets.budgets().size());
+    }
+
+    @Test
+    public void testWithoutDefault() throws IOException {
+        assertEquals(Long.MAX_VALUE, parse("GET /transactions 200\n").millis("GET /categories"));
+    }
+
+    @Test
+    public void testBudgetMissing() throws IOException {
+        assertRejected("default 500\nGET/transactions\n", "budgets.txt:2:", "GET/transactions");
+    }
+
+    @Test
+    public void testBudgetNotANumber() throws IOException {
+        assertRejected("# budgets\nGET /transactions 200ms\n", "budgets.txt:2:", "GET /transactions 200ms");
+    }
+
+    private static void assertRejected(String text, String... fragments) throws IOException {
+        try {
+            parse(text);
+            fail("Parsed " + text);
+        } catch (IllegalArgumentException e) {
+            for (String fragment : fragments) {
+                assertTrue(e.getMessage(), e.getMessage().contains(fragment));
+            }
+        }
+    }
+
+    private static LatencyBudgets parse(String text) throws IOException {
+        return LatencyBudgets.parse("budgets.txt", new BufferedReader(new StringReader(text)));
+    }
+}
@@ -0,0 +1,92 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Generated data must be the same for the same seed, whatever else is generated meanwhile, and valid
+ * for the API.
+ */
+public class DataGeneratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2017, 1, 1, 0, 0);
+
+    @Test
+    public void testSameSeedSameData() {
+        DataGenerator first = new DataGenerator(7);
+        DataGenerator second = new DataGenerator(7);
+        // Goals and requests drawn in between do not change the transactions
+        second.savingGoal();
+        second.paymentRequest(START);
+        assertEquals(strings(first.transactions(START, 5000, 10)), strings(second.transactions(START, 5000, 10)));
+        // The second goal of each
+        first.savingGoal();
+        assertEquals(first.savingGoal().toString(), second.savingGoal().toString());
+        assertEquals(first.categoryRules(new int[8]).toString(), second.categoryRules(new int[8]).toString());
+        assertNotEquals(strings(first.transactions(START, 100, 10)),
+                strings(new DataGenerator(8).transactions(START, 100, 10)));
+    }
+
+    @Test
+    public void testTransactions() {
+        LocalDateTime previous = START;
+        int salaries = 0;
+        int rents = 0;
+        Iterator<JSONObject> transactions = new DataGenerator(42).transactions(START, 20_000, 50);
+        while (transactions.hasNext()) {
+            JSONObject transaction = transactions.next();
+            LocalDateTime date = LocalDateTime.parse(transaction.getString("date"));
+            assertFalse(date.isBefore(previous));
+            previous = date;
+            double amount = transaction.getDouble("amount");
+            assertTrue(amount > 0);
+            assertEquals(amount, Math.round(amount * 100) / 100.0, 0);
+            assertTrue(DataGenerator.isValidIban(transaction.getString("externalIBAN")));
+            String type = transaction.getString("type");
+            assertTrue(type.equals("deposit") || type.equals("withdrawal"));
+            String description = transaction.getString("description");
+            salaries += description.startsWith("Salaris") ? 1 : 0;
+            rents += description.startsWith("Huur") ? 1 : 0;
+        }
+        // 20,000 card payments at 50 a day take a bit over a year, with a salary and a rent per month
+        int months = (int) ChronoUnit.MONTHS.between(START, previous);
+        assertTrue(salaries + " salaries in " + months + " months", Math.abs(salaries - months) <= 1);
+        assertTrue(rents + " rents in " + months + " months", Math.abs(rents - months) <= 1);
+    }
+
+    @Test
+    public void testIban() {
+        assertEquals("NL91ABNA0417164300", DataGenerator.iban("ABNA", 417164300));
+        assertTrue(DataGenerator.isValidIban("NL39RABO0300065264"));
+        assertFalse(DataGenerator.isValidIban("NL38RABO0300065264"));
+    }
+
+    @Test
+    public void testWriteNdjson() throws IOException {
+        StringWriter out = new StringWriter();
+        long written = DataGenerator.writeNdjson(new DataGenerator(1).transactions(START, 1000, 5), out);
+        assertEquals(1000, written);
+        String[] lines = out.toString().split("\n");
+        assertEquals(1000, lines.length);
+        assertEquals(strings(new DataGenerator(1).transactions(START, 1000, 5)).get(999), lines[999]);
+    }
+
+    private static List<String> strings(Iterator<JSONObject> transactions) {
+        List<String> strings = new ArrayList<>();
+        transactions.forEachRemaining(transaction -> strings.add(transaction.toString()));
+        return strings;
+    }
+}
@@ -0,0 +1,72 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The histograms written at the end of a run must hold every recorded request, in a form that can be
+ * read back to compare builds.
+ */
+public class HistogramFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int millis = 1; millis <= 100; millis++) {
+            recorder.record("GET /transactions/{id}", millis * 1_000_000L);
+        }
+        recorder.record("POST /transactions", 5_000_000L);
+        Path directory = folder.getRoot().toPath().resolve("histograms");
+        HistogramFiles.write(recorder.histograms(), directory);
+
+        String text = new String(Files.readAllBytes(directory.resolve(HistogramFiles.JSON)),
+                StandardCharsets.UTF_8);
+        JSONObject json = new JSONObject(text);
+        assertEquals(2, json.length());
+        // Endpoints are written in order, for diffs across builds
+        assertTrue(text.indexOf("GET /transactions/{id}") < text.indexOf("POST /transactions"));
+
+        JSONObject get = json.getJSONObject("GET /transactions/{id}");
+        assertEquals(100, get.getLong("count"));
+        assertEquals(50, get.getDouble("p50Ms"), 0.1);
+        assertEquals(99, get.getDouble("p99Ms"), 0.1);
+        assertEquals(100, get.getDouble("maxMs"), 0.1);
+
+        Map<String, Histogram> read = HistogramFiles.read(directory.resolve(HistogramFiles.JSON));
+        assertEquals(recorder.histograms().keySet(), read.keySet());
+        assertEquals(recorder.histogram("GET /transactions/{id}"), read.get("GET /transactions/{id}"));
+
+        List<String> files = new ArrayList<>();
+        Files.list(directory).forEach(file -> files.add(file.getFileName().toString()));
+        assertTrue(files.contains("GET_transactions_id.hgrm"));
+        assertTrue(files.contains("POST_transactions.hgrm"));
+        String hgrm = new String(Files.readAllBytes(directory.resolve("POST_transactions.hgrm")),
+                StandardCharsets.UTF_8);
+        assertTrue(hgrm.matches("(?s).*#\\[Max +=  +5\\.\\d+, Total count += +1\\].*"));
+    }
+
+    @Test
+    public void testFileName() {
+        assertEquals("GET_transactions_id.hgrm", HistogramFiles.fileName("GET /transactions/{id}"));
+        assertEquals("POST_transactions_batch.hgrm", HistogramFiles.fileName("POST /transactions:batch"));
+        assertEquals("GET_categoryRules_id_applyOnHistory.hgrm",
+                HistogramFiles.fileName("GET /categoryRules/{id}/applyOnHistory"));
+    }
+}
@@ -0,0 +1,64 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A closed-loop run must abort as soon as the setup of one of its users fails, instead of measuring
+ * the users that were set up.
+ */
+public class LoadRunTest {
+
+    private static final RequestDriver OK = new RequestDriver() {
+        @Override
+        public CompletableFuture<DriverResponse> send(DriverRequest request) {
+            return CompletableFuture.completedFuture(
+                    new DriverResponse(request.expectedStatus(), "{}", Collections.emptyMap()));
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Test
+    public void testFailedSetupAbortsRun() throws InterruptedException {
+        AtomicInteger setUp = new AtomicInteger();
+        Scenario setup = user -> setUp.incrementAndGet() == 3
+                ? failed(new IllegalStateException("Seeding returned 500"))
+                : CompletableFuture.completedFuture(null);
+        Scenario iteration = user -> CompletableFuture.completedFuture(null);
+        LoadRun run = new LoadRun(OK, 10, 30, 30, 42);
+        long start = System.nanoTime();
+        try {
+            run.run(setup, iteration);
+            fail("The run went on after a failed setup");
+        } catch (IllegalStateException e) {
+            assertEquals("Seeding returned 500", e.getCause().getMessage());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testRunWithoutFailures() throws InterruptedException {
+        AtomicInteger iterations = new AtomicInteger();
+        LoadRun run = new LoadRun(OK, 4, 0, 1, 42);
+        run.run(user -> CompletableFuture.completedFuture(null),
+                user -> CompletableFuture.runAsync(iterations::incrementAndGet));
+        assertTrue(iterations.get() > 0);
+    }
+
+    private static CompletableFuture<Void> failed(Throwable failure) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+}
@@ -0,0 +1,167 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * An open-loop run must keep sending at its rate while the server stalls, and charge every request
+ * that was due during the stall for the time it waited.
+ */
+public class OpenLoopRunTest {
+
+    @Test
+    public void testStallIsMeasuredFromIntendedSendTime() throws InterruptedException {
+        try (StallingDriver driver = new StallingDriver(TimeUnit.MILLISECONDS.toNanos(300),
+                TimeUnit.MILLISECONDS.toNanos(500))) {
+            OpenLoopRun run = new OpenLoopRun(driver, 1000, 0, 1, 10_000);
+            run.run(random -> 1, RequestMix.transactions(), 42);
+
+            long recorded = 0;
+            long waited = 0;
+            for (Histogram histogram : run.recorder().histograms().values()) {
+                recorded += histogram.getTotalCount();
+                waited += histogram.getCountBetweenValues(TimeUnit.MILLISECONDS.toNanos(100), Long.MAX_VALUE);
+            }
+            // Every request was sent on schedule, the stall did not hold the next ones back
+            assertEquals(1000, run.sent());
+            assertEquals(1000, recorded);
+            assertEquals(0, run.dropped());
+            // About 100 of the 200 requests due during the stall waited more than 100 ms; a closed loop
+            // would have had only the one request in flight at the start of the stall waiting
+            assertTrue("Waited: " + waited, waited >= 80 && waited <= 120);
+        }
+    }
+
+    @Test
+    public void testFailsBeyondMaxInFlight() throws InterruptedException {
+        try (StallingDriver driver = new StallingDriver(0, TimeUnit.MILLISECONDS.toNanos(600))) {
+            OpenLoopRun run = new OpenLoopRun(driver, 1000, 0, 1, 100);
+            try {
+                run.run(random -> 1, RequestMix.transactions(), 42);
+                fail("An arrival was dropped and the run went on");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("100 requests were in flight"));
+            }
+            // 100 go out during the stall and are answered when it ends, the next one fails the run
+            assertEquals(101, run.sent() + run.dropped());
+            assertEquals(1, run.dropped());
+            assertEquals(1, errors(run));
+            assertEquals(100, recorded(run));
+        }
+    }
+
+    @Test
+    public void testUnansweredRequestsAreRecorded() throws InterruptedException {
+        long drain = TimeUnit.MILLISECONDS.toNanos(200);
+        try (StallingDriver driver = new StallingDriver(TimeUnit.MILLISECONDS.toNanos(700), Long.MAX_VALUE)) {
+            OpenLoopRun run = new OpenLoopRun(driver, RateProfile.constant(1000, 1), 0, 10_000, drain);
+            run.run(random -> 1, RequestMix.transactions(), 42);
+            // What was sent after the server stopped answering is charged for the wait until the drain ran out
+            assertTrue("Unanswered: " + run.unanswered(), run.unanswered() >= 250 && run.unanswered() <= 400);
+            assertEquals(run.unanswered(), errors(run));
+            assertEquals(1000, recorded(run));
+            long waited = 0;
+            for (Histogram histogram : run.recorder().histograms().values()) {
+                waited += histogram.getCountBetweenValues(drain, Long.MAX_VALUE);
+            }
+            assertEquals(run.unanswered(), waited);
+        }
+    }
+
+    @Test
+    public void testMixIsDeterministic() {
+        RequestMix mix = RequestMix.transactions();
+        List<DriverRequest> first = requests(mix, 42);
+        List<DriverRequest> again = requests(mix, 42);
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).endpoint(), again.get(i).endpoint());
+            if (first.get(i).body() != null) {
+                // New transactions are dated when they are sent
+                assertEquals(new JSONObject(first.get(i).body()).getDouble("amount"),
+                        new JSONObject(again.get(i).body()).getDouble("amount"), 0);
+            }
+        }
+        assertEquals(0.6, share(first, "GET /transactions"), 0.02);
+        assertEquals(0.3, share(first, "POST /transactions"), 0.02);
+        assertEquals(0.1, share(first, "GET /balance/history"), 0.02);
+        assertEquals(0.1, mix.share("GET /balance/history"), 1e-9);
+    }
+
+    private static long errors(OpenLoopRun run) {
+        long errors = 0;
+        for (String endpoint : run.recorder().endpoints()) {
+            errors += run.recorder().errorCount(endpoint);
+        }
+        return errors;
+    }
+
+    private static long recorded(OpenLoopRun run) {
+        long recorded = 0;
+        for (Histogram histogram : run.recorder().histograms().values()) {
+            recorded += histogram.getTotalCount();
+        }
+        return recorded;
+    }
+
+    private static List<DriverRequest> requests(RequestMix mix, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<DriverRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            requests.add(mix.next(1, random));
+        }
+        return requests;
+    }
+
+    private static double share(List<DriverRequest> requests, String endpoint) {
+        return requests.stream().filter(request -> request.endpoint().equals(endpoint)).count()
+                / (double) requests.size();
+    }
+
+    /**
+     * Answers after a millisecond, except that nothing is answered between {@code stallStart} and
+     * {@code stallEnd} after it was created: what is sent then is answered when the stall ends, or
+     * never when it does not end.
+     */
+    private static final class StallingDriver implements RequestDriver {
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        private final long created = System.nanoTime();
+        private final long stallStart;
+        private final long stallEnd;
+
+        StallingDriver(long stallStart, long stallEnd) {
+            this.stallStart = stallStart;
+            this.stallEnd = stallEnd;
+        }
+
+        @Override
+        public CompletableFuture<DriverResponse> send(DriverRequest request) {
+            long now = System.nanoTime() - created;
+            long delay = now >= stallStart && now < stallEnd ? stallEnd - now : TimeUnit.MILLISECONDS.toNanos(1);
+            CompletableFuture<DriverResponse> response = new CompletableFuture<>();
+            executor.schedule(() -> response.complete(
+                    new DriverResponse(request.expectedStatus(), "{}", Collections.emptyMap())),
+                    delay, TimeUnit.NANOSECONDS);
+            return response;
+        }
+
+        @Override
+        public void close() {
+            // Answers that are still scheduled will not be waited for
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The offsets of a scan double up to the last page and there are always at least two of them; a
+ * session of one page or less cannot be scanned.
+ */
+public class PaginationScanOffsetsTest {
+
+    private static final RequestDriver OK = new RequestDriver() {
+        @Override
+        public CompletableFuture<DriverResponse> send(DriverRequest request) {
+            return CompletableFuture.completedFuture(new DriverResponse(200, "[]", Collections.emptyMap()));
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Test
+    public void testOffsets() {
+        PaginationScan scan = new PaginationScan(OK, 20, 1);
+        assertEquals(Arrays.asList(0, 20, 40, 80, 160, 180), offsets(scan.scan(1, 200)));
+        assertEquals(Arrays.asList(0, 1), offsets(scan.scan(1, 21)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnePageIsRejected() {
+        new PaginationScan(OK, 20, 1).scan(1, 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLessThanOnePageIsRejected() {
+        new PaginationScan(OK, 20, 1).scan(1, 5);
+    }
+
+    private static List<Integer> offsets(List<PaginationScan.Point> points) {
+        return points.stream().map(point -> point.offset).collect(Collectors.toList());
+    }
+}
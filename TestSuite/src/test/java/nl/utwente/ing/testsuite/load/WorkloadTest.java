@@ -0,0 +1,163 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.junit.Test;
+
+import org.json.JSONObject;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A workload must compile to the mix and schedule it describes, the same on every build.
+ */
+public class WorkloadTest {
+
+    private static final String DASHBOARD = String.join("\n",
+            "name: test",
+            "seed: 7",
+            "warmup: 1",
+            "operations:",
+            "  - {operation: GET /transactions, weight: 3, params: {limit: 20, offset: 0}}",
+            "  - {operation: POST /savingGoals, weight: 1}",
+            "arrivals:",
+            "  - {rampTo: 100, seconds: 10}",
+            "  - {hold: 5}");
+
+    @Test
+    public void testRampSendsItsAverageRate() {
+        RateProfile profile = RateProfile.builder().rampTo(100, 10).hold(5).build();
+        // 500 arrivals while the rate climbs to 100 per second, then 100 per second
+        assertEquals(1000, profile.arrivals());
+        assertEquals(TimeUnit.SECONDS.toNanos(15), profile.durationNanos());
+        // 50 t^2 / 10 = 125 after 5 seconds
+        assertEquals(TimeUnit.SECONDS.toNanos(5), profile.intendedNanos(125), 1000);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), profile.intendedNanos(500), 1000);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10_010), profile.intendedNanos(501), 1000);
+        assertEquals(-1, profile.intendedNanos(1000));
+        long previous = -1;
+        for (int n = 0; n < 1000; n++) {
+            assertTrue(profile.intendedNanos(n) > previous || n == 0);
+            previous = profile.intendedNanos(n);
+        }
+
+        RateProfile down = RateProfile.builder().rampTo(200, 0).rampTo(0, 2).build();
+        assertEquals(200, down.arrivals());
+        // Half of the requests go out in the first 2 - sqrt(2) seconds
+        assertEquals((long) ((2 - Math.sqrt(2)) * 1e9), down.intendedNanos(100), 1000);
+    }
+
+    @Test
+    public void testWorkloadIsDeterministic() {
+        Workload workload = Workload.fromYaml(new StringReader(DASHBOARD));
+        assertTrue(workload.openLoop());
+        assertEquals(0.75, workload.mix().share("GET /transactions"), 1e-9);
+        List<DriverRequest> first = requests(workload);
+        List<DriverRequest> again = requests(Workload.fromYaml(new StringReader(DASHBOARD)));
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).endpoint(), again.get(i).endpoint());
+            assertEquals(first.get(i).params(), again.get(i).params());
+            assertEquals(first.get(i).body(), again.get(i).body());
+        }
+        DriverRequest list = first.stream().filter(request -> request.method().equals("GET")).findFirst().get();
+        assertEquals("/transactions", list.path());
+        assertEquals("[limit, offset]", list.params().keySet().toString());
+        assertEquals(20, list.params().get("limit"));
+    }
+
+    @Test
+    public void testBundledWorkloads() {
+        for (String name : new String[]{"dashboard", "statement-import", "month-end"}) {
+            Workload workload = Workload.load(name);
+            assertEquals(name, workload.name());
+            assertEquals(!name.equals("month-end"), workload.openLoop());
+        }
+        Workload monthEnd = Workload.builder("month-end")
+                .operation("GET /savingGoals", 1)
+                .users(10).rampUp(5).thinkTime(500).duration(60).warmup(10)
+                .build();
+        assertFalse(monthEnd.openLoop());
+    }
+
+    @Test
+    public void testRulesGoToCategoryOfPreparedSession() {
+        Workload workload = Workload.load("statement-import");
+        int session = 1;
+        try {
+            rules(workload, session);
+            fail("A rule was posted to a category of an unprepared session");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not prepared"));
+        }
+        List<DriverRequest> sent = new ArrayList<>();
+        Function<DriverRequest, CompletableFuture<DriverResponse>> send = request -> {
+            sent.add(request);
+            return CompletableFuture.completedFuture(new DriverResponse(201, "{\"id\": 77, \"name\": \"rules\"}"));
+        };
+        workload.prepare(send, session).join();
+        // Once per session
+        workload.prepare(send, session).join();
+        assertEquals(1, sent.size());
+        assertEquals("POST /categories", sent.get(0).endpoint());
+        assertEquals(session, sent.get(0).sessionId());
+        assertEquals(77, new JSONObject(rules(workload, session).body()).getInt("categoryId"));
+        // The category belongs to the run of this workload, not to another one of the same sessions
+        try {
+            rules(Workload.load("statement-import"), session);
+            fail("A rule was posted to the category another workload prepared");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not prepared"));
+        }
+
+        // A session the category could not be created in fails to prepare
+        CompletableFuture<Void> failed = workload.prepare(
+                request -> CompletableFuture.completedFuture(new DriverResponse(405, "")), 2);
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testInvalidWorkloads() {
+        rejected(DASHBOARD.replace("seed: 7", "sede: 7"), "Unknown workload key sede");
+        rejected(DASHBOARD.replace("GET /transactions", "GET /transaction"), "Unknown operation GET /transaction");
+        rejected(DASHBOARD + "\nthinkTime: 100", "has arrivals");
+        rejected(DASHBOARD.replace("warmup: 1", "warmup: 15"), "over before its warmup");
+        rejected(DASHBOARD.replace("weight: 1", "weight: 0"), "must be positive");
+    }
+
+    private static void rejected(String yaml, String message) {
+        try {
+            Workload.fromYaml(new StringReader(yaml));
+            fail("Accepted: " + yaml);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private static DriverRequest rules(Workload workload, int session) {
+        SplittableRandom random = new SplittableRandom(workload.seed());
+        while (true) {
+            DriverRequest request = workload.mix().next(session, random);
+            if (request.endpoint().equals("POST /categoryRules")) {
+                return request;
+            }
+        }
+    }
+
+    private static List<DriverRequest> requests(Workload workload) {
+        SplittableRandom random = new SplittableRandom(workload.seed());
+        List<DriverRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(workload.mix().next(1, random));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,63 @@
+package nl.utwente.ing.testsuite.load;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ranks drawn for the tenants of a load run must follow Zipf's law over the whole range.
+ */
+public class ZipfTest {
+
+    @Test
+    public void testFrequencies() {
+        Zipf zipf = new Zipf(1000, 1.0);
+        int[] counts = new int[zipf.size()];
+        Random random = new Random(42);
+        int draws = 1_000_000;
+        for (int i = 0; i < draws; i++) {
+            counts[zipf.rank(random.nextDouble())]++;
+        }
+        // The harmonic number of 1000 is about 7.485
+        assertEquals(1 / 7.485, counts[0] / (double) draws, 0.005);
+        assertEquals(1 / 7.485 / 2, counts[1] / (double) draws, 0.005);
+        assertEquals(1 / 7.485 / 10, counts[9] / (double) draws, 0.002);
+        assertEquals(zipf.share(10), sum(counts, 10) / (double) draws, 0.005);
+    }
+
+    @Test
+    public void testBounds() {
+        Zipf zipf = new Zipf(5, 1.2);
+        assertEquals(0, zipf.rank(0));
+        assertEquals(4, zipf.rank(Math.nextDown(1.0)));
+        assertEquals(1.0, zipf.share(5), 0);
+        assertEquals(1.0, zipf.share(50), 0);
+        assertEquals(0.0, zipf.share(0), 0);
+        for (double u = 0; u < 1; u += 0.001) {
+            int rank = zipf.rank(u);
+            assertTrue(rank >= 0 && rank < 5);
+            assertTrue(u < zipf.share(rank + 1));
+            assertTrue(u >= zipf.share(rank));
+        }
+    }
+
+    @Test
+    public void testUniform() {
+        Zipf zipf = new Zipf(4, 0);
+        assertEquals(0, zipf.rank(0.2));
+        assertEquals(1, zipf.rank(0.25));
+        assertEquals(3, zipf.rank(0.99));
+        assertEquals(0.5, zipf.share(2), 1e-12);
+    }
+
+    private static int sum(int[] counts, int ranks) {
+        int sum = 0;
+        for (int i = 0; i < ranks; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+}
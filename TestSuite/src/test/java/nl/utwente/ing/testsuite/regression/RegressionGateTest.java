@@ -0,0 +1,98 @@
+package nl.utwente.ing.testsuite.regression;
+
+import nl.utwente.ing.testsuite.load.LatencyRecorder;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The gate must fail on endpoints that got significantly and noticeably slower, and on nothing else.
+ */
+public class RegressionGateTest {
+
+    private final RegressionGate gate = new RegressionGate(0.01, 0.25, 50, 30, "api/v1");
+
+    @Test
+    public void testMannWhitney() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long millis : new long[]{3, 4, 5}) {
+            recorder.record("current", millis * 1_000_000);
+        }
+        for (long millis : new long[]{1, 2}) {
+            recorder.record("baseline", millis * 1_000_000);
+        }
+        MannWhitney test = MannWhitney.greater(recorder.histogram("current"), recorder.histogram("baseline"));
+        assertEquals(6, test.u, 1e-9);
+        assertEquals(1, test.effect, 1e-9);
+        // Ties count half: the same samples give half of the pairs
+        MannWhitney same = MannWhitney.greater(recorder.histogram("current"), recorder.histogram("current"));
+        assertEquals(4.5, same.u, 1e-9);
+        assertTrue(same.p > 0.5);
+
+        assertEquals(1, MannWhitney.erfc(0), 1e-7);
+        assertEquals(0.1572992, MannWhitney.erfc(1), 1e-6);
+        assertEquals(1.8427008, MannWhitney.erfc(-1), 1e-6);
+    }
+
+    @Test
+    public void testVerdicts() {
+        Random random = new Random(42);
+        Map<String, Histogram> baseline = new LatencyRecorder().histograms();
+        LatencyRecorder before = new LatencyRecorder();
+        LatencyRecorder after = new LatencyRecorder();
+        record(before, "GET /transactions", random, 2000, 1.0);
+        record(after, "GET /transactions", random, 2000, 1.0);
+        record(before, "GET /transactions/{id}", random, 2000, 1.0);
+        record(after, "GET /transactions/{id}", random, 2000, 1.5);
+        record(before, "GET /categories", random, 20_000, 1.0);
+        record(after, "GET /categories", random, 20_000, 1.1);
+        record(before, "POST /transactions", random, 10, 1.0);
+        record(after, "POST /transactions", random, 10, 3.0);
+        record(before, "DELETE /transactions/{id}", random, 100, 1.0);
+        record(after, "GET /balance/history", random, 100, 1.0);
+        baseline.putAll(before.histograms());
+
+        List<RegressionGate.Comparison> comparisons = gate.compare(baseline, after.histograms());
+        assertEquals(6, comparisons.size());
+        assertEquals(RegressionGate.Verdict.OK, verdict(comparisons, "GET /transactions"));
+        assertEquals(RegressionGate.Verdict.REGRESSED, verdict(comparisons, "GET /transactions/{id}"));
+        // Significant, but less than 25% slower
+        assertEquals(RegressionGate.Verdict.SLOWER, verdict(comparisons, "GET /categories"));
+        assertEquals(RegressionGate.Verdict.FEW_SAMPLES, verdict(comparisons, "POST /transactions"));
+        assertEquals(RegressionGate.Verdict.MISSING, verdict(comparisons, "DELETE /transactions/{id}"));
+        assertEquals(RegressionGate.Verdict.NEW, verdict(comparisons, "GET /balance/history"));
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        gate.report(comparisons, new PrintStream(report, true));
+        assertTrue(report.toString().contains("REGRESSED   GET /api/v1/transactions/{id}: median "));
+        assertTrue(report.toString().contains("1 endpoint regressed"));
+    }
+
+    @Test
+    public void testRoute() {
+        assertEquals("GET /api/v1/transactions/{id}", gate.route("GET /transactions/{id}"));
+        assertEquals("GET /transactions", new RegressionGate(0.01, 0.25, 50, 30, "").route("GET /transactions"));
+    }
+
+    /**
+     * Log-normal response times around a median of {@code scale} ms.
+     */
+    private static void record(LatencyRecorder recorder, String endpoint, Random random, int count, double scale) {
+        for (int i = 0; i < count; i++) {
+            recorder.record(endpoint, (long) (scale * 1e6 * Math.exp(0.3 * random.nextGaussian())));
+        }
+    }
+
+    private static RegressionGate.Verdict verdict(List<RegressionGate.Comparison> comparisons, String endpoint) {
+        return comparisons.stream().filter(comparison -> comparison.endpoint.equals(endpoint)).findFirst()
+                .orElseThrow(AssertionError::new).verdict;
+    }
+}
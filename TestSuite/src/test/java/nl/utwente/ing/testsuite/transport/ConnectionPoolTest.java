@@ -0,0 +1,75 @@
+package nl.utwente.ing.testsuite.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Requests in a row must go over one kept-alive connection, and only over new ones when keep-alive is
+ * off, and the pool must count both.
+ */
+@SuppressWarnings("deprecation")
+public class ConnectionPoolTest {
+
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testKeepAliveReusesConnections() throws IOException {
+        ConnectionPool pool = new ConnectionPool(10, 10, 30);
+        send(pool, 10);
+        assertEquals(10, pool.requests());
+        assertEquals(1, pool.connections());
+        assertTrue(pool.report(), pool.report().contains("90.0% sent on an open connection"));
+    }
+
+    @Test
+    public void testNoKeepAliveOpensConnectionPerRequest() throws IOException {
+        ConnectionPool pool = new ConnectionPool(10, 10, 0);
+        send(pool, 10);
+        assertEquals(10, pool.requests());
+        assertEquals(10, pool.connections());
+        assertTrue(pool.connectNanos() > 0);
+    }
+
+    private void send(ConnectionPool pool, int requests) throws IOException {
+        String uri = "http://localhost:" + server.getAddress().getPort() + "/api/v1/sessions";
+        for (int i = 0; i < requests; i++) {
+            // A new client per request, as RestAssured asks for them
+            DefaultHttpClient client = pool.newClient();
+            HttpResponse response = client.execute(new HttpGet(uri));
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+}